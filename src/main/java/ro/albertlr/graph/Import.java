@@ -29,16 +29,61 @@ import org.jgrapht.io.ComponentNameProvider;
 import org.jgrapht.io.DOTExporter;
 import org.jgrapht.io.ExportException;
 import org.jgrapht.io.GraphExporter;
+import ro.albertlr.graph.dbf.NetworkCache;
+import ro.albertlr.graph.dbf.ReadDbf;
 import ro.albertlr.graph.geotools.ReadShapefile;
+import ro.albertlr.graph.algorithm.AllPairsShortestPath;
 import ro.albertlr.graph.algorithm.BreadthFirstSearch;
+import ro.albertlr.graph.algorithm.Checkpoint;
+import ro.albertlr.graph.algorithm.CompactDijkstra;
+import ro.albertlr.graph.algorithm.CompactGraph;
 import ro.albertlr.graph.algorithm.DepthFirstSearch;
+import ro.albertlr.graph.algorithm.DijkstraSearch;
+import ro.albertlr.graph.algorithm.DistanceMatrix;
+import ro.albertlr.graph.algorithm.DynamicAllPairsShortestPath;
 import ro.albertlr.graph.algorithm.Paths;
+import ro.albertlr.graph.algorithm.ResultSink;
+import ro.albertlr.graph.algorithm.SearchState;
+import ro.albertlr.graph.algorithm.TreeMetrics;
+import ro.albertlr.graph.algorithm.ch.ContractionHierarchy;
+import ro.albertlr.graph.algorithm.ch.ContractionHierarchyPreprocessor;
+import ro.albertlr.graph.algorithm.ch.ContractionHierarchyQuery;
+import ro.albertlr.graph.algorithm.ch.CustomizableContractionHierarchy;
+import ro.albertlr.graph.algorithm.ch.CustomizableContractionHierarchyQuery;
+import ro.albertlr.graph.algorithm.ch.CustomizedMetric;
+import ro.albertlr.graph.algorithm.ch.ManyToManySearch;
+import ro.albertlr.graph.algorithm.ch.NestedDissection;
+import ro.albertlr.graph.algorithm.ch.Phast;
+import ro.albertlr.graph.algorithm.p2p.AltSearch;
+import ro.albertlr.graph.algorithm.p2p.BidirectionalSearch;
+import ro.albertlr.graph.algorithm.p2p.LandmarkSelection;
+import ro.albertlr.graph.algorithm.p2p.Landmarks;
+import ro.albertlr.graph.algorithm.queue.PriorityQueueType;
+import ro.albertlr.graph.algorithm.sink.AggregatingResultSink;
+import ro.albertlr.graph.algorithm.sink.AsyncResultSink;
+import ro.albertlr.graph.algorithm.sink.BinaryResultSink;
+import ro.albertlr.graph.algorithm.sink.CsvResultSink;
+import ro.albertlr.graph.algorithm.store.CompressedDistanceMatrixWriter;
+import ro.albertlr.graph.algorithm.store.MappedDistanceMatrix;
+import ro.albertlr.graph.algorithm.store.NextHopTable;
 import ro.albertlr.graph.utils.RProperties;
 
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -58,20 +103,31 @@ public class Import {
 
         stopwatch.reset().start();
         Graph<Node, Road> roadNetwork;
+        RoadWeight weight = RoadWeight.of(properties.getProperty("algorithm.weight.property", "SP_B_M"));
+        List<RoadWeight> metrics = metrics();
+        NodeDictionary nodes = new NodeDictionary();
+        RoadAttributes attributes = new RoadAttributes(nodes, projectedColumns(weight, metrics),
+                Boolean.parseBoolean(properties.getProperty("input.offHeap", "false")));
         try {
-            roadNetwork = ReadShapefile.importFile(properties.getProperty("input.shapes"));
+            roadNetwork = loadNetwork(attributes);
         } finally {
             log.info("road network loaded in {}", stopwatch);
         }
 
+        stopwatch.reset().start();
+        CompactGraph<Node, Road> compactNetwork = CompactGraph.of(roadNetwork, weight);
+        log.info("compact road network with {} vertices and {} arcs built in {}",
+                compactNetwork.getVertexCount(), compactNetwork.getArcCount(), stopwatch);
+
         stopwatch.reset().start();
         BreadthFirstSearch<Node, Road> bfsSearch = BreadthFirstSearch.<Node, Road>builder()
                 .graph(roadNetwork)
                 .build();
 
-        Node source = getVertex(roadNetwork, "1");
+        Node source = nodes.get("1");
 
-        bfsSearch.search(source);
+        SearchState<Node> bfsState = new SearchState<>(compactNetwork.getVertexIndex());
+        bfsSearch.search(source, bfsState);
 
         log.info("breadth first search computed from node {} in {}", source, stopwatch);
 
@@ -80,7 +136,7 @@ public class Import {
         Collection<Node> path = Paths.<Node, Road>builder()
                 .graph(roadNetwork)
                 .build()
-                .path(source, getVertex(roadNetwork, "261"));
+                .path(source, nodes.get("261"), bfsState);
 
         log.info(":: BFS :: Path from {} to {} is: [{}]", 1, 261, path.stream().map(Node::getTazId).collect(Collectors.joining(" -> ")));
 
@@ -89,19 +145,20 @@ public class Import {
                 .graph(roadNetwork)
                 .build();
 
-        source = getVertex(roadNetwork, "1");
+        source = nodes.get("1");
 
-        dfsSearch.search();
+        SearchState<Node> dfsState = new SearchState<>(compactNetwork.getVertexIndex());
+        dfsSearch.search(dfsState);
 
         log.info("depth first search computed from node {} in {}", source, stopwatch);
 
         stopwatch.reset().start();
 
-        Node vertex261 = getVertex(roadNetwork, "261");
+        Node vertex261 = nodes.get("261");
         path = Paths.<Node, Road>builder()
                 .graph(roadNetwork)
                 .build()
-                .path(source, vertex261);
+                .path(source, vertex261, dfsState);
 
         log.info(":: DFS :: Path from {} to {} is: [{}]", 1, 261, path.stream().map(Node::getTazId).collect(Collectors.joining(" -> ")));
 
@@ -116,26 +173,444 @@ public class Import {
         );
         log.info("Builtin Dijkstra export done in {}", stopwatch);
 
-//        graphVizExport(roadNetwork);
+        stopwatch.reset().start();
+
+        PriorityQueueType queueType = PriorityQueueType.valueOf(properties.getProperty("algorithm.queue", "BINARY_HEAP"));
+        DijkstraSearch<Node, Road> dijkstraSearch = DijkstraSearch.<Node, Road>builder()
+                .graph(roadNetwork)
+                .weight(weight)
+                .queueType(queueType)
+                .build();
+        SearchState<Node> dijkstraState = new SearchState<>(compactNetwork.getVertexIndex());
+        dijkstraSearch.search(source, dijkstraState);
+
+        path = Paths.<Node, Road>builder()
+                .graph(roadNetwork)
+                .build()
+                .path(source, vertex261, dijkstraState);
+
+        log.info(":: Dijkstra {} :: Path from {} to {} is: [{}]", queueType, 1, 261, path.stream().map(Node::getTazId).collect(Collectors.joining(" -> ")));
+        log.info("Dijkstra with {} done in {}", queueType, stopwatch);
+
+        stopwatch.reset().start();
+        path = new BidirectionalSearch<>(compactNetwork).path(source, vertex261);
+        log.info(":: Bidirectional Dijkstra :: Path from {} to {} is: [{}]", 1, 261, path.stream().map(Node::getTazId).collect(Collectors.joining(" -> ")));
+        log.info("bidirectional Dijkstra done in {}", stopwatch);
+
+        int landmarkCount = Integer.parseInt(properties.getProperty("p2p.landmarks", "0"));
+        if (landmarkCount > 0) {
+            stopwatch.reset().start();
+            Landmarks landmarks = Landmarks.builder()
+                    .graph(compactNetwork)
+                    .count(landmarkCount)
+                    .selection(LandmarkSelection.valueOf(properties.getProperty("p2p.landmarkSelection", "AVOID")))
+                    .build();
+            log.info("{} landmarks selected in {}", landmarks.getCount(), stopwatch);
+
+            stopwatch.reset().start();
+            path = new AltSearch<>(compactNetwork, landmarks).path(source, vertex261);
+            log.info(":: ALT :: Path from {} to {} is: [{}]", 1, 261, path.stream().map(Node::getTazId).collect(Collectors.joining(" -> ")));
+            log.info("ALT query done in {}", stopwatch);
+
+            stopwatch.reset().start();
+            path = new BidirectionalSearch<>(compactNetwork, landmarks).path(source, vertex261);
+            log.info(":: Bidirectional ALT :: Path from {} to {} is: [{}]", 1, 261, path.stream().map(Node::getTazId).collect(Collectors.joining(" -> ")));
+            log.info("bidirectional ALT query done in {}", stopwatch);
+        }
+
+        int benchmarkSources = Integer.parseInt(properties.getProperty("algorithm.benchmark.sources", "0"));
+        if (benchmarkSources > 0) {
+            benchmarkDijkstra(roadNetwork, compactNetwork, benchmarkSources);
+        }
+
+        String apspAlgorithm = properties.getProperty("apsp.algorithm", "DIJKSTRA");
+        ContractionHierarchy<Node, Road> hierarchy = null;
+        String odZones = properties.getProperty("od.zones", "").trim();
+        if (Boolean.parseBoolean(properties.getProperty("ch.enabled", "false")) || "PHAST".equals(apspAlgorithm)
+                || !odZones.isEmpty()) {
+            stopwatch.reset().start();
+            hierarchy = ContractionHierarchyPreprocessor.<Node, Road>builder()
+                    .graph(compactNetwork)
+                    .witnessSearchLimit(Integer.parseInt(properties.getProperty("ch.witnessSearchLimit", "500")))
+                    .build()
+                    .preprocess();
+            log.info("contraction hierarchy with {} shortcuts built in {}", hierarchy.getShortcutCount(), stopwatch);
+
+            stopwatch.reset().start();
+            path = new ContractionHierarchyQuery<>(hierarchy).path(source, vertex261);
+            log.info(":: CH :: Path from {} to {} is: [{}]", 1, 261, path.stream().map(Node::getTazId).collect(Collectors.joining(" -> ")));
+            log.info("contraction hierarchy query done in {}", stopwatch);
+        }
+
+        String cchMetrics = properties.getProperty("cch.metrics", "").trim();
+        if (!cchMetrics.isEmpty()) {
+            customizableContractionHierarchy(compactNetwork, cchMetrics.split(","), source, vertex261);
+        }
+
+        if (!odZones.isEmpty()) {
+            stopwatch.reset().start();
+            List<Node> zones = new ArrayList<>();
+            for (String tazId : odZones.split(",")) {
+                Node zone = nodes.get(tazId.trim());
+                if (zone == null) {
+                    throw new IllegalArgumentException("Unknown TAZ " + tazId);
+                }
+                zones.add(zone);
+            }
+            double[][] odMatrix = new ManyToManySearch<>(hierarchy).distances(zones, zones);
+            log.info(":: OD :: Distance from {} to {} is {}", zones.get(0).getTazId(), zones.get(zones.size() - 1).getTazId(),
+                    odMatrix[0][zones.size() - 1]);
+            log.info("{}x{} OD matrix computed in {}", zones.size(), zones.size(), stopwatch);
+        }
+
+        stopwatch.reset().start();
+        AllPairsShortestPath apsp = AllPairsShortestPath.builder()
+                .graph(compactNetwork)
+                .parallelism(Integer.parseInt(properties.getProperty("apsp.parallelism", "0")))
+                .queueType(queueType)
+                .search(hierarchy != null && "PHAST".equals(apspAlgorithm) ? new Phast<>(hierarchy)::newSearch : null)
+                .floydWarshallThreshold(Integer.parseInt(properties.getProperty("apsp.floydWarshallThreshold", "300")))
+                .metrics(metrics.isEmpty() ? null : TreeMetrics.of(compactNetwork, metrics))
+                .build();
+        String output = properties.getProperty("apsp.output", "").trim();
+        String checkpointFile = properties.getProperty("apsp.checkpoint", "").trim();
+        String nextHopsFile = properties.getProperty("apsp.nextHops", "").trim();
+        String updates = properties.getProperty("apsp.updates", "").trim();
+        if (!updates.isEmpty() && (!output.isEmpty() || !checkpointFile.isEmpty())) {
+            // the updates repair the in-memory matrix, a streamed or mapped one is never read back
+            throw new IllegalArgumentException("apsp.updates cannot be combined with apsp.output or apsp.checkpoint");
+        }
+        if (!nextHopsFile.isEmpty() && !updates.isEmpty()) {
+            // the updates only repair the matrix, the table would keep the paths through closed roads
+            throw new IllegalArgumentException("apsp.nextHops cannot be combined with apsp.updates");
+        }
+        if (!nextHopsFile.isEmpty() && !checkpointFile.isEmpty()) {
+            // a resumed run does not recompute the finished rows, the table would miss them
+            throw new IllegalArgumentException("apsp.nextHops cannot be combined with apsp.checkpoint");
+        }
+        NextHopTable nextHops = nextHopsFile.isEmpty()
+                ? null
+                : NextHopTable.create(new File(nextHopsFile).toPath(), compactNetwork.getVertexCount());
+        if (!metrics.isEmpty() && (output.isEmpty() || !checkpointFile.isEmpty())) {
+            log.warn("the metrics {} are only written to an apsp.output without apsp.checkpoint", metrics);
+        }
+        if (output.isEmpty()) {
+            DistanceMatrix distances = new DistanceMatrix(compactNetwork.getVertexCount());
+            apsp.compute(nextHops == null ? distances : distances.andThen(nextHops));
+            log.info(":: APSP :: Distance from {} to {} is {}", 1, 261,
+                    distances.get(compactNetwork.id(source), compactNetwork.id(vertex261)));
+            if (!updates.isEmpty()) {
+                updateDistances(compactNetwork, distances, updates(roadNetwork, nodes, updates.split(",")),
+                        source, vertex261);
+            }
+        } else if (!checkpointFile.isEmpty()) {
+            computeResumable(apsp, compactNetwork, new File(output).toPath(), new File(checkpointFile).toPath(),
+                    apspAlgorithm);
+        } else {
+            AggregatingResultSink statistics = new AggregatingResultSink(compactNetwork.getVertexCount());
+            try (AsyncResultSink sink = new AsyncResultSink(outputSink(new File(output).toPath(), compactNetwork, metrics),
+                    compactNetwork.getVertexCount(), Integer.parseInt(properties.getProperty("apsp.output.queue", "64")))) {
+                ResultSink rows = statistics.andThen(sink);
+                apsp.compute(nextHops == null ? rows : rows.andThen(nextHops));
+            }
+            log.info(":: APSP :: {} reachable and {} unreachable pairs, average distance {}, diameter {}, written to {}",
+                    statistics.getReachablePairs(), statistics.getUnreachablePairs(), statistics.getAverageDistance(),
+                    statistics.getDiameter(), output);
+        }
+        log.info("all-pairs shortest path ({}) over {} vertices computed with {} workers in {}",
+                apspAlgorithm, compactNetwork.getVertexCount(), apsp.getParallelism(), stopwatch);
+
+        if (nextHops != null) {
+            List<String> route = new ArrayList<>();
+            nextHops.path(compactNetwork.id(source), compactNetwork.id(vertex261))
+                    .forEachRemaining((int id) -> route.add(compactNetwork.vertex(id).getTazId()));
+            log.info(":: Next hops :: Path from {} to {} is: [{}]", 1, 261, String.join(" -> ", route));
+            nextHops.close();
+        }
+
+//        graphVizExport(roadNetwork, bfsState);
         log.info("GraphViz export done in {}", stopwatch);
     }
 
-    private static Node getVertex(Graph<Node, Road> graph, String vertexId) {
-        for (Node v : graph.vertexSet()) {
-            if (vertexId.equals(v.getTazId())) {
-                return v;
+    /**
+     * Builds the customizable contraction hierarchy of the network once, then customizes and queries it for every
+     * metric, logging the time taken by each step.
+     */
+    private static void customizableContractionHierarchy(CompactGraph<Node, Road> graph, String[] metrics,
+                                                         Node source, Node destination) {
+        int parallelism = Integer.parseInt(properties.getProperty("cch.parallelism", "0"));
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        int[] ranks = NestedDissection.builder()
+                .graph(graph)
+                .leafSize(Integer.parseInt(properties.getProperty("cch.leafSize", "0")))
+                .build()
+                .ranks();
+        log.info("nested dissection order computed in {}", stopwatch);
+
+        stopwatch.reset().start();
+        CustomizableContractionHierarchy<Node, Road> hierarchy = new CustomizableContractionHierarchy<>(graph, ranks);
+        log.info("customizable contraction hierarchy with {} edges built in {}", hierarchy.getEdgeCount(), stopwatch);
+
+        for (String metric : metrics) {
+            stopwatch.reset().start();
+            CustomizedMetric<Node, Road> customized = hierarchy.customize(RoadWeight.of(metric.trim()), parallelism);
+            log.info("customizable contraction hierarchy customized for {} in {}", metric.trim(), stopwatch);
+
+            stopwatch.reset().start();
+            Collection<Node> path = new CustomizableContractionHierarchyQuery<>(customized).path(source, destination);
+            log.info(":: CCH {} :: Path from {} to {} is: [{}]", metric.trim(), source.getTazId(),
+                    destination.getTazId(), path.stream().map(Node::getTazId).collect(Collectors.joining(" -> ")));
+            log.info("customizable contraction hierarchy query done in {}", stopwatch);
+        }
+    }
+
+    /**
+     * Applies the road changes to the computed matrix, repairing only the rows they affect, and logs the time taken.
+     * Every changed cell is written to the {@code apsp.updates.output} file when there is one, and logged at debug
+     * level otherwise.
+     */
+    private static void updateDistances(CompactGraph<Node, Road> graph, DistanceMatrix distances,
+                                        Map<Road, Double> changes, Node source, Node destination) throws IOException {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        String output = properties.getProperty("apsp.updates.output", "").trim();
+        try (DynamicAllPairsShortestPath<Node, Road> dynamic = DynamicAllPairsShortestPath.<Node, Road>builder()
+                .graph(graph)
+                .matrix(distances)
+                .parallelism(Integer.parseInt(properties.getProperty("apsp.parallelism", "0")))
+                .build();
+             Writer writer = output.isEmpty() ? null : Files.newBufferedWriter(new File(output).toPath(),
+                     StandardCharsets.UTF_8)) {
+            log.info("dynamic all-pairs shortest path ready in {}", stopwatch);
+
+            stopwatch.reset().start();
+            DynamicAllPairsShortestPath.CellListener listener = writer != null
+                    ? cellWriter(writer, graph)
+                    : (from, to, before, after) -> log.debug(":: APSP update :: {} -> {} changed from {} to {}",
+                    graph.vertex(from).getTazId(), graph.vertex(to).getTazId(), before, after);
+            long cells = dynamic.update(changes, listener);
+            log.info(":: APSP update :: Distance from {} to {} is {}", source.getTazId(), destination.getTazId(),
+                    distances.get(graph.id(source), graph.id(destination)));
+            log.info("{} roads changed, {} cells repaired in {}", changes.size(), cells, stopwatch);
+        }
+    }
+
+    /**
+     * @return a listener writing every changed cell as a {@code source,target,before,after} line of TAZ ids and
+     * distances, {@code Infinity} for an unreachable pair; safe to call from the worker threads
+     */
+    private static DynamicAllPairsShortestPath.CellListener cellWriter(Writer writer, CompactGraph<Node, Road> graph)
+            throws IOException {
+        writer.write("source,target,before,after\n");
+        return (from, to, before, after) -> {
+            String line = graph.vertex(from).getTazId() + ',' + graph.vertex(to).getTazId() + ',' + before + ',' + after
+                    + '\n';
+            try {
+                synchronized (writer) {
+                    writer.write(line);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write the changed cell " + from + " -> " + to, e);
+            }
+        };
+    }
+
+    /**
+     * @param updates {@code A-B} to close the roads from TAZ {@code A} to TAZ {@code B}, {@code A-B=weight} to give
+     *                them a new weight
+     * @return the new weight of every changed road
+     */
+    private static Map<Road, Double> updates(Graph<Node, Road> graph, NodeDictionary nodes, String[] updates) {
+        Map<Road, Double> changes = new LinkedHashMap<>();
+        for (String update : updates) {
+            String[] change = update.trim().split("=", 2);
+            String[] ends = change[0].trim().split("-", 2);
+            if (ends.length != 2) {
+                throw new IllegalArgumentException("Invalid apsp.updates entry " + update);
+            }
+            Node from = nodes.get(ends[0].trim());
+            Node to = nodes.get(ends[1].trim());
+            Set<Road> roads = from == null || to == null ? null : graph.getAllEdges(from, to);
+            if (roads == null || roads.isEmpty()) {
+                throw new IllegalArgumentException("No road from TAZ " + ends[0].trim() + " to " + ends[1].trim());
+            }
+            double weight = change.length == 1 ? Double.POSITIVE_INFINITY : Double.parseDouble(change[1].trim());
+            for (Road road : roads) {
+                changes.put(road, weight);
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * @return the secondary metrics of the {@code apsp.metrics}, summed along the shortest paths of the weight
+     */
+    private static List<RoadWeight> metrics() {
+        List<RoadWeight> metrics = new ArrayList<>();
+        for (String metric : properties.getProperty("apsp.metrics", "").split(",")) {
+            if (!metric.trim().isEmpty()) {
+                metrics.add(RoadWeight.of(metric.trim()));
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * @return the road columns a run needs: the ones of the weight and of the metrics, the {@code cch.metrics} and the
+     * {@code input.columns}
+     */
+    private static Set<RoadColumn> projectedColumns(RoadWeight weight, List<RoadWeight> metrics) {
+        Set<RoadColumn> columns = EnumSet.of(weight.getColumn());
+        for (RoadWeight metric : metrics) {
+            columns.add(metric.getColumn());
+        }
+        for (String metric : properties.getProperty("cch.metrics", "").split(",")) {
+            if (!metric.trim().isEmpty()) {
+                columns.add(RoadColumn.of(metric.trim()));
+            }
+        }
+        for (String column : properties.getProperty("input.columns", "").split(",")) {
+            if (!column.trim().isEmpty()) {
+                columns.add(RoadColumn.of(column.trim()));
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Imports the road network with the {@code input.reader} configured, projected onto the weight column and the
+     * {@code input.columns}. With {@code input.cache} the network is loaded from the snapshot next to the input when it
+     * is up to date, and the snapshot is rewritten otherwise; a snapshot that cannot be written only costs the next run
+     * a full import. The roads and nodes of the network are added to the store.
+     */
+    private static Graph<Node, Road> loadNetwork(RoadAttributes attributes) throws IOException {
+        boolean geotools = "GEOTOOLS".equals(properties.getProperty("input.reader", "DBF"));
+        List<Path> sources = new ArrayList<>();
+        sources.add(new File(properties.getProperty("input.attributes")).toPath());
+        if (geotools) {
+            sources.add(new File(properties.getProperty("input.shapes")).toPath());
+        }
+        boolean cached = Boolean.parseBoolean(properties.getProperty("input.cache", "true"))
+                && Files.exists(sources.get(0));
+        Path cache = NetworkCache.cacheFile(sources.get(0));
+        if (cached) {
+            Graph<Node, Road> roadNetwork = NetworkCache.load(cache, sources, attributes);
+            if (roadNetwork != null) {
+                log.info("road network loaded from {}", cache);
+                return roadNetwork;
+            }
+        }
+
+        Graph<Node, Road> roadNetwork = geotools
+                ? ReadShapefile.importFile(properties.getProperty("input.shapes"), attributes)
+                : ReadDbf.importFile(properties.getProperty("input.attributes"),
+                Integer.parseInt(properties.getProperty("input.parallelism", "0")), attributes);
+        if (cached && roadNetwork != null) {
+            try {
+                NetworkCache.write(cache, sources, roadNetwork, attributes);
+            } catch (IOException e) {
+                log.warn("network cache {} not written: {}", cache, e.toString());
+            }
+        }
+        return roadNetwork;
+    }
+
+    /**
+     * Computes the matrix into a memory-mapped file, resuming from the checkpoint of a previous run with the same
+     * configuration. Only the MAPPED format is written in place, so only it can be resumed.
+     */
+    private static void computeResumable(AllPairsShortestPath apsp, CompactGraph<Node, Road> graph, Path output,
+                                         Path checkpointFile, String algorithm) throws IOException {
+        if (!"MAPPED".equals(properties.getProperty("apsp.output.format", "MAPPED"))) {
+            throw new IllegalArgumentException("apsp.checkpoint requires apsp.output.format=MAPPED");
+        }
+        MappedDistanceMatrix.Cell cell = MappedDistanceMatrix.Cell.valueOf(properties.getProperty("apsp.output.cell", "FLOAT"));
+        String fingerprint = String.join("|", algorithm, properties.getProperty("algorithm.weight.property"),
+                cell.name(), String.valueOf(graph.getVertexCount()), String.valueOf(graph.getArcCount()),
+                output.toAbsolutePath().toString());
+        long intervalMillis = 1000L * Long.parseLong(properties.getProperty("apsp.checkpoint.interval", "60"));
+
+        boolean resume = Files.exists(checkpointFile) && Files.exists(output);
+        try (MappedDistanceMatrix matrix = resume
+                ? MappedDistanceMatrix.open(output, true)
+                : MappedDistanceMatrix.create(output, graph.getVertexCount(), cell, id -> graph.vertex(id).getTazId());
+             Checkpoint checkpoint = Checkpoint.open(checkpointFile, fingerprint, graph.getVertexCount(), matrix,
+                     intervalMillis)) {
+            if (resume && (matrix.size() != graph.getVertexCount() || matrix.getCell() != cell)) {
+                throw new IllegalStateException(output + " does not match the configuration, delete it and "
+                        + checkpointFile + " to start over");
+            }
+            if (checkpoint.getCompletedCount() > 0) {
+                log.info("resuming from {}: {} of {} sources already done", checkpointFile,
+                        checkpoint.getCompletedCount(), graph.getVertexCount());
+            }
+            apsp.compute(matrix, checkpoint);
+        }
+        log.info(":: APSP :: all rows written to {}, checkpoint {}", output, checkpointFile);
+    }
+
+    /**
+     * Opens the sink of the {@code apsp.output.format} configured: MAPPED, COMPRESSED, CSV or BINARY.
+     */
+    private static ResultSink outputSink(Path file, CompactGraph<Node, Road> graph, List<RoadWeight> metrics)
+            throws IOException {
+        int size = graph.getVertexCount();
+        IntFunction<String> labels = id -> graph.vertex(id).getTazId();
+        String format = properties.getProperty("apsp.output.format", "MAPPED");
+        if (!metrics.isEmpty() && !"CSV".equals(format)) {
+            log.warn("apsp.output.format {} only stores distances, the metrics {} are not written", format, metrics);
+        }
+        switch (format) {
+            case "MAPPED":
+                MappedDistanceMatrix.Cell cell = MappedDistanceMatrix.Cell.valueOf(properties.getProperty("apsp.output.cell", "FLOAT"));
+                return MappedDistanceMatrix.create(file, size, cell, labels);
+            case "COMPRESSED":
+                double resolution = Double.parseDouble(properties.getProperty("apsp.output.resolution", "0.01"));
+                return CompressedDistanceMatrixWriter.create(file, graph, resolution, labels);
+            case "CSV":
+                return new CsvResultSink(file, labels,
+                        metrics.stream().map(RoadWeight::toString).collect(Collectors.toList()));
+            case "BINARY":
+                return new BinaryResultSink(Files.newOutputStream(file), size);
+            default:
+                throw new IllegalArgumentException("Unknown apsp.output.format " + format);
+        }
+    }
+
+    /**
+     * Runs JGraphT's Fibonacci heap based Dijkstra and the compact Dijkstra with every priority queue from the same
+     * sources, logging the time taken by each.
+     */
+    private static void benchmarkDijkstra(Graph<Node, Road> graph, CompactGraph<Node, Road> compactGraph, int sources) {
+        sources = Math.min(sources, compactGraph.getVertexCount());
+        Stopwatch stopwatch = Stopwatch.createStarted();
+
+        DijkstraShortestPath<Node, Road> jgraphtDijkstra = new DijkstraShortestPath<>(graph);
+        for (int source = 0; source < sources; source++) {
+            jgraphtDijkstra.getPaths(compactGraph.vertex(source));
+        }
+        log.info(":: Benchmark :: JGraphT Dijkstra from {} sources done in {}", sources, stopwatch);
+
+        for (PriorityQueueType queueType : PriorityQueueType.values()) {
+            if (queueType.forWeights(compactGraph.isIntegral()) != queueType) {
+                log.info(":: Benchmark :: {} skipped, the weights are not integral", queueType);
+                continue;
+            }
+            stopwatch.reset().start();
+            CompactDijkstra dijkstra = new CompactDijkstra(compactGraph, queueType);
+            for (int source = 0; source < sources; source++) {
+                dijkstra.search(source);
             }
+            log.info(":: Benchmark :: compact Dijkstra with {} from {} sources done in {}", queueType, sources, stopwatch);
         }
-        return null;
     }
 
-    public static void graphVizExport(Graph<Node, Road> graph) {
+    public static void graphVizExport(Graph<Node, Road> graph, SearchState<Node> state) {
         // use helper classes to define how vertices should be rendered,
         // adhering to the DOT language restrictions
         ComponentNameProvider<Node> vertexIdProvider = node -> String.valueOf(node.getTazId());
         ComponentNameProvider<Node> vertexLabelProvider = node ->
                 String.valueOf(node.getTazId()) + ":" +
-                        (Long.MAX_VALUE == node.getDistance() ? "∞" : String.valueOf(node.getDistance()));
+                        (Long.MAX_VALUE == state.getDistance(node) ? "∞" : String.valueOf(state.getDistance(node)));
         ComponentNameProvider<Road> roadLabelProvider = road -> "" + road.getId() + ':' + road.getLEVEL();
         GraphExporter<Node, Road> exporter =
                 new DOTExporter<>(
@@ -0,0 +1,109 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph;
+
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.ObjectIntHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The nodes of one road network, numbered densely in {@code [0, size)} in the order they were first seen, with O(1)
+ * lookup from a TAZ id to its index and node and back. Numeric TAZ ids read from the attribute table are interned
+ * through a primitive map, without building a key per lookup.
+ * <p>
+ * A dictionary belongs to the network it was filled for; it is not thread safe.
+ */
+public class NodeDictionary {
+    public static final int NONE = -1;
+
+    private final ObjectIntHashMap<String> indexes = new ObjectIntHashMap<>();
+    private final LongIntHashMap numericIndexes = new LongIntHashMap();
+    private final List<Node> nodes = new ArrayList<>();
+
+    /**
+     * @return the node of the TAZ, created and numbered if it is new
+     */
+    public Node getOrCreate(String tazId) {
+        int index = indexes.getIfAbsent(tazId, NONE);
+        return index == NONE ? add(tazId) : nodes.get(index);
+    }
+
+    /**
+     * @return the node of a numeric TAZ id, created and numbered if it is new
+     */
+    public Node getOrCreate(long tazId) {
+        int index = numericIndexes.getIfAbsent(tazId, NONE);
+        if (index != NONE) {
+            return nodes.get(index);
+        }
+        String key = String.valueOf(tazId);
+        Node node = getOrCreate(key);
+        numericIndexes.put(tazId, indexes.get(key));
+        return node;
+    }
+
+    /**
+     * Adds an existing node, e.g. one restored from a snapshot, under the next index.
+     *
+     * @throws IllegalArgumentException if its TAZ id is taken
+     */
+    public void add(Node node) {
+        if (indexes.containsKey(node.getTazId())) {
+            throw new IllegalArgumentException("Duplicate TAZ " + node.getTazId());
+        }
+        indexes.put(node.getTazId(), nodes.size());
+        nodes.add(node);
+    }
+
+    /**
+     * @return the index of the TAZ or {@link #NONE} if there is no such node
+     */
+    public int index(String tazId) {
+        return indexes.getIfAbsent(tazId, NONE);
+    }
+
+    /**
+     * @return the node of the TAZ or {@code null} if there is no such node
+     */
+    public Node get(String tazId) {
+        int index = index(tazId);
+        return index == NONE ? null : nodes.get(index);
+    }
+
+    public Node node(int index) {
+        return nodes.get(index);
+    }
+
+    public String tazId(int index) {
+        return nodes.get(index).getTazId();
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    private Node add(String tazId) {
+        Node node = Node.builder().tazId(tazId).build();
+        add(node);
+        return node;
+    }
+}
@@ -0,0 +1,392 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Struct of arrays holding the attributes of every road of a network: one primitive column per {@link RoadColumn},
+ * indexed by edge id, plus the dictionary indexes of the end nodes and the record number of every edge. A {@link Road}
+ * is only a view of one edge id, so a scan over one attribute reads one contiguous column.
+ * <p>
+ * Only the columns given at creation are allocated; the others read as {@code 0}. Columns live on the heap or, to keep
+ * large networks out of the collector's way, in direct buffers. Edges are appended one at a time or reserved in bulk;
+ * once reserved, distinct edges can be written by distinct threads.
+ */
+public class RoadAttributes {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    @Getter
+    private final NodeDictionary nodes;
+    /**
+     * Name of the layer the roads were read from, the prefix of their feature ids.
+     */
+    @Getter
+    @Setter
+    private String typeName = "";
+    private final Set<RoadColumn> columns;
+    private final boolean offHeap;
+    private int size;
+    private int capacity;
+
+    private IntBuffer from;
+    private IntBuffer to;
+    private IntBuffer records;
+    private final IntBuffer[] ints = new IntBuffer[RoadColumn.values().length];
+    private final LongBuffer[] longs = new LongBuffer[RoadColumn.values().length];
+    private final DoubleBuffer[] doubles = new DoubleBuffer[RoadColumn.values().length];
+
+    /**
+     * @param columns the columns stored, every other one reads as {@code 0}
+     * @param offHeap whether the columns are direct buffers instead of heap arrays
+     */
+    public RoadAttributes(NodeDictionary nodes, Collection<RoadColumn> columns, boolean offHeap) {
+        this.nodes = nodes;
+        this.columns = columns.isEmpty() ? EnumSet.noneOf(RoadColumn.class) : EnumSet.copyOf(columns);
+        this.offHeap = offHeap;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @return the columns stored, in column order
+     */
+    public Set<RoadColumn> getColumns() {
+        return Collections.unmodifiableSet(columns);
+    }
+
+    public boolean has(RoadColumn column) {
+        return columns.contains(column);
+    }
+
+    /**
+     * @return number of edge ids handed out
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Appends an edge without end nodes and with every attribute {@code 0}.
+     *
+     * @return its edge id
+     */
+    public int add(int record) {
+        int edge = reserve(1);
+        records.put(edge, record);
+        return edge;
+    }
+
+    /**
+     * Appends {@code count} edges at once, e.g. one per record of a table decoded in parallel.
+     *
+     * @return the id of the first one, the others follow it
+     */
+    public int reserve(int count) {
+        if (size + count > capacity) {
+            allocate(Math.max(size + count, 2 * capacity));
+        }
+        int first = size;
+        for (int edge = first; edge < first + count; edge++) {
+            from.put(edge, NodeDictionary.NONE);
+            to.put(edge, NodeDictionary.NONE);
+        }
+        size += count;
+        return first;
+    }
+
+    /**
+     * @return a view of the edge
+     */
+    public Road road(int edge) {
+        return new Road(this, edge);
+    }
+
+    public int getRecord(int edge) {
+        return records.get(edge);
+    }
+
+    public void setRecord(int edge, int record) {
+        records.put(edge, record);
+    }
+
+    /**
+     * @return the dictionary index of the tail node, {@link NodeDictionary#NONE} if not set yet
+     */
+    public int getFrom(int edge) {
+        return from.get(edge);
+    }
+
+    public void setFrom(int edge, int node) {
+        from.put(edge, node);
+    }
+
+    /**
+     * @return the dictionary index of the head node, {@link NodeDictionary#NONE} if not set yet
+     */
+    public int getTo(int edge) {
+        return to.get(edge);
+    }
+
+    public void setTo(int edge, int node) {
+        to.put(edge, node);
+    }
+
+    /**
+     * Copies the end nodes and record numbers of reserved edges in bulk, one edge per remaining value, from
+     * {@code first} on.
+     */
+    public void put(int first, IntBuffer from, IntBuffer to, IntBuffer records) {
+        copy(this.from, first, from);
+        copy(this.to, first, to);
+        copy(this.records, first, records);
+    }
+
+    /**
+     * Copies a column of reserved edges in bulk, one edge per remaining value, from {@code first} on.
+     *
+     * @param values an {@link IntBuffer}, {@link LongBuffer} or {@link DoubleBuffer}, as the type of the column
+     * @throws IllegalStateException if the column is not stored
+     */
+    public void put(RoadColumn column, int first, Buffer values) {
+        int c = column.ordinal();
+        switch (column.getType()) {
+            case INT:
+                copy(stored(ints[c], column), first, (IntBuffer) values);
+                break;
+            case LONG:
+                LongBuffer longValues = stored(longs[c], column).duplicate();
+                longValues.position(first);
+                longValues.put(((LongBuffer) values).duplicate());
+                break;
+            default:
+                DoubleBuffer doubleValues = stored(doubles[c], column).duplicate();
+                doubleValues.position(first);
+                doubleValues.put(((DoubleBuffer) values).duplicate());
+                break;
+        }
+    }
+
+    public int getInt(RoadColumn column, int edge) {
+        IntBuffer values = ints[column.ordinal()];
+        return values == null ? 0 : values.get(edge);
+    }
+
+    public long getLong(RoadColumn column, int edge) {
+        LongBuffer values = longs[column.ordinal()];
+        return values == null ? 0 : values.get(edge);
+    }
+
+    /**
+     * @return the value of any column, widened to {@code double}
+     */
+    public double getDouble(RoadColumn column, int edge) {
+        switch (column.getType()) {
+            case INT:
+                return getInt(column, edge);
+            case LONG:
+                return getLong(column, edge);
+            default:
+                DoubleBuffer values = doubles[column.ordinal()];
+                return values == null ? 0 : values.get(edge);
+        }
+    }
+
+    /**
+     * Sets any column, narrowing the value to the type of the column.
+     *
+     * @throws IllegalStateException if the column is not stored
+     */
+    public void set(RoadColumn column, int edge, double value) {
+        switch (column.getType()) {
+            case INT:
+                stored(ints[column.ordinal()], column).put(edge, (int) value);
+                break;
+            case LONG:
+                stored(longs[column.ordinal()], column).put(edge, (long) value);
+                break;
+            default:
+                stored(doubles[column.ordinal()], column).put(edge, value);
+                break;
+        }
+    }
+
+    /**
+     * Sets an integral column without going through {@code double}.
+     *
+     * @throws IllegalStateException if the column is not stored
+     */
+    public void set(RoadColumn column, int edge, long value) {
+        switch (column.getType()) {
+            case INT:
+                stored(ints[column.ordinal()], column).put(edge, (int) value);
+                break;
+            case LONG:
+                stored(longs[column.ordinal()], column).put(edge, value);
+                break;
+            default:
+                stored(doubles[column.ordinal()], column).put(edge, value);
+                break;
+        }
+    }
+
+    /**
+     * Resolves the storage of a column once, for bulk writes; the setter is valid until edges are added or reserved.
+     *
+     * @throws IllegalStateException if the column is not stored
+     */
+    public ColumnSetter setter(RoadColumn column) {
+        int c = column.ordinal();
+        switch (column.getType()) {
+            case INT: {
+                IntBuffer values = stored(ints[c], column);
+                return new ColumnSetter() {
+                    @Override
+                    public void set(int edge, long value) {
+                        values.put(edge, (int) value);
+                    }
+
+                    @Override
+                    public void set(int edge, double value) {
+                        values.put(edge, (int) value);
+                    }
+                };
+            }
+            case LONG: {
+                LongBuffer values = stored(longs[c], column);
+                return new ColumnSetter() {
+                    @Override
+                    public void set(int edge, long value) {
+                        values.put(edge, value);
+                    }
+
+                    @Override
+                    public void set(int edge, double value) {
+                        values.put(edge, (long) value);
+                    }
+                };
+            }
+            default: {
+                DoubleBuffer values = stored(doubles[c], column);
+                return new ColumnSetter() {
+                    @Override
+                    public void set(int edge, long value) {
+                        values.put(edge, value);
+                    }
+
+                    @Override
+                    public void set(int edge, double value) {
+                        values.put(edge, value);
+                    }
+                };
+            }
+        }
+    }
+
+    /**
+     * Writes one column, narrowing the values to its type.
+     */
+    public interface ColumnSetter {
+        void set(int edge, long value);
+
+        void set(int edge, double value);
+    }
+
+    private <B> B stored(B values, RoadColumn column) {
+        if (values == null) {
+            throw new IllegalStateException("Column " + column + " is not stored");
+        }
+        return values;
+    }
+
+    private static void copy(IntBuffer target, int first, IntBuffer values) {
+        IntBuffer slice = target.duplicate();
+        slice.position(first);
+        slice.put(values.duplicate());
+    }
+
+    private void allocate(int newCapacity) {
+        from = grow(from, newCapacity);
+        to = grow(to, newCapacity);
+        records = grow(records, newCapacity);
+        for (RoadColumn column : columns) {
+            int c = column.ordinal();
+            switch (column.getType()) {
+                case INT:
+                    ints[c] = grow(ints[c], newCapacity);
+                    break;
+                case LONG:
+                    longs[c] = grow(longs[c], newCapacity);
+                    break;
+                default:
+                    doubles[c] = grow(doubles[c], newCapacity);
+                    break;
+            }
+        }
+        capacity = newCapacity;
+    }
+
+    private IntBuffer grow(IntBuffer old, int newCapacity) {
+        IntBuffer values = offHeap ? direct(newCapacity, Integer.BYTES).asIntBuffer() : IntBuffer.allocate(newCapacity);
+        if (old != null) {
+            IntBuffer source = old.duplicate();
+            source.clear();
+            values.put(source).clear();
+        }
+        return values;
+    }
+
+    private LongBuffer grow(LongBuffer old, int newCapacity) {
+        LongBuffer values = offHeap ? direct(newCapacity, Long.BYTES).asLongBuffer() : LongBuffer.allocate(newCapacity);
+        if (old != null) {
+            LongBuffer source = old.duplicate();
+            source.clear();
+            values.put(source).clear();
+        }
+        return values;
+    }
+
+    private DoubleBuffer grow(DoubleBuffer old, int newCapacity) {
+        DoubleBuffer values = offHeap
+                ? direct(newCapacity, Double.BYTES).asDoubleBuffer()
+                : DoubleBuffer.allocate(newCapacity);
+        if (old != null) {
+            DoubleBuffer source = old.duplicate();
+            source.clear();
+            values.put(source).clear();
+        }
+        return values;
+    }
+
+    private static ByteBuffer direct(int capacity, int bytes) {
+        return ByteBuffer.allocateDirect(Math.multiplyExact(capacity, bytes)).order(ByteOrder.nativeOrder());
+    }
+}
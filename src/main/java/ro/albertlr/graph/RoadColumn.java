@@ -0,0 +1,94 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The attribute columns of the links table, named as in the {@code .dbf} file, with the primitive type they are stored
+ * as in {@link RoadAttributes}.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum RoadColumn {
+    ID(Type.LONG),
+    LENGTH(Type.LONG),
+    SP_F(Type.INT),
+    SP_B(Type.INT),
+    SP_F_M(Type.INT),
+    SP_B_M(Type.DOUBLE),
+    CAP_F_M(Type.DOUBLE),
+    CAP_B_M(Type.INT),
+    LD_F_M(Type.INT),
+    LD_B_M(Type.INT),
+    SPF_F_M(Type.INT),
+    SPF_B_M(Type.INT),
+    LDF_F_M(Type.INT),
+    LDF_B_M(Type.INT),
+    SP_F_E(Type.INT),
+    SP_B_E(Type.INT),
+    CAP_F_E(Type.INT),
+    CAP_B_E(Type.INT),
+    LD_F_E(Type.INT),
+    LD_B_E(Type.INT),
+    SPF_F_E(Type.INT),
+    SPF_B_E(Type.INT),
+    LDF_F_E(Type.INT),
+    LDF_B_E(Type.INT),
+    LEVEL(Type.INT);
+
+    public enum Type {
+        /**
+         * Truncated from the decimal text, as the GeoTools importer always did.
+         */
+        INT,
+        LONG,
+        DOUBLE
+    }
+
+    private final Type type;
+
+    /**
+     * @return the column of a {@link Road} property or attribute name, e.g. {@code length} or {@code SP_B_M}; {@code
+     * null} if there is none
+     */
+    public static RoadColumn find(String name) {
+        String column = "length".equals(name) ? LENGTH.name() : name;
+        for (RoadColumn value : values()) {
+            if (value.name().equals(column)) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the column of a {@link Road} property or attribute name
+     * @throws IllegalArgumentException if there is no such column
+     */
+    public static RoadColumn of(String name) {
+        RoadColumn column = find(name);
+        if (column == null) {
+            throw new IllegalArgumentException("Unknown property " + name);
+        }
+        return column;
+    }
+}
@@ -0,0 +1,346 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph;
+
+import org.jgrapht.Graph;
+import org.jgrapht.GraphType;
+import org.jgrapht.graph.AbstractGraph;
+import org.jgrapht.graph.DefaultGraphType;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Read-only graph over a block of edges of a {@link RoadAttributes}, for a network restored in bulk, e.g. from a
+ * snapshot. The vertices are the nodes of the dictionary, in index order, and the edges are views of the block, in
+ * edge order; outgoing and incoming edges come from two arrays sorted by node, so nothing is hashed per edge and no
+ * road is allocated until it is asked for.
+ * <p>
+ * It answers like the {@link org.jgrapht.graph.DefaultDirectedWeightedGraph} the network was imported into: the same
+ * vertex and edge order, loops allowed, and the default weight for every edge. The nodes do not list their roads; ask
+ * the graph instead.
+ */
+public class RoadNetwork extends AbstractGraph<Node, Road> {
+    private static final GraphType TYPE = new DefaultGraphType.Builder()
+            .directed()
+            .allowMultipleEdges(false)
+            .allowSelfLoops(true)
+            .weighted(true)
+            .modifiable(false)
+            .build();
+
+    private final RoadAttributes attributes;
+    private final int vertexCount;
+    private final int first;
+    private final int edgeCount;
+    // edges by tail node: the ones of node u are outEdges[outOffsets[u], outOffsets[u + 1])
+    private final int[] outOffsets;
+    private final int[] outEdges;
+    private final int[] inOffsets;
+    private final int[] inEdges;
+
+    /**
+     * @param attributes store whose end nodes are set for every edge of the block; every node of its dictionary is a
+     *                   vertex
+     * @param first      id of the first edge of the block
+     * @param edgeCount  number of edges of the block
+     */
+    public RoadNetwork(RoadAttributes attributes, int first, int edgeCount) {
+        this.attributes = attributes;
+        this.vertexCount = attributes.getNodes().size();
+        this.first = first;
+        this.edgeCount = edgeCount;
+        this.outOffsets = new int[vertexCount + 1];
+        this.outEdges = new int[edgeCount];
+        this.inOffsets = new int[vertexCount + 1];
+        this.inEdges = new int[edgeCount];
+        for (int edge = first; edge < first + edgeCount; edge++) {
+            outOffsets[attributes.getFrom(edge) + 1]++;
+            inOffsets[attributes.getTo(edge) + 1]++;
+        }
+        for (int u = 0; u < vertexCount; u++) {
+            outOffsets[u + 1] += outOffsets[u];
+            inOffsets[u + 1] += inOffsets[u];
+        }
+        int[] outNext = outOffsets.clone();
+        int[] inNext = inOffsets.clone();
+        for (int edge = first; edge < first + edgeCount; edge++) {
+            outEdges[outNext[attributes.getFrom(edge)]++] = edge;
+            inEdges[inNext[attributes.getTo(edge)]++] = edge;
+        }
+    }
+
+    @Override
+    public Set<Road> getAllEdges(Node sourceVertex, Node targetVertex) {
+        if (!containsVertex(sourceVertex) || !containsVertex(targetVertex)) {
+            return null;
+        }
+        int target = index(targetVertex);
+        Set<Road> edges = new LinkedHashSet<>();
+        for (Road road : outgoingEdgesOf(sourceVertex)) {
+            if (attributes.getTo(road.getEdge()) == target) {
+                edges.add(road);
+            }
+        }
+        return edges;
+    }
+
+    @Override
+    public Road getEdge(Node sourceVertex, Node targetVertex) {
+        Set<Road> edges = getAllEdges(sourceVertex, targetVertex);
+        return edges == null || edges.isEmpty() ? null : edges.iterator().next();
+    }
+
+    @Override
+    public Supplier<Node> getVertexSupplier() {
+        return null;
+    }
+
+    @Override
+    public Supplier<Road> getEdgeSupplier() {
+        return null;
+    }
+
+    @Override
+    public Road addEdge(Node sourceVertex, Node targetVertex) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean addEdge(Node sourceVertex, Node targetVertex, Road road) {
+        throw readOnly();
+    }
+
+    @Override
+    public Node addVertex() {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean addVertex(Node node) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean containsEdge(Road road) {
+        return road != null && road.getAttributes() == attributes
+                && road.getEdge() >= first && road.getEdge() < first + edgeCount;
+    }
+
+    @Override
+    public boolean containsVertex(Node node) {
+        if (node == null) {
+            return false;
+        }
+        int index = attributes.getNodes().index(node.getTazId());
+        return index != NodeDictionary.NONE && index < vertexCount;
+    }
+
+    @Override
+    public Set<Road> edgeSet() {
+        return new Edges(null, first, first + edgeCount, NodeDictionary.NONE, true);
+    }
+
+    @Override
+    public int degreeOf(Node vertex) {
+        return inDegreeOf(vertex) + outDegreeOf(vertex);
+    }
+
+    @Override
+    public Set<Road> edgesOf(Node vertex) {
+        Set<Road> edges = new LinkedHashSet<>(incomingEdgesOf(vertex));
+        edges.addAll(outgoingEdgesOf(vertex));
+        return edges;
+    }
+
+    @Override
+    public int inDegreeOf(Node vertex) {
+        int u = requireIndex(vertex);
+        return inOffsets[u + 1] - inOffsets[u];
+    }
+
+    @Override
+    public Set<Road> incomingEdgesOf(Node vertex) {
+        int u = requireIndex(vertex);
+        return new Edges(inEdges, inOffsets[u], inOffsets[u + 1], u, false);
+    }
+
+    @Override
+    public int outDegreeOf(Node vertex) {
+        int u = requireIndex(vertex);
+        return outOffsets[u + 1] - outOffsets[u];
+    }
+
+    @Override
+    public Set<Road> outgoingEdgesOf(Node vertex) {
+        int u = requireIndex(vertex);
+        return new Edges(outEdges, outOffsets[u], outOffsets[u + 1], u, true);
+    }
+
+    @Override
+    public Road removeEdge(Node sourceVertex, Node targetVertex) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeEdge(Road road) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeVertex(Node node) {
+        throw readOnly();
+    }
+
+    @Override
+    public Set<Node> vertexSet() {
+        return new AbstractSet<Node>() {
+            @Override
+            public Iterator<Node> iterator() {
+                return new Iterator<Node>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < vertexCount;
+                    }
+
+                    @Override
+                    public Node next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return attributes.getNodes().node(next++);
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Node && containsVertex((Node) o);
+            }
+
+            @Override
+            public int size() {
+                return vertexCount;
+            }
+        };
+    }
+
+    @Override
+    public Node getEdgeSource(Road road) {
+        return road.getA();
+    }
+
+    @Override
+    public Node getEdgeTarget(Road road) {
+        return road.getB();
+    }
+
+    @Override
+    public GraphType getType() {
+        return TYPE;
+    }
+
+    @Override
+    public double getEdgeWeight(Road road) {
+        return Graph.DEFAULT_EDGE_WEIGHT;
+    }
+
+    @Override
+    public void setEdgeWeight(Road road, double weight) {
+        throw readOnly();
+    }
+
+    private int index(Node vertex) {
+        return attributes.getNodes().index(vertex.getTazId());
+    }
+
+    private int requireIndex(Node vertex) {
+        if (!containsVertex(vertex)) {
+            throw new IllegalArgumentException("no such vertex in graph: " + vertex);
+        }
+        return index(vertex);
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("The road network is read-only");
+    }
+
+    /**
+     * Edges {@code [from, to)} of an adjacency array, or of the block when there is none, as road views.
+     */
+    private class Edges extends AbstractSet<Road> {
+        private final int[] edges;
+        private final int from;
+        private final int to;
+        private final int vertex;
+        private final boolean outgoing;
+
+        Edges(int[] edges, int from, int to, int vertex, boolean outgoing) {
+            this.edges = edges;
+            this.from = from;
+            this.to = to;
+            this.vertex = vertex;
+            this.outgoing = outgoing;
+        }
+
+        @Override
+        public Iterator<Road> iterator() {
+            return new Iterator<Road>() {
+                private int next = from;
+
+                @Override
+                public boolean hasNext() {
+                    return next < to;
+                }
+
+                @Override
+                public Road next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int edge = edges == null ? next : edges[next];
+                    next++;
+                    return attributes.road(edge);
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Road) || !containsEdge((Road) o)) {
+                return false;
+            }
+            int edge = ((Road) o).getEdge();
+            return vertex == NodeDictionary.NONE
+                    || (outgoing ? attributes.getFrom(edge) : attributes.getTo(edge)) == vertex;
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Weight of a road read from one attribute column, resolved once per run: a relaxation reads the column of the edge
+ * directly, without looking up the property or boxing the value.
+ */
+@Getter
+@RequiredArgsConstructor(staticName = "of")
+public class RoadWeight implements ToDoubleFunction<Road> {
+    private final RoadColumn column;
+
+    /**
+     * @param property a {@link Road} property or attribute name, e.g. {@code length} or {@code SP_B_M}
+     * @throws IllegalArgumentException if there is no such column
+     */
+    public static RoadWeight of(String property) {
+        return of(RoadColumn.of(property));
+    }
+
+    @Override
+    public double applyAsDouble(Road road) {
+        return road.getAttributes().getDouble(column, road.getEdge());
+    }
+
+    @Override
+    public String toString() {
+        return column.name();
+    }
+}
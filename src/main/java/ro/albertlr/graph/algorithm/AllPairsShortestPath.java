@@ -0,0 +1,174 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import ro.albertlr.graph.algorithm.queue.PriorityQueueType;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * All-pairs shortest path engine running one {@link OneToAllSearch} per source, by default a {@link CompactDijkstra}.
+ * <p>
+ * Sources are split recursively over a {@link ForkJoinPool}, so idle workers steal ranges from busy ones. Every worker
+ * thread keeps its own search, therefore the distance and predecessor buffers are allocated once per thread and reused
+ * for all the sources it processes.
+ * <p>
+ * Graphs with at most {@code floydWarshallThreshold} vertices are solved with a {@link BlockedFloydWarshall} instead,
+ * unless secondary {@link TreeMetrics} are requested: they need the shortest path trees of the searches.
+ */
+@Slf4j
+public class AllPairsShortestPath {
+    /**
+     * Source ranges smaller than this are not split any further.
+     */
+    private static final int SPLIT_THRESHOLD = 16;
+
+    private final CompactGraph<?, ?> graph;
+    @Getter
+    private final int parallelism;
+    @Getter
+    private final PriorityQueueType queueType;
+    @Getter
+    private final int floydWarshallThreshold;
+
+    private final ThreadLocal<OneToAllSearch> workers;
+    /**
+     * {@code true} when the searches are not the default Dijkstra (e.g. PHAST), so replacing them is worth a warning.
+     */
+    private final boolean customSearch;
+    private final ThreadLocal<TreeMetrics.Accumulator> accumulators;
+
+    /**
+     * @param parallelism number of worker threads; {@code 0} or less means all available processors
+     * @param queueType   priority queue used by the Dijkstra workers; {@code null} means a binary heap. Integer queues
+     *                    fall back to a binary heap when the weights of the graph are not integral
+     * @param search      creates the one-to-all search of a worker thread; {@code null} means a {@link CompactDijkstra}
+     *                    using {@code queueType}
+     * @param floydWarshallThreshold graphs up to this many vertices are solved with {@link BlockedFloydWarshall};
+     *                    {@code 0} disables it
+     * @param metrics     secondary metrics summed along every row and passed to the sink with it; {@code null} means none
+     */
+    @Builder
+    protected AllPairsShortestPath(CompactGraph<?, ?> graph, int parallelism, PriorityQueueType queueType,
+                                   Supplier<? extends OneToAllSearch> search, int floydWarshallThreshold,
+                                   TreeMetrics metrics) {
+        this.graph = graph;
+        this.floydWarshallThreshold = floydWarshallThreshold;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.queueType = queueType == null ? PriorityQueueType.BINARY_HEAP : queueType.forWeights(graph.isIntegral());
+        if (queueType != null && queueType != this.queueType) {
+            log.warn("{} requires integral weights, falling back to {}", queueType, this.queueType);
+        }
+        this.customSearch = search != null;
+        this.workers = ThreadLocal.withInitial(search != null
+                ? search
+                : () -> new CompactDijkstra(graph, this.queueType));
+        this.accumulators = metrics == null ? null : ThreadLocal.withInitial(metrics::newAccumulator);
+    }
+
+    public DistanceMatrix compute() {
+        DistanceMatrix matrix = new DistanceMatrix(graph.getVertexCount());
+        compute(matrix);
+        return matrix;
+    }
+
+    /**
+     * Computes every row and pushes it into the given sink from the worker threads; nothing is kept by the engine.
+     */
+    public void compute(ResultSink sink) {
+        compute(sink, null);
+    }
+
+    /**
+     * Same as {@link #compute(ResultSink)}, skipping the sources already completed in the checkpoint and marking every
+     * source once the sink has accepted its row. Floyd–Warshall runs are not checkpointed.
+     */
+    public void compute(ResultSink sink, Checkpoint checkpoint) {
+        if (accumulators == null && graph.getVertexCount() <= floydWarshallThreshold) {
+            if (customSearch) {
+                log.warn("{} vertices, at most floydWarshallThreshold {}, using Floyd-Warshall instead of the configured "
+                        + "search", graph.getVertexCount(), floydWarshallThreshold);
+            } else {
+                log.info("{} vertices, at most {}, using Floyd-Warshall", graph.getVertexCount(), floydWarshallThreshold);
+            }
+            BlockedFloydWarshall.builder()
+                    .graph(graph)
+                    .parallelism(parallelism)
+                    .build()
+                    .compute()
+                    .writeTo(sink);
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new SourceRange(sink, checkpoint, 0, graph.getVertexCount()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void computeRow(ResultSink sink, Checkpoint checkpoint, int source) {
+        if (checkpoint != null && checkpoint.isCompleted(source)) {
+            return;
+        }
+        OneToAllSearch search = workers.get();
+        search.search(source);
+        if (accumulators == null) {
+            sink.accept(source, search.getDistances(), search.getPredecessors());
+        } else {
+            sink.accept(source, search.getDistances(), search.getPredecessors(), accumulators.get().accumulate(search));
+        }
+        if (checkpoint != null) {
+            checkpoint.completed(source);
+        }
+    }
+
+    private class SourceRange extends RecursiveAction {
+        private final ResultSink sink;
+        private final Checkpoint checkpoint;
+        private final int from;
+        private final int to;
+
+        SourceRange(ResultSink sink, Checkpoint checkpoint, int from, int to) {
+            this.sink = sink;
+            this.checkpoint = checkpoint;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int source = from; source < to; source++) {
+                    computeRow(sink, checkpoint, source);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SourceRange(sink, checkpoint, from, middle),
+                        new SourceRange(sink, checkpoint, middle, to));
+            }
+        }
+    }
+}
@@ -19,19 +19,8 @@
  */
 package ro.albertlr.graph.algorithm;
 
-import lombok.Getter;
-import lombok.Setter;
-import lombok.ToString;
-
-@Getter
-@Setter
-@ToString
+/**
+ * Base class of graph vertices. Search attributes are not stored on the vertex, they live in a {@link SearchState}.
+ */
 public class BaseVertex<V extends Vertex<V>> implements Vertex<V> {
-    private Color color;
-    private V predecessor;
-
-    private long distance;
-
-    private long discoveryTime;
-    private long finishingTime;
 }
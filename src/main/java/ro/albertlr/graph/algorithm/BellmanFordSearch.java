@@ -22,6 +22,7 @@ package ro.albertlr.graph.algorithm;
 import org.jgrapht.Graph;
 
 import java.util.Set;
+import java.util.function.ToDoubleFunction;
 
 /**
  * the Bellman-Ford algorithm returns a boolean value indicating whether or not there is a negative-weight cycle that
@@ -30,26 +31,27 @@ import java.util.Set;
  * @param <V> Vertices type. Must be a superclass of {@link Vertex}
  * @param <E> Edge type. Must be a superclass of {@link Edge}
  */
-public class BellmanFordSearch<V extends Vertex<V>, E extends Edge<V, Double>> extends ShortestPathSearch<V, E> {
-    public BellmanFordSearch(Graph<V, E> graph) {
-        super(graph);
+public class BellmanFordSearch<V extends Vertex<V>, E extends Edge<V>> extends ShortestPathSearch<V, E> {
+    public BellmanFordSearch(Graph<V, E> graph, ToDoubleFunction<? super E> weight) {
+        super(graph, weight);
     }
 
-    public boolean serach(V source) {
-        initializeSingleSource(source);
+    public boolean serach(V source, SearchState<V> state) {
+        initializeSingleSource(source, state);
         Set<E> edges = graph.edgeSet();
         for (int i = 1; i <= graph.vertexSet().size(); i++) {
             for (E edgeUtoV : edges) {
-                relax(edgeUtoV);
+                relax(edgeUtoV, state);
             }
         }
 
         for (E edgeUtoV : edges) {
             V u = edgeUtoV.getFrom();
             V v = edgeUtoV.getTo();
-            long w = edgeUtoV.getWeight().longValue();
+            long w = (long) weight.applyAsDouble(edgeUtoV);
 
-            if (v.getDistance() > u.getDistance() + w) {
+            long distanceU = state.getDistance(u);
+            if (distanceU != INFINITE && state.getDistance(v) > distanceU + w) {
                 return false;
             }
         }
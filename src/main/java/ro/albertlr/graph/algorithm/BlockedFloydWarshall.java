@@ -0,0 +1,241 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Cache blocked Floyd–Warshall over a {@link CompactGraph}, meant for small or dense networks where {@code n^3} beats
+ * {@code n} Dijkstra runs.
+ * <p>
+ * Distances and next hops live in flat row major {@code n x n} arrays split into square tiles. For every diagonal tile
+ * {@code k} three phases run one after the other: the diagonal tile itself, then the tiles of row and column {@code k}
+ * (which only depend on the diagonal tile), then all the remaining tiles (which only depend on row and column
+ * {@code k}). The tiles of a phase are independent and run on a {@link ForkJoinPool}.
+ */
+public class BlockedFloydWarshall {
+    public static final int NO_NEXT_HOP = -1;
+
+    private static final int DEFAULT_BLOCK_SIZE = 64;
+    /**
+     * Relative slack of the tight arc test, as the sums of a cell may come in any order.
+     */
+    private static final double TOLERANCE = 1e-9;
+
+    private final CompactGraph<?, ?> graph;
+    private final int n;
+    @Getter
+    private final int parallelism;
+    @Getter
+    private final int blockSize;
+
+    private double[] distances;
+    private int[] nextHops;
+
+    /**
+     * @param parallelism number of worker threads; {@code 0} or less means all available processors
+     * @param blockSize   tile side; {@code 0} or less means 64 (a 64 x 64 tile of doubles is 32KB)
+     */
+    @Builder
+    protected BlockedFloydWarshall(CompactGraph<?, ?> graph, int parallelism, int blockSize) {
+        this.graph = graph;
+        this.n = graph.getVertexCount();
+        if ((long) n * n > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many vertices for a Floyd-Warshall matrix: " + n);
+        }
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.blockSize = blockSize > 0 ? blockSize : DEFAULT_BLOCK_SIZE;
+    }
+
+    public BlockedFloydWarshall compute() {
+        distances = new double[n * n];
+        nextHops = new int[n * n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(nextHops, NO_NEXT_HOP);
+        for (int u = 0; u < n; u++) {
+            distances[u * n + u] = 0;
+            nextHops[u * n + u] = u;
+            for (int arc = graph.offsets[u]; arc < graph.offsets[u + 1]; arc++) {
+                int cell = u * n + graph.targets[arc];
+                if (graph.weights[arc] < distances[cell]) {
+                    distances[cell] = graph.weights[arc];
+                    nextHops[cell] = graph.targets[arc];
+                }
+            }
+        }
+
+        int blocks = (n + blockSize - 1) / blockSize;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Tile> tiles = new ArrayList<>();
+            for (int k = 0; k < blocks; k++) {
+                new Tile(k, k, k).compute();
+
+                tiles.clear();
+                for (int b = 0; b < blocks; b++) {
+                    if (b != k) {
+                        tiles.add(new Tile(k, b, k));
+                        tiles.add(new Tile(b, k, k));
+                    }
+                }
+                pool.invoke(new Phase(tiles));
+
+                tiles.clear();
+                for (int i = 0; i < blocks; i++) {
+                    for (int j = 0; j < blocks; j++) {
+                        if (i != k && j != k) {
+                            tiles.add(new Tile(i, j, k));
+                        }
+                    }
+                }
+                pool.invoke(new Phase(tiles));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return this;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public double distance(int source, int target) {
+        return distances[source * n + target];
+    }
+
+    /**
+     * @return the vertex following {@code source} on a shortest path to {@code target}, {@code target} itself for a
+     * direct arc, {@code source} if it is the target, and {@link #NO_NEXT_HOP} if the target is unreachable
+     */
+    public int nextHop(int source, int target) {
+        return nextHops[source * n + target];
+    }
+
+    /**
+     * Copies the distances into a {@link DistanceMatrix}, the format produced by {@link AllPairsShortestPath}.
+     */
+    public DistanceMatrix toDistanceMatrix() {
+        DistanceMatrix matrix = new DistanceMatrix(n);
+        writeTo(matrix);
+        return matrix;
+    }
+
+    /**
+     * Pushes every distance row into the given sink with a predecessor row, as a {@link OneToAllSearch} would.
+     */
+    public void writeTo(ResultSink sink) {
+        double[] row = new double[n];
+        int[] predecessors = new int[n];
+        int[] queue = new int[n];
+        for (int source = 0; source < n; source++) {
+            System.arraycopy(distances, source * n, row, 0, n);
+            predecessors(source, row, predecessors, queue);
+            sink.accept(source, row, predecessors);
+        }
+    }
+
+    /**
+     * Shortest path tree of a row, by a breadth-first search from the source over the tight arcs
+     * ({@code d[u] + w == d[v]}). Predecessors tracked along the relaxations could form cycles through zero weight arcs;
+     * the search cannot.
+     */
+    private void predecessors(int source, double[] row, int[] predecessors, int[] queue) {
+        Arrays.fill(predecessors, OneToAllSearch.NO_PREDECESSOR);
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int arc = graph.offsets[u]; arc < graph.offsets[u + 1]; arc++) {
+                int v = graph.targets[arc];
+                if (v != source && predecessors[v] == OneToAllSearch.NO_PREDECESSOR
+                        && row[u] + graph.weights[arc] <= row[v] + TOLERANCE * Math.max(1, row[v])) {
+                    predecessors[v] = u;
+                    queue[tail++] = v;
+                }
+            }
+        }
+    }
+
+    /**
+     * Relaxes the tile at block row {@code row} and block column {@code column} through the vertices of block
+     * {@code k}; with {@code k} as the outer loop this is plain Floyd–Warshall restricted to the tile.
+     */
+    private class Tile extends RecursiveAction {
+        private final int row;
+        private final int column;
+        private final int k;
+
+        Tile(int row, int column, int k) {
+            this.row = row;
+            this.column = column;
+            this.k = k;
+        }
+
+        @Override
+        protected void compute() {
+            final double[] distances = BlockedFloydWarshall.this.distances;
+            final int[] nextHops = BlockedFloydWarshall.this.nextHops;
+            int fromI = row * blockSize, toI = Math.min(fromI + blockSize, n);
+            int fromJ = column * blockSize, toJ = Math.min(fromJ + blockSize, n);
+            int fromK = k * blockSize, toK = Math.min(fromK + blockSize, n);
+
+            for (int via = fromK; via < toK; via++) {
+                int viaRow = via * n;
+                for (int i = fromI; i < toI; i++) {
+                    int iRow = i * n;
+                    double toVia = distances[iRow + via];
+                    if (toVia == Double.POSITIVE_INFINITY) {
+                        continue;
+                    }
+                    int hop = nextHops[iRow + via];
+                    for (int j = fromJ; j < toJ; j++) {
+                        double distance = toVia + distances[viaRow + j];
+                        if (distance < distances[iRow + j]) {
+                            distances[iRow + j] = distance;
+                            nextHops[iRow + j] = hop;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static class Phase extends RecursiveAction {
+        private final List<Tile> tiles;
+
+        Phase(List<Tile> tiles) {
+            this.tiles = tiles;
+        }
+
+        @Override
+        protected void compute() {
+            invokeAll(tiles);
+        }
+    }
+}
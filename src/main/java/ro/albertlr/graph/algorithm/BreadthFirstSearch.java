@@ -19,7 +19,6 @@
  */
 package ro.albertlr.graph.algorithm;
 
-import com.google.common.collect.Sets;
 import lombok.Builder;
 import org.jgrapht.Graph;
 import ro.albertlr.graph.algorithm.Vertex.Color;
@@ -27,7 +26,6 @@ import ro.albertlr.graph.algorithm.Vertex.Color;
 import java.util.LinkedList;
 import java.util.Queue;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 public class BreadthFirstSearch<V extends Vertex<V>, E> extends Search<V, E> {
 
@@ -36,19 +34,12 @@ public class BreadthFirstSearch<V extends Vertex<V>, E> extends Search<V, E> {
         super(graph);
     }
 
-    public void search(V source) {
-        Set<V> vertices = Sets.newHashSet(graph.vertexSet());
-        vertices.remove(source);
+    public void search(V source, SearchState<V> state) {
+        // every other vertex reads as white, at infinite distance and without predecessor
+        state.reset();
 
-        for (V u : vertices) {
-            u.setColor(Color.WHITE);
-            u.setDistance(INFINITE);
-            u.setPredecessor(null);
-        }
-
-        source.setColor(Color.GRAY);
-        source.setDistance(0);
-        source.setPredecessor(null);
+        state.setColor(source, Color.GRAY);
+        state.setDistance(source, 0);
 
         // keep the gray vertices
         Queue<V> queue = new LinkedList<>();
@@ -58,15 +49,15 @@ public class BreadthFirstSearch<V extends Vertex<V>, E> extends Search<V, E> {
             V u = queue.poll();
             Set<V> adjacentOfU = getAdjacentOf(u);
             for (V v : adjacentOfU) {
-                if (Color.WHITE.equals(v.getColor())) {
-                    v.setColor(Color.GRAY);
-                    v.setDistance(u.getDistance() + 1);
-                    v.setPredecessor(u);
+                if (Color.WHITE.equals(state.getColor(v))) {
+                    state.setColor(v, Color.GRAY);
+                    state.setDistance(v, state.getDistance(u) + 1);
+                    state.setPredecessor(v, u);
 
                     queue.offer(v);
                 }
             }
-            u.setColor(Color.BLACK);
+            state.setColor(u, Color.BLACK);
         }
     }
 
@@ -0,0 +1,154 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+
+/**
+ * Progress of a long all-pairs run: the set of sources whose rows are safely stored, saved periodically so a crashed
+ * run can be resumed by {@link AllPairsShortestPath#compute(ResultSink, Checkpoint)} without recomputing them.
+ * <p>
+ * A save first flushes the output (so every source marked completed really is on disk), then writes the completed set
+ * to a temporary file and atomically renames it over the checkpoint, so a crash during a save leaves the previous
+ * checkpoint intact. The output must therefore be written in place (random access), such as a memory-mapped matrix.
+ * <p>
+ * The checkpoint remembers a fingerprint of the run configuration; a checkpoint with a different fingerprint is
+ * ignored and the run starts over.
+ */
+@Slf4j
+public class Checkpoint implements Closeable {
+    private static final int MAGIC = 0x41505350;
+
+    private final Path file;
+    private final String fingerprint;
+    private final int size;
+    private final Flushable output;
+    private final long intervalMillis;
+
+    private final BitSet completed;
+    private int completedCount;
+    private long lastSave;
+
+    private Checkpoint(Path file, String fingerprint, int size, Flushable output, long intervalMillis, BitSet completed) {
+        this.file = file;
+        this.fingerprint = fingerprint;
+        this.size = size;
+        this.output = output;
+        this.intervalMillis = intervalMillis;
+        this.completed = completed;
+        this.completedCount = completed.cardinality();
+        this.lastSave = System.currentTimeMillis();
+    }
+
+    /**
+     * Loads the checkpoint in {@code file} if it exists and matches the fingerprint, otherwise starts an empty one.
+     *
+     * @param output         flushed before every save
+     * @param intervalMillis minimum time between two automatic saves
+     */
+    public static Checkpoint open(Path file, String fingerprint, int size, Flushable output, long intervalMillis)
+            throws IOException {
+        BitSet completed = new BitSet(size);
+        if (Files.exists(file)) {
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                if (input.readInt() != MAGIC) {
+                    throw new IOException(file + " is not a checkpoint file");
+                }
+                String savedFingerprint = input.readUTF();
+                int savedSize = input.readInt();
+                long[] words = new long[input.readInt()];
+                for (int i = 0; i < words.length; i++) {
+                    words[i] = input.readLong();
+                }
+                if (fingerprint.equals(savedFingerprint) && savedSize == size) {
+                    completed = BitSet.valueOf(words);
+                } else {
+                    log.warn("checkpoint {} belongs to another run ({}), starting over", file, savedFingerprint);
+                }
+            }
+        }
+        return new Checkpoint(file, fingerprint, size, output, intervalMillis, completed);
+    }
+
+    public synchronized boolean isCompleted(int source) {
+        return completed.get(source);
+    }
+
+    public synchronized int getCompletedCount() {
+        return completedCount;
+    }
+
+    /**
+     * Marks a source whose row was accepted by the output; saves the checkpoint when the interval has elapsed.
+     */
+    public synchronized void completed(int source) {
+        if (!completed.get(source)) {
+            completed.set(source);
+            completedCount++;
+        }
+        if (System.currentTimeMillis() - lastSave >= intervalMillis) {
+            try {
+                save();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot save checkpoint " + file, e);
+            }
+        }
+    }
+
+    public synchronized void save() throws IOException {
+        output.flush();
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeUTF(fingerprint);
+            out.writeInt(size);
+            long[] words = completed.toLongArray();
+            out.writeInt(words.length);
+            for (long word : words) {
+                out.writeLong(word);
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        lastSave = System.currentTimeMillis();
+        log.debug("checkpoint {} saved with {} of {} sources", file, completedCount, size);
+    }
+
+    /**
+     * Saves the final state.
+     */
+    @Override
+    public void close() throws IOException {
+        save();
+    }
+}
@@ -0,0 +1,116 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm;
+
+import ro.albertlr.graph.algorithm.queue.IndexedPriorityQueue;
+import ro.albertlr.graph.algorithm.queue.PriorityQueueType;
+
+import java.util.Arrays;
+
+/**
+ * Dijkstra's algorithm over a {@link CompactGraph}.
+ * <p>
+ * An instance owns its distance, predecessor, settle order and queue buffers and reuses them for every source, so a
+ * search does not allocate. Instances are not thread safe; use one per worker thread.
+ */
+public class CompactDijkstra implements OneToAllSearch {
+
+    private final CompactGraph<?, ?> graph;
+
+    private final double[] distances;
+    private final int[] predecessors;
+    private final int[] predecessorArcs;
+    private final int[] settleOrder;
+    private int settledCount;
+    private final IndexedPriorityQueue queue;
+
+    public CompactDijkstra(CompactGraph<?, ?> graph) {
+        this(graph, PriorityQueueType.BINARY_HEAP);
+    }
+
+    /**
+     * Integer queue types fall back to a binary heap when the weights of the graph are not integral.
+     */
+    public CompactDijkstra(CompactGraph<?, ?> graph, PriorityQueueType queueType) {
+        int n = graph.getVertexCount();
+        this.graph = graph;
+        this.distances = new double[n];
+        this.predecessors = new int[n];
+        this.predecessorArcs = new int[n];
+        this.settleOrder = new int[n];
+        this.queue = queueType.forWeights(graph.isIntegral()).create(n, graph.getMaxWeight());
+    }
+
+    @Override
+    public void search(int source) {
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(predecessors, NO_PREDECESSOR);
+        Arrays.fill(predecessorArcs, NO_PREDECESSOR);
+        settledCount = 0;
+        queue.clear();
+
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        final double[] weights = graph.weights;
+
+        distances[source] = 0;
+        queue.insert(source, 0);
+        while (!queue.isEmpty()) {
+            int u = queue.deleteMin();
+            settleOrder[settledCount++] = u;
+            double distanceU = distances[u];
+            for (int arc = offsets[u], last = offsets[u + 1]; arc < last; arc++) {
+                int v = targets[arc];
+                double distanceV = distanceU + weights[arc];
+                if (distanceV < distances[v]) {
+                    distances[v] = distanceV;
+                    predecessors[v] = u;
+                    predecessorArcs[v] = arc;
+                    queue.insertOrDecrease(v, distanceV);
+                }
+            }
+        }
+    }
+
+    @Override
+    public double[] getDistances() {
+        return distances;
+    }
+
+    @Override
+    public int[] getPredecessors() {
+        return predecessors;
+    }
+
+    @Override
+    public int[] getPredecessorArcs() {
+        return predecessorArcs;
+    }
+
+    @Override
+    public int[] getSettleOrder() {
+        return settleOrder;
+    }
+
+    @Override
+    public int getSettledCount() {
+        return settledCount;
+    }
+}
@@ -0,0 +1,219 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm;
+
+import lombok.Getter;
+import org.jgrapht.Graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Immutable compressed-sparse-row (CSR) snapshot of a directed weighted graph.
+ * <p>
+ * Vertices are addressed by the dense ids of a {@link VertexIndex}. The outgoing arcs of vertex {@code u} are
+ * stored in the range {@code [offsets[u], offsets[u + 1])} of the {@link #targets}, {@link #weights} and
+ * {@link #edges} arrays, so a traversal touches only flat primitive arrays instead of the JGraphT object graph.
+ *
+ * @param <V> Vertices type
+ * @param <E> Edge type
+ */
+public final class CompactGraph<V, E> {
+    @Getter
+    private final int vertexCount;
+    @Getter
+    private final int arcCount;
+
+    /**
+     * {@code offsets[u]} is the index of the first outgoing arc of {@code u}; it has {@code vertexCount + 1} entries.
+     */
+    final int[] offsets;
+    /**
+     * Head vertex id of every arc.
+     */
+    final int[] targets;
+    /**
+     * Weight of every arc.
+     */
+    final double[] weights;
+    /**
+     * Weight of every arc, truncated to {@code long} (same semantic as {@link ShortestPathSearch#relax(Edge, SearchState)}).
+     */
+    final long[] longWeights;
+    /**
+     * Index in {@link #edgeList} of the original edge each arc was built from.
+     */
+    final int[] edges;
+
+    /**
+     * {@code true} if every weight is a non-negative integer, so it can be used by integer priority queues.
+     */
+    @Getter
+    private final boolean integral;
+    @Getter
+    private final double maxWeight;
+
+    @Getter
+    private final VertexIndex<V> vertexIndex;
+    private final List<E> edgeList;
+
+    private CompactGraph(int[] offsets, int[] targets, double[] weights, int[] edges,
+                         VertexIndex<V> vertexIndex, List<E> edgeList) {
+        this.vertexCount = offsets.length - 1;
+        this.arcCount = targets.length;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.edges = edges;
+        this.vertexIndex = vertexIndex;
+        this.edgeList = edgeList;
+
+        this.longWeights = new long[arcCount];
+        boolean integral = true;
+        double maxWeight = 0;
+        for (int arc = 0; arc < arcCount; arc++) {
+            double weight = weights[arc];
+            longWeights[arc] = (long) weight;
+            integral &= weight >= 0 && weight == Math.rint(weight);
+            maxWeight = Math.max(maxWeight, weight);
+        }
+        this.integral = integral;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Builds a snapshot of the given graph. The weight function is evaluated exactly once per edge.
+     */
+    public static <V, E> CompactGraph<V, E> of(Graph<V, E> graph, ToDoubleFunction<? super E> weight) {
+        return of(graph, VertexIndex.of(graph), weight);
+    }
+
+    /**
+     * Builds a snapshot of the given graph whose vertex ids are the ones of the given index, so search states created
+     * for the object graph can be used with the snapshot as well.
+     *
+     * @throws IllegalArgumentException if an edge of an indexed vertex leads to a vertex the index does not have
+     */
+    public static <V, E> CompactGraph<V, E> of(Graph<V, E> graph, VertexIndex<V> vertexIndex,
+                                               ToDoubleFunction<? super E> weight) {
+        int n = vertexIndex.size();
+        List<V> vertexList = vertexIndex.vertices();
+
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] = offsets[u] + graph.outgoingEdgesOf(vertexList.get(u)).size();
+        }
+
+        int m = offsets[n];
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        int[] edges = new int[m];
+        List<E> edgeList = new ArrayList<>(m);
+
+        int arc = 0;
+        for (int u = 0; u < n; u++) {
+            for (E edge : graph.outgoingEdgesOf(vertexList.get(u))) {
+                targets[arc] = vertexIndex.requireId(graph.getEdgeTarget(edge));
+                weights[arc] = weight.applyAsDouble(edge);
+                edges[arc] = arc;
+                edgeList.add(edge);
+                arc++;
+            }
+        }
+
+        return new CompactGraph<>(offsets, targets, weights, edges, vertexIndex, Collections.unmodifiableList(edgeList));
+    }
+
+    /**
+     * Returns the transposed snapshot (every arc reversed) sharing the same vertex and edge ids; used by backward
+     * searches.
+     */
+    public CompactGraph<V, E> reverse() {
+        int n = vertexCount;
+        int[] reverseOffsets = new int[n + 1];
+        for (int arc = 0; arc < arcCount; arc++) {
+            reverseOffsets[targets[arc] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            reverseOffsets[v + 1] += reverseOffsets[v];
+        }
+
+        int[] next = new int[n];
+        System.arraycopy(reverseOffsets, 0, next, 0, n);
+        int[] reverseTargets = new int[arcCount];
+        double[] reverseWeights = new double[arcCount];
+        int[] reverseEdges = new int[arcCount];
+        for (int u = 0; u < n; u++) {
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                int position = next[targets[arc]]++;
+                reverseTargets[position] = u;
+                reverseWeights[position] = weights[arc];
+                reverseEdges[position] = edges[arc];
+            }
+        }
+
+        return new CompactGraph<>(reverseOffsets, reverseTargets, reverseWeights, reverseEdges, vertexIndex, edgeList);
+    }
+
+    public int id(V vertex) {
+        return vertexIndex.id(vertex);
+    }
+
+    public V vertex(int id) {
+        return vertexIndex.vertex(id);
+    }
+
+    public E edge(int arc) {
+        return edgeList.get(edges[arc]);
+    }
+
+    public int edgeId(int arc) {
+        return edges[arc];
+    }
+
+    public int firstArc(int u) {
+        return offsets[u];
+    }
+
+    /**
+     * @return the index past the last outgoing arc of {@code u}: its arcs are {@code [firstArc(u), endArc(u))}
+     */
+    public int endArc(int u) {
+        return offsets[u + 1];
+    }
+
+    public int outDegree(int u) {
+        return offsets[u + 1] - offsets[u];
+    }
+
+    public int target(int arc) {
+        return targets[arc];
+    }
+
+    public double weight(int arc) {
+        return weights[arc];
+    }
+
+    public long longWeight(int arc) {
+        return longWeights[arc];
+    }
+}
@@ -19,7 +19,6 @@
  */
 package ro.albertlr.graph.algorithm;
 
-import com.google.common.collect.Sets;
 import lombok.Builder;
 import org.jgrapht.Graph;
 import ro.albertlr.graph.algorithm.Vertex.Color;
@@ -28,43 +27,35 @@ import java.util.Set;
 
 public class DepthFirstSearch<V extends Vertex<V>, E> extends Search<V, E> {
 
-    long time;
-
     @Builder
     protected DepthFirstSearch(Graph<V, E> graph) {
         super(graph);
     }
 
-    public void search() {
-        Set<V> vertices = Sets.newHashSet(graph.vertexSet());
-
-        for (V u : vertices) {
-            u.setColor(Color.WHITE);
-            u.setPredecessor(null);
-        }
-
-        time = 0;
+    public void search(SearchState<V> state) {
+        // every vertex reads as white and without predecessor, the clock restarts from 0
+        state.reset();
 
-        for (V u : vertices) {
-            if (Color.WHITE.equals(u.getColor())) {
-                visit(u);
+        for (V u : graph.vertexSet()) {
+            if (Color.WHITE.equals(state.getColor(u))) {
+                visit(u, state);
             }
         }
     }
 
-    private void visit(V u) {
-        u.setDiscoveryTime(++time); // white vertex u has just been discovered
-        u.setColor(Color.GRAY);
+    private void visit(V u, SearchState<V> state) {
+        state.setDiscoveryTime(u, state.tick()); // white vertex u has just been discovered
+        state.setColor(u, Color.GRAY);
 
         Set<V> adjacentOfU = getAdjacentOf(u);
         for (V v : adjacentOfU) { // explore edge (u,v)
-            if (Color.WHITE.equals(v.getColor())) {
-                v.setPredecessor(u);
-                visit(v);
+            if (Color.WHITE.equals(state.getColor(v))) {
+                state.setPredecessor(v, u);
+                visit(v, state);
             }
         }
 
-        u.setColor(Color.BLACK);
-        u.setFinishingTime(++time);
+        state.setColor(u, Color.BLACK);
+        state.setFinishingTime(u, state.tick());
     }
 }
@@ -0,0 +1,92 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.jgrapht.Graph;
+import ro.albertlr.graph.algorithm.Vertex.Color;
+import ro.albertlr.graph.algorithm.queue.IndexedPriorityQueue;
+import ro.albertlr.graph.algorithm.queue.PriorityQueueType;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Dijkstra's algorithm built on {@link #initializeSingleSource(Vertex, SearchState)} and
+ * {@link #relax(Edge, SearchState)}. Edge weights must be non-negative.
+ * <p>
+ * The frontier is an {@link IndexedPriorityQueue} over the ids of the state's {@link VertexIndex}; its implementation
+ * is chosen with {@link PriorityQueueType}. Since {@link #relax(Edge, SearchState)} truncates weights to {@code long},
+ * distances are always integral and the monotone integer queues can be used as well.
+ *
+ * @param <V> Vertices type. Must be a superclass of {@link Vertex}
+ * @param <E> Edge type. Must be a superclass of {@link Edge}
+ */
+public class DijkstraSearch<V extends Vertex<V>, E extends Edge<V>> extends ShortestPathSearch<V, E> {
+
+    @Getter
+    private final PriorityQueueType queueType;
+
+    /**
+     * @param weight weight of every edge, non-negative
+     */
+    @Builder
+    protected DijkstraSearch(Graph<V, E> graph, ToDoubleFunction<? super E> weight, PriorityQueueType queueType) {
+        super(graph, weight);
+        this.queueType = queueType == null ? PriorityQueueType.BINARY_HEAP : queueType;
+    }
+
+    /**
+     * Creates a queue sized for the graph; reuse it across searches run by the same thread.
+     */
+    public IndexedPriorityQueue newQueue() {
+        long maxWeight = 0;
+        if (queueType == PriorityQueueType.DIAL) {
+            for (E edge : graph.edgeSet()) {
+                maxWeight = Math.max(maxWeight, (long) weight.applyAsDouble(edge));
+            }
+        }
+        return queueType.create(graph.vertexSet().size(), maxWeight);
+    }
+
+    public void search(V source, SearchState<V> state) {
+        search(source, state, newQueue());
+    }
+
+    public void search(V source, SearchState<V> state, IndexedPriorityQueue queue) {
+        VertexIndex<V> index = state.getIndex();
+
+        initializeSingleSource(source, state);
+        queue.clear();
+        queue.insert(index.id(source), 0);
+
+        while (!queue.isEmpty()) {
+            V u = index.vertex(queue.deleteMin());
+            state.setColor(u, Color.BLACK);
+
+            for (E edgeUtoV : graph.outgoingEdgesOf(u)) {
+                if (relax(edgeUtoV, state)) {
+                    V v = edgeUtoV.getTo();
+                    queue.insertOrDecrease(index.id(v), state.getDistance(v));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm;
+
+/**
+ * In-memory all-pairs distance matrix addressed by {@link CompactGraph} vertex ids. Unreachable pairs hold
+ * {@link Double#POSITIVE_INFINITY}.
+ */
+public class DistanceMatrix implements ResultSink {
+    private final double[][] rows;
+
+    public DistanceMatrix(int size) {
+        this.rows = new double[size][];
+    }
+
+    public int size() {
+        return rows.length;
+    }
+
+    public double get(int source, int target) {
+        return rows[source][target];
+    }
+
+    public double[] row(int source) {
+        return rows[source];
+    }
+
+    /**
+     * Stores a copy of the given row; distinct sources may be stored concurrently.
+     */
+    public void setRow(int source, double[] distances) {
+        rows[source] = distances.clone();
+    }
+
+    @Override
+    public void accept(int source, double[] distances, int[] predecessors) {
+        setRow(source, distances);
+    }
+}
@@ -0,0 +1,444 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import ro.albertlr.graph.algorithm.queue.IndexedPriorityQueue;
+import ro.albertlr.graph.algorithm.queue.PriorityQueueType;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a complete {@link DistanceMatrix} of a {@link CompactGraph} up to date while the weights of a few arcs change
+ * (a closure is a change to {@link Double#POSITIVE_INFINITY}), repairing only the rows the changes can affect instead
+ * of recomputing all of them.
+ * <p>
+ * A source is affected by an increase when the arc was tight in its row ({@code d[u] + w == d[v]}), and by a decrease
+ * when the arc now shortens its row. Every affected row is repaired in place: the vertices left without a tight
+ * incoming arc from an unaffected vertex are found in distance order, reset to their best boundary estimate and,
+ * together with the heads of the decreased arcs, settled again by a Dijkstra search bounded to them. The changed cells
+ * are reported to a {@link CellListener}.
+ * <p>
+ * The instance owns a copy of the arc weights; the {@link CompactGraph} snapshot keeps the weights it was built with.
+ * Distances follow {@link CompactDijkstra}: weights are not truncated. Rows are processed in parallel over a
+ * {@link ForkJoinPool} owned by the instance, so the repair buffers kept per worker thread are allocated once, not per
+ * update; {@link #close()} shuts it down.
+ *
+ * @param <V> Vertices type
+ * @param <E> Edge type
+ */
+@Slf4j
+public class DynamicAllPairsShortestPath<V, E> implements Closeable {
+    /**
+     * Source ranges smaller than this are not split any further.
+     */
+    private static final int SPLIT_THRESHOLD = 64;
+    /**
+     * Relative slack of the tight arc test, so rows summed in another order (e.g. by {@link BlockedFloydWarshall}) are
+     * still recognized.
+     */
+    private static final double TOLERANCE = 1e-9;
+
+    // repair states of a vertex
+    private static final byte UNKNOWN = 0;
+    private static final byte CANDIDATE = 1;
+    private static final byte KEPT = 2;
+    private static final byte AFFECTED = 3;
+
+    @Getter
+    private final CompactGraph<V, E> graph;
+    @Getter
+    private final DistanceMatrix matrix;
+    @Getter
+    private final int parallelism;
+
+    /**
+     * Current weight of every arc, and the weight before the update being applied (equal outside of updates).
+     */
+    private final double[] weights;
+    private final double[] previous;
+    private final int[] tails;
+    // incoming arcs of every vertex
+    private final int[] reverseOffsets;
+    private final int[] reverseArcs;
+    private final Map<E, Integer> arcs;
+
+    private final ForkJoinPool pool;
+    private final ThreadLocal<Repair> repairs;
+
+    /**
+     * @param matrix      every row of the graph, as computed by {@link AllPairsShortestPath}; repaired in place
+     * @param parallelism number of worker threads; {@code 0} or less means all available processors
+     */
+    @Builder
+    protected DynamicAllPairsShortestPath(CompactGraph<V, E> graph, DistanceMatrix matrix, int parallelism) {
+        int n = graph.getVertexCount();
+        int m = graph.getArcCount();
+        if (matrix.size() != n) {
+            throw new IllegalArgumentException("Matrix of " + matrix.size() + " rows for " + n + " vertices");
+        }
+        this.graph = graph;
+        this.matrix = matrix;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.weights = Arrays.copyOf(graph.weights, m);
+        this.previous = Arrays.copyOf(graph.weights, m);
+
+        this.tails = new int[m];
+        this.reverseOffsets = new int[n + 1];
+        this.arcs = new HashMap<>(2 * m);
+        for (int u = 0; u < n; u++) {
+            for (int arc = graph.firstArc(u); arc < graph.endArc(u); arc++) {
+                tails[arc] = u;
+                reverseOffsets[graph.target(arc) + 1]++;
+                arcs.put(graph.edge(arc), arc);
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            reverseOffsets[v + 1] += reverseOffsets[v];
+        }
+        this.reverseArcs = new int[m];
+        int[] next = Arrays.copyOf(reverseOffsets, n);
+        for (int arc = 0; arc < m; arc++) {
+            reverseArcs[next[graph.target(arc)]++] = arc;
+        }
+
+        this.pool = new ForkJoinPool(this.parallelism);
+        this.repairs = ThreadLocal.withInitial(Repair::new);
+    }
+
+    public double weight(int arc) {
+        return weights[arc];
+    }
+
+    /**
+     * Changes the weight of the given edges and repairs the matrix.
+     *
+     * @param changes  new weight of every changed edge, {@link Double#POSITIVE_INFINITY} to close it
+     * @param listener told about every cell whose distance changed, from the worker threads
+     * @return the number of changed cells
+     */
+    public long update(Map<? extends E, Double> changes, CellListener listener) {
+        int[] changedArcs = new int[changes.size()];
+        double[] changedWeights = new double[changes.size()];
+        int i = 0;
+        for (Map.Entry<? extends E, Double> change : changes.entrySet()) {
+            Integer arc = arcs.get(change.getKey());
+            if (arc == null) {
+                throw new IllegalArgumentException("Unknown edge " + change.getKey());
+            }
+            changedArcs[i] = arc;
+            changedWeights[i] = change.getValue();
+            i++;
+        }
+        return update(changedArcs, changedWeights, listener);
+    }
+
+    /**
+     * Changes the weight of the given arcs and repairs the matrix.
+     *
+     * @param changedWeights new weight of every arc, {@link Double#POSITIVE_INFINITY} to close it
+     * @param listener       told about every cell whose distance changed, from the worker threads
+     * @return the number of changed cells
+     */
+    public long update(int[] changedArcs, double[] changedWeights, CellListener listener) {
+        if (changedArcs.length != changedWeights.length) {
+            throw new IllegalArgumentException(changedArcs.length + " arcs for " + changedWeights.length + " weights");
+        }
+        for (int i = 0; i < changedArcs.length; i++) {
+            if (changedWeights[i] < 0 || Double.isNaN(changedWeights[i])) {
+                throw new IllegalArgumentException("Invalid weight " + changedWeights[i] + " of arc " + changedArcs[i]);
+            }
+        }
+        IntArrayList increased = new IntArrayList();
+        IntArrayList decreased = new IntArrayList();
+        for (int i = 0; i < changedArcs.length; i++) {
+            weights[changedArcs[i]] = changedWeights[i];
+        }
+        // an arc changed twice only counts with its last weight
+        for (int arc : changedArcs) {
+            if (weights[arc] > previous[arc] && !increased.contains(arc)) {
+                increased.add(arc);
+            } else if (weights[arc] < previous[arc] && !decreased.contains(arc)) {
+                decreased.add(arc);
+            }
+        }
+
+        Batch batch = new Batch(increased.toArray(), decreased.toArray(), listener);
+        if (batch.increased.length + batch.decreased.length > 0) {
+            pool.invoke(new SourceRange(batch, 0, graph.getVertexCount()));
+        }
+        for (int arc : changedArcs) {
+            previous[arc] = weights[arc];
+        }
+        log.info("{} increased and {} decreased arcs affected {} sources, {} cells changed",
+                batch.increased.length, batch.decreased.length, batch.affectedSources.get(), batch.changedCells.get());
+        return batch.changedCells.get();
+    }
+
+    /**
+     * Shuts the worker threads down; the instance cannot be updated any more.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private static boolean tight(double distance, double target) {
+        return distance <= target + TOLERANCE * Math.max(1, target);
+    }
+
+    /**
+     * Receives the cells of the matrix changed by an update; called concurrently for distinct sources.
+     */
+    @FunctionalInterface
+    public interface CellListener {
+        CellListener NONE = (source, target, previous, current) -> { };
+
+        void changed(int source, int target, double previous, double current);
+    }
+
+    /**
+     * The arcs of one update whose weight actually changed, and its counters.
+     */
+    private static class Batch {
+        private final int[] increased;
+        private final int[] decreased;
+        private final CellListener listener;
+        private final AtomicInteger affectedSources = new AtomicInteger();
+        private final AtomicLong changedCells = new AtomicLong();
+
+        Batch(int[] increased, int[] decreased, CellListener listener) {
+            this.increased = increased;
+            this.decreased = decreased;
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * Repair buffers of one thread.
+     */
+    private class Repair {
+        private final int n = graph.getVertexCount();
+        private final byte[] states = new byte[n];
+        private final IntArrayList marked = new IntArrayList();
+        private final IntArrayList affected = new IntArrayList();
+        // vertices whose distance was written, with the distance they had before the update
+        private final boolean[] touched = new boolean[n];
+        private final double[] before = new double[n];
+        private final IntArrayList changed = new IntArrayList();
+        private final IndexedPriorityQueue queue = PriorityQueueType.BINARY_HEAP.create(n, 0);
+
+        void repair(Batch batch, int source) {
+            double[] distances = matrix.row(source);
+            if (!isAffected(batch, distances)) {
+                return;
+            }
+            batch.affectedSources.incrementAndGet();
+            try {
+                findAffected(batch, source, distances);
+                settle(batch, distances);
+                report(batch, source, distances);
+            } finally {
+                for (int i = 0; i < marked.size(); i++) {
+                    states[marked.get(i)] = UNKNOWN;
+                }
+                for (int i = 0; i < changed.size(); i++) {
+                    touched[changed.get(i)] = false;
+                }
+                marked.clear();
+                affected.clear();
+                changed.clear();
+                queue.clear();
+            }
+        }
+
+        private boolean isAffected(Batch batch, double[] distances) {
+            for (int arc : batch.increased) {
+                double distanceV = distances[graph.target(arc)];
+                if (distanceV != Double.POSITIVE_INFINITY && tight(distances[tails[arc]] + previous[arc], distanceV)) {
+                    return true;
+                }
+            }
+            for (int arc : batch.decreased) {
+                if (distances[tails[arc]] + weights[arc] < distances[graph.target(arc)]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Marks, in distance order, the vertices whose every tight incoming arc comes from an affected vertex or is
+         * an increased one; they lose their distance. A vertex kept because of a tie with a vertex found affected
+         * later is checked again.
+         */
+        private void findAffected(Batch batch, int source, double[] distances) {
+            for (int arc : batch.increased) {
+                int v = graph.target(arc);
+                if (distances[v] != Double.POSITIVE_INFINITY && tight(distances[tails[arc]] + previous[arc], distances[v])) {
+                    candidate(v, source, distances);
+                }
+            }
+            while (!queue.isEmpty()) {
+                int x = queue.deleteMin();
+                if (isSupported(x, distances)) {
+                    states[x] = KEPT;
+                    continue;
+                }
+                states[x] = AFFECTED;
+                affected.add(x);
+                for (int arc = graph.firstArc(x), end = graph.endArc(x); arc < end; arc++) {
+                    int z = graph.target(arc);
+                    if (distances[z] != Double.POSITIVE_INFINITY && tight(distances[x] + previous[arc], distances[z])) {
+                        candidate(z, source, distances);
+                    }
+                }
+            }
+        }
+
+        private void candidate(int v, int source, double[] distances) {
+            if (v == source || states[v] == CANDIDATE || states[v] == AFFECTED) {
+                return;
+            }
+            if (states[v] == UNKNOWN) {
+                marked.add(v);
+            }
+            states[v] = CANDIDATE;
+            queue.insert(v, distances[v]);
+        }
+
+        /**
+         * @return {@code true} if an unaffected vertex reaches {@code x} at its distance with the new weights. Vertices
+         * at the same distance only count once kept, otherwise two ends of a zero weight cycle would keep each other
+         */
+        private boolean isSupported(int x, double[] distances) {
+            for (int i = reverseOffsets[x]; i < reverseOffsets[x + 1]; i++) {
+                int arc = reverseArcs[i];
+                int y = tails[arc];
+                if ((states[y] == KEPT || states[y] == UNKNOWN && distances[y] < distances[x]) && y != x
+                        && tight(distances[y] + weights[arc], distances[x])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Seeds the affected vertices with their best arc from an unaffected one and the heads of the decreased arcs
+         * with their new distance, then settles from them.
+         */
+        private void settle(Batch batch, double[] distances) {
+            for (int i = 0; i < affected.size(); i++) {
+                write(affected.get(i), Double.POSITIVE_INFINITY, distances);
+            }
+            for (int i = 0; i < affected.size(); i++) {
+                int x = affected.get(i);
+                double best = Double.POSITIVE_INFINITY;
+                for (int j = reverseOffsets[x]; j < reverseOffsets[x + 1]; j++) {
+                    int arc = reverseArcs[j];
+                    if (states[tails[arc]] != AFFECTED) {
+                        best = Math.min(best, distances[tails[arc]] + weights[arc]);
+                    }
+                }
+                if (best != Double.POSITIVE_INFINITY) {
+                    write(x, best, distances);
+                    queue.insert(x, best);
+                }
+            }
+            for (int arc : batch.decreased) {
+                int v = graph.target(arc);
+                double distanceV = distances[tails[arc]] + weights[arc];
+                if (distanceV < distances[v]) {
+                    write(v, distanceV, distances);
+                    queue.insertOrDecrease(v, distanceV);
+                }
+            }
+
+            while (!queue.isEmpty()) {
+                int u = queue.deleteMin();
+                double distanceU = distances[u];
+                for (int arc = graph.firstArc(u), end = graph.endArc(u); arc < end; arc++) {
+                    int v = graph.target(arc);
+                    double distanceV = distanceU + weights[arc];
+                    if (distanceV < distances[v]) {
+                        write(v, distanceV, distances);
+                        queue.insertOrDecrease(v, distanceV);
+                    }
+                }
+            }
+        }
+
+        private void write(int v, double distance, double[] distances) {
+            if (!touched[v]) {
+                touched[v] = true;
+                before[v] = distances[v];
+                changed.add(v);
+            }
+            distances[v] = distance;
+        }
+
+        private void report(Batch batch, int source, double[] distances) {
+            long count = 0;
+            for (int i = 0; i < changed.size(); i++) {
+                int v = changed.get(i);
+                if (before[v] != distances[v]) {
+                    batch.listener.changed(source, v, before[v], distances[v]);
+                    count++;
+                }
+            }
+            batch.changedCells.addAndGet(count);
+        }
+    }
+
+    private class SourceRange extends RecursiveAction {
+        private final Batch batch;
+        private final int from;
+        private final int to;
+
+        SourceRange(Batch batch, int from, int to) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                Repair repair = repairs.get();
+                for (int source = from; source < to; source++) {
+                    repair.repair(batch, source);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SourceRange(batch, from, middle), new SourceRange(batch, middle, to));
+            }
+        }
+    }
+}
@@ -19,13 +19,14 @@
  */
 package ro.albertlr.graph.algorithm;
 
-public interface Edge<V extends Vertex<V>, W extends Number> {
+/**
+ * A directed edge. Its weight is not a property of the edge: the algorithms take a weight function, resolved once per
+ * run, e.g. a column of the attributes of the edges.
+ */
+public interface Edge<V extends Vertex<V>> {
     V getFrom();
     void setFrom(V from);
 
     V getTo();
     void setTo(V to);
-
-    W getWeight();
-    void setWeight(W weight);
 }
@@ -0,0 +1,71 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm;
+
+/**
+ * Single source search filling a complete distance row over the vertex ids of a {@link CompactGraph}.
+ * <p>
+ * Implementations own and reuse their buffers, so they are not thread safe; the all-pairs engine creates one per
+ * worker thread. The point-to-point queries ({@link ro.albertlr.graph.algorithm.p2p.BidirectionalSearch},
+ * {@link ro.albertlr.graph.algorithm.p2p.AltSearch}, {@link ro.albertlr.graph.algorithm.ch.ContractionHierarchyQuery},
+ * {@link ro.albertlr.graph.algorithm.ch.CustomizableContractionHierarchyQuery}) and the
+ * {@link ro.albertlr.graph.algorithm.ch.ManyToManySearch} work the same way: one instance per thread.
+ */
+public interface OneToAllSearch {
+    int NO_PREDECESSOR = -1;
+
+    void search(int source);
+
+    /**
+     * Distances computed by the last {@link #search(int)}, {@link Double#POSITIVE_INFINITY} for unreachable vertices;
+     * the array is reused by the next search.
+     */
+    double[] getDistances();
+
+    /**
+     * Predecessor of every vertex on its shortest path from the last source, {@link #NO_PREDECESSOR} for the source
+     * and unreachable vertices; the array is reused by the next search.
+     */
+    int[] getPredecessors();
+
+    /**
+     * Arc of the {@link CompactGraph} entering every vertex on its shortest path from the last source,
+     * {@link #NO_PREDECESSOR} for the source and unreachable vertices; the array is reused by the next search.
+     *
+     * @return {@code null} if the search does not record them
+     */
+    default int[] getPredecessorArcs() {
+        return null;
+    }
+
+    /**
+     * Vertices reached by the last search in the order they were settled, so every vertex comes after its predecessor;
+     * only the first {@link #getSettledCount()} entries are set and the array is reused by the next search.
+     *
+     * @return {@code null} if the search does not record it
+     */
+    default int[] getSettleOrder() {
+        return null;
+    }
+
+    default int getSettledCount() {
+        return 0;
+    }
+}
@@ -25,6 +25,8 @@ import org.jgrapht.Graph;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 @Slf4j
 public class Paths<V extends Vertex<V>, E> extends Algorithm<V, E> {
@@ -34,34 +36,33 @@ public class Paths<V extends Vertex<V>, E> extends Algorithm<V, E> {
         super(graph);
     }
 
-    public void print(V source, V destination) {
-        if (source == destination) {
-            log.info("{}", source);
-        } else if (destination.getPredecessor() == null) {
+    public void print(V source, V destination, SearchState<V> state) {
+        Collection<V> path = path(source, destination, state);
+        if (path.isEmpty()) {
             log.info("no path from {} to {} exists", source, destination);
-        } else {
-            print(source, destination.getPredecessor());
-            log.info("{}", destination);
+        }
+        for (V vertex : path) {
+            log.info("{}", vertex);
         }
     }
 
     /**
-     * Returns the path from source to destination
+     * Returns the path from source to destination, as found by the search that filled the given state; empty if there
+     * is none. The predecessors are followed iteratively, so long paths do not grow the stack.
      */
-    public Collection<V> path(V source, V destination) {
-        Collection<V> path = new ArrayList<>();
-        computePath(source, destination, path);
-        return path;
-    }
-
-    private void computePath(V source, V destination, Collection<V> path) {
-        if (source == destination) {
-            path.add(source);
-        } else if (destination.getPredecessor() == null) {
-            log.trace("no path from {} to {} exists", source, destination);
-        } else {
-            computePath(source, destination.getPredecessor(), path);
-            path.add(destination);
+    public Collection<V> path(V source, V destination, SearchState<V> state) {
+        List<V> path = new ArrayList<>();
+        V vertex = destination;
+        path.add(vertex);
+        while (vertex != source) {
+            vertex = state.getPredecessor(vertex);
+            if (vertex == null) {
+                log.trace("no path from {} to {} exists", source, destination);
+                return new ArrayList<>();
+            }
+            path.add(vertex);
         }
+        Collections.reverse(path);
+        return path;
     }
 }
@@ -0,0 +1,67 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm;
+
+/**
+ * Receives the rows computed by {@link AllPairsShortestPath}, one call per source.
+ * <p>
+ * Worker threads call {@link #accept} concurrently for distinct sources, so implementations must be thread safe. The
+ * arrays belong to the caller and are overwritten once the call returns; copy whatever has to be kept.
+ */
+@FunctionalInterface
+public interface ResultSink {
+    /**
+     * @param distances    distance from {@code source} to every vertex id, {@link Double#POSITIVE_INFINITY} if unreachable
+     * @param predecessors predecessor of every vertex id on its shortest path from {@code source} (see
+     *                     {@link OneToAllSearch#getPredecessors()}); {@code null} if the algorithm does not produce them
+     */
+    void accept(int source, double[] distances, int[] predecessors);
+
+    /**
+     * Row with the secondary metrics summed along every shortest path (see {@link TreeMetrics}); sinks that only store
+     * distances ignore them.
+     *
+     * @param metrics value of every metric for every vertex id, {@code [metric][vertex]}; {@code null} if none are
+     *                computed
+     */
+    default void accept(int source, double[] distances, int[] predecessors, double[][] metrics) {
+        accept(source, distances, predecessors);
+    }
+
+    /**
+     * @return a sink passing every row to this sink, then to {@code next}
+     */
+    default ResultSink andThen(ResultSink next) {
+        ResultSink first = this;
+        return new ResultSink() {
+            @Override
+            public void accept(int source, double[] distances, int[] predecessors) {
+                first.accept(source, distances, predecessors);
+                next.accept(source, distances, predecessors);
+            }
+
+            @Override
+            public void accept(int source, double[] distances, int[] predecessors, double[][] metrics) {
+                first.accept(source, distances, predecessors, metrics);
+                next.accept(source, distances, predecessors, metrics);
+            }
+        };
+    }
+}
@@ -0,0 +1,179 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm;
+
+import lombok.Getter;
+import ro.albertlr.graph.algorithm.Vertex.Color;
+
+import java.util.Arrays;
+
+/**
+ * Per-search vertex attributes (color, predecessor, distance, discovery and finishing time) kept outside of the graph,
+ * in primitive arrays addressed by {@link VertexIndex} ids.
+ * <p>
+ * Every entry carries the generation it was written in; {@link #reset()} only bumps the current generation, so entries
+ * from a previous search read as the defaults ({@link Color#WHITE}, no predecessor, {@link Algorithm#INFINITE}
+ * distance, zero times) without an O(n) sweep. A state must not be shared by concurrent searches, but any number of
+ * searches can run in parallel on the same graph, each with its own state.
+ *
+ * @param <V> Vertices type
+ */
+public class SearchState<V> {
+    private static final Color[] COLORS = Color.values();
+
+    @Getter
+    private final VertexIndex<V> index;
+
+    private final int[] generations;
+    private final byte[] colors;
+    private final int[] predecessors;
+    private final long[] distances;
+    private final long[] discoveryTimes;
+    private final long[] finishingTimes;
+
+    private int generation = 1;
+    private long time;
+
+    public SearchState(VertexIndex<V> index) {
+        int n = index.size();
+        this.index = index;
+        this.generations = new int[n];
+        this.colors = new byte[n];
+        this.predecessors = new int[n];
+        this.distances = new long[n];
+        this.discoveryTimes = new long[n];
+        this.finishingTimes = new long[n];
+    }
+
+    /**
+     * Forgets the previous search in O(1).
+     */
+    public void reset() {
+        if (++generation == 0) {
+            // wrapped around, stale stamps could collide with the new generation
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
+        time = 0;
+    }
+
+    /**
+     * Advances and returns the search clock used for discovery and finishing times.
+     */
+    public long tick() {
+        return ++time;
+    }
+
+    private int touch(int id) {
+        if (generations[id] != generation) {
+            generations[id] = generation;
+            colors[id] = (byte) Color.WHITE.ordinal();
+            predecessors[id] = VertexIndex.NONE;
+            distances[id] = Algorithm.INFINITE;
+            discoveryTimes[id] = 0;
+            finishingTimes[id] = 0;
+        }
+        return id;
+    }
+
+    private boolean current(int id) {
+        return generations[id] == generation;
+    }
+
+    public Color getColor(int id) {
+        return current(id) ? COLORS[colors[id]] : Color.WHITE;
+    }
+
+    public void setColor(int id, Color color) {
+        colors[touch(id)] = (byte) color.ordinal();
+    }
+
+    public int getPredecessor(int id) {
+        return current(id) ? predecessors[id] : VertexIndex.NONE;
+    }
+
+    public void setPredecessor(int id, int predecessor) {
+        predecessors[touch(id)] = predecessor;
+    }
+
+    public long getDistance(int id) {
+        return current(id) ? distances[id] : Algorithm.INFINITE;
+    }
+
+    public void setDistance(int id, long distance) {
+        distances[touch(id)] = distance;
+    }
+
+    public long getDiscoveryTime(int id) {
+        return current(id) ? discoveryTimes[id] : 0;
+    }
+
+    public void setDiscoveryTime(int id, long discoveryTime) {
+        discoveryTimes[touch(id)] = discoveryTime;
+    }
+
+    public long getFinishingTime(int id) {
+        return current(id) ? finishingTimes[id] : 0;
+    }
+
+    public void setFinishingTime(int id, long finishingTime) {
+        finishingTimes[touch(id)] = finishingTime;
+    }
+
+    public Color getColor(V v) {
+        return getColor(index.id(v));
+    }
+
+    public void setColor(V v, Color color) {
+        setColor(index.id(v), color);
+    }
+
+    public V getPredecessor(V v) {
+        return index.vertex(getPredecessor(index.id(v)));
+    }
+
+    public void setPredecessor(V v, V predecessor) {
+        setPredecessor(index.id(v), index.id(predecessor));
+    }
+
+    public long getDistance(V v) {
+        return getDistance(index.id(v));
+    }
+
+    public void setDistance(V v, long distance) {
+        setDistance(index.id(v), distance);
+    }
+
+    public long getDiscoveryTime(V v) {
+        return getDiscoveryTime(index.id(v));
+    }
+
+    public void setDiscoveryTime(V v, long discoveryTime) {
+        setDiscoveryTime(index.id(v), discoveryTime);
+    }
+
+    public long getFinishingTime(V v) {
+        return getFinishingTime(index.id(v));
+    }
+
+    public void setFinishingTime(V v, long finishingTime) {
+        setFinishingTime(index.id(v), finishingTime);
+    }
+}
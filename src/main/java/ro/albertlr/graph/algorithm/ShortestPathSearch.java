@@ -19,34 +19,43 @@
  */
 package ro.albertlr.graph.algorithm;
 
+import lombok.Getter;
 import org.jgrapht.Graph;
 
-import java.util.Set;
-import java.util.function.BiFunction;
+import java.util.function.ToDoubleFunction;
 
-public class ShortestPathSearch<V extends Vertex<V>, E extends Edge<V, Double>> extends Search<V, E> {
+public class ShortestPathSearch<V extends Vertex<V>, E extends Edge<V>> extends Search<V, E> {
+    /**
+     * Weight of every edge, resolved once for the whole run.
+     */
+    @Getter
+    protected final ToDoubleFunction<? super E> weight;
 
-    public ShortestPathSearch(Graph<V, E> graph) {
+    public ShortestPathSearch(Graph<V, E> graph, ToDoubleFunction<? super E> weight) {
         super(graph);
+        this.weight = weight;
     }
 
-    protected void initializeSingleSource(V source) {
-        Set<V> vertices = graph.vertexSet();
-        for (V v : vertices) {
-            v.setDistance(INFINITE);
-            v.setPredecessor(null);
-        }
+    protected void initializeSingleSource(V source, SearchState<V> state) {
+        // every other vertex reads as being at infinite distance and without predecessor
+        state.reset();
 
-        source.setDistance(0L);
+        state.setDistance(source, 0L);
     }
 
-    protected void relax(E edgeUtoV) {
+    /**
+     * @return {@code true} if the distance of the head of the edge was improved
+     */
+    protected boolean relax(E edgeUtoV, SearchState<V> state) {
         V u = edgeUtoV.getFrom();
         V v = edgeUtoV.getTo();
-        long w = edgeUtoV.getWeight().longValue();
-        if (v.getDistance() > u.getDistance() + w) {
-            v.setDistance(u.getDistance() + w);
-            v.setPredecessor(u);
+        long w = (long) weight.applyAsDouble(edgeUtoV);
+        long distanceU = state.getDistance(u);
+        if (distanceU != INFINITE && state.getDistance(v) > distanceU + w) {
+            state.setDistance(v, distanceU + w);
+            state.setPredecessor(v, u);
+            return true;
         }
+        return false;
     }
 }
@@ -0,0 +1,156 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Secondary metrics summed along the shortest path tree of a {@link OneToAllSearch}, e.g. the length of the fastest
+ * path when the search minimizes travel time. The tree is the one of the primary weight; the metrics only ride along
+ * it, so all of them are obtained from the same traversal.
+ * <p>
+ * The value of every metric is evaluated once per arc when the instance is created. Accumulating a row then costs one
+ * addition per reached vertex and metric: in settle order over the predecessor arcs when the search records them, by
+ * walking up the predecessors otherwise.
+ */
+public class TreeMetrics {
+    private final CompactGraph<?, ?> graph;
+    /**
+     * {@code arcValues[k][arc]} is the value of metric {@code k} on the arc.
+     */
+    private final double[][] arcValues;
+    @Getter
+    private final int metricCount;
+
+    private TreeMetrics(CompactGraph<?, ?> graph, double[][] arcValues) {
+        this.graph = graph;
+        this.arcValues = arcValues;
+        this.metricCount = arcValues.length;
+    }
+
+    /**
+     * @param metrics value of every edge for each metric, in the order the metrics are reported
+     */
+    public static <E> TreeMetrics of(CompactGraph<?, E> graph, List<? extends ToDoubleFunction<? super E>> metrics) {
+        double[][] arcValues = new double[metrics.size()][graph.getArcCount()];
+        for (int arc = 0; arc < graph.getArcCount(); arc++) {
+            E edge = graph.edge(arc);
+            for (int k = 0; k < metrics.size(); k++) {
+                arcValues[k][arc] = metrics.get(k).applyAsDouble(edge);
+            }
+        }
+        return new TreeMetrics(graph, arcValues);
+    }
+
+    public Accumulator newAccumulator() {
+        return new Accumulator();
+    }
+
+    /**
+     * Buffers of one thread; metrics are reported by vertex id.
+     */
+    public class Accumulator {
+        private final int n = graph.getVertexCount();
+        /**
+         * {@code values[k][v]} is metric {@code k} summed along the path to {@code v},
+         * {@link Double#POSITIVE_INFINITY} if unreachable.
+         */
+        private final double[][] values = new double[metricCount][n];
+        private final boolean[] done = new boolean[n];
+        private final int[] path = new int[n];
+
+        private Accumulator() {
+        }
+
+        /**
+         * Sums the metrics along the tree of the last search run.
+         *
+         * @return the metrics of every vertex, {@code [metric][vertex]}; the arrays are reused by the next call
+         */
+        public double[][] accumulate(OneToAllSearch search) {
+            for (double[] row : values) {
+                Arrays.fill(row, Double.POSITIVE_INFINITY);
+            }
+            int[] predecessors = search.getPredecessors();
+            int[] arcs = search.getPredecessorArcs();
+            int[] order = search.getSettleOrder();
+            if (arcs != null && order != null) {
+                for (int i = 0, settled = search.getSettledCount(); i < settled; i++) {
+                    int v = order[i];
+                    set(v, predecessors[v], arcs[v]);
+                }
+            } else {
+                walkUp(search.getDistances(), predecessors);
+            }
+            return values;
+        }
+
+        /**
+         * Resolves every reached vertex by walking up to the first resolved ancestor, then down again; every vertex is
+         * resolved once. The arc of a predecessor is the lightest one to the vertex.
+         */
+        private void walkUp(double[] distances, int[] predecessors) {
+            Arrays.fill(done, false);
+            for (int v = 0; v < n; v++) {
+                if (done[v] || distances[v] == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                int length = 0;
+                for (int x = v; x != OneToAllSearch.NO_PREDECESSOR && !done[x]; x = predecessors[x]) {
+                    path[length++] = x;
+                }
+                while (length > 0) {
+                    int x = path[--length];
+                    int u = predecessors[x];
+                    set(x, u, u == OneToAllSearch.NO_PREDECESSOR ? OneToAllSearch.NO_PREDECESSOR : lightestArc(u, x));
+                    done[x] = true;
+                }
+            }
+        }
+
+        private void set(int v, int u, int arc) {
+            if (arc == OneToAllSearch.NO_PREDECESSOR) {
+                // the source
+                for (double[] row : values) {
+                    row[v] = 0;
+                }
+                return;
+            }
+            for (int k = 0; k < metricCount; k++) {
+                values[k][v] = values[k][u] + arcValues[k][arc];
+            }
+        }
+
+        private int lightestArc(int u, int v) {
+            int lightest = OneToAllSearch.NO_PREDECESSOR;
+            for (int arc = graph.firstArc(u), end = graph.endArc(u); arc < end; arc++) {
+                if (graph.target(arc) == v
+                        && (lightest == OneToAllSearch.NO_PREDECESSOR || graph.weight(arc) < graph.weight(lightest))) {
+                    lightest = arc;
+                }
+            }
+            return lightest;
+        }
+    }
+}
@@ -34,20 +34,4 @@ public interface Vertex<V extends Vertex<V>> {
         GRAY,
         BLACK;
     }
-
-    Color getColor();
-    void setColor(Color color);
-
-    V getPredecessor();
-    void setPredecessor(V v);
-
-    long getDistance();
-    void setDistance(long distance);
-
-    long getDiscoveryTime();
-    void setDiscoveryTime(long discoveryTime);
-
-    long getFinishingTime();
-    void setFinishingTime(long finishingTime);
-
 }
@@ -0,0 +1,87 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm;
+
+import org.eclipse.collections.impl.map.mutable.primitive.ObjectIntHashMap;
+import org.jgrapht.Graph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Dense, immutable numbering of the vertices of a graph in {@code [0, size)}.
+ *
+ * @param <V> Vertices type
+ */
+public final class VertexIndex<V> {
+    public static final int NONE = -1;
+
+    private final List<V> vertices;
+    private final ObjectIntHashMap<V> ids;
+
+    private VertexIndex(List<V> vertices) {
+        this.vertices = Collections.unmodifiableList(vertices);
+        this.ids = new ObjectIntHashMap<>(vertices.size());
+        for (int id = 0; id < vertices.size(); id++) {
+            ids.put(vertices.get(id), id);
+        }
+    }
+
+    public static <V> VertexIndex<V> of(Graph<V, ?> graph) {
+        return of(graph.vertexSet());
+    }
+
+    public static <V> VertexIndex<V> of(Collection<V> vertices) {
+        return new VertexIndex<>(new ArrayList<>(vertices));
+    }
+
+    public int size() {
+        return vertices.size();
+    }
+
+    /**
+     * @return the id of the vertex or {@link #NONE} if the vertex is not indexed
+     */
+    public int id(V vertex) {
+        return vertex == null ? NONE : ids.getIfAbsent(vertex, NONE);
+    }
+
+    /**
+     * @return the id of the vertex
+     * @throws IllegalArgumentException if the vertex is not indexed
+     */
+    public int requireId(V vertex) {
+        int id = id(vertex);
+        if (id == NONE) {
+            throw new IllegalArgumentException("Vertex " + vertex + " is not indexed");
+        }
+        return id;
+    }
+
+    public V vertex(int id) {
+        return id == NONE ? null : vertices.get(id);
+    }
+
+    public List<V> vertices() {
+        return vertices;
+    }
+}
@@ -0,0 +1,146 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.ch;
+
+import lombok.Getter;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import ro.albertlr.graph.algorithm.CompactGraph;
+
+/**
+ * Result of contracting a {@link CompactGraph}: every vertex has a rank (its position in the contraction order) and the
+ * arcs of the hierarchy (original arcs plus shortcuts) are split into two search graphs.
+ * <ul>
+ * <li>the upward graph holds, for every vertex {@code u}, the arcs {@code u -> x} with {@code rank(x) > rank(u)},
+ * used by forward searches;</li>
+ * <li>the downward graph holds, for every vertex {@code v}, the arcs {@code u -> v} with {@code rank(u) > rank(v)},
+ * used by backward searches.</li>
+ * </ul>
+ * A shortcut {@code u -> x} replaces the path {@code u -> v -> x} through a lower ranked vertex {@code v} and remembers
+ * the two arcs it stands for, so paths can be unpacked to original edges.
+ *
+ * @param <V> Vertices type
+ * @param <E> Edge type
+ */
+public class ContractionHierarchy<V, E> {
+    public static final int NO_ARC = -1;
+
+    @Getter
+    private final CompactGraph<V, E> graph;
+
+    /**
+     * Contraction order position of every vertex; a higher rank means more important.
+     */
+    final int[] ranks;
+
+    // all the arcs of the hierarchy, addressed by arc id
+    final int[] arcTails;
+    final int[] arcHeads;
+    final double[] arcWeights;
+    /**
+     * For an original arc, the index of the {@link CompactGraph} arc it was built from; {@link #NO_ARC} for shortcuts.
+     */
+    final int[] arcOriginals;
+    /**
+     * For a shortcut {@code u -> x} via {@code v}, the arcs {@code u -> v} and {@code v -> x}; {@link #NO_ARC} otherwise.
+     */
+    final int[] arcFirst;
+    final int[] arcSecond;
+
+    final int[] upOffsets;
+    final int[] upArcs;
+    final int[] downOffsets;
+    final int[] downArcs;
+
+    ContractionHierarchy(CompactGraph<V, E> graph, int[] ranks,
+                         int[] arcTails, int[] arcHeads, double[] arcWeights,
+                         int[] arcOriginals, int[] arcFirst, int[] arcSecond,
+                         int[] upOffsets, int[] upArcs, int[] downOffsets, int[] downArcs) {
+        this.graph = graph;
+        this.ranks = ranks;
+        this.arcTails = arcTails;
+        this.arcHeads = arcHeads;
+        this.arcWeights = arcWeights;
+        this.arcOriginals = arcOriginals;
+        this.arcFirst = arcFirst;
+        this.arcSecond = arcSecond;
+        this.upOffsets = upOffsets;
+        this.upArcs = upArcs;
+        this.downOffsets = downOffsets;
+        this.downArcs = downArcs;
+    }
+
+    public int getVertexCount() {
+        return ranks.length;
+    }
+
+    public int getArcCount() {
+        return arcTails.length;
+    }
+
+    public int getShortcutCount() {
+        int shortcuts = 0;
+        for (int arc = 0; arc < arcOriginals.length; arc++) {
+            if (arcOriginals[arc] == NO_ARC) {
+                shortcuts++;
+            }
+        }
+        return shortcuts;
+    }
+
+    public int rank(int vertex) {
+        return ranks[vertex];
+    }
+
+    public int tail(int arc) {
+        return arcTails[arc];
+    }
+
+    public int head(int arc) {
+        return arcHeads[arc];
+    }
+
+    public double weight(int arc) {
+        return arcWeights[arc];
+    }
+
+    public boolean isShortcut(int arc) {
+        return arcOriginals[arc] == NO_ARC;
+    }
+
+    /**
+     * Appends to {@code path} the {@link CompactGraph} arcs the given hierarchy arc stands for, in path order.
+     *
+     * @param stack scratch list, cleared before use
+     */
+    public void unpack(int arc, IntArrayList path, IntArrayList stack) {
+        stack.clear();
+        stack.add(arc);
+        while (stack.notEmpty()) {
+            int current = stack.removeAtIndex(stack.size() - 1);
+            if (arcOriginals[current] != NO_ARC) {
+                path.add(arcOriginals[current]);
+            } else {
+                // second half is pushed first, so the first half is unpacked first
+                stack.add(arcSecond[current]);
+                stack.add(arcFirst[current]);
+            }
+        }
+    }
+}
@@ -0,0 +1,344 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.ch;
+
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.collections.impl.list.mutable.primitive.DoubleArrayList;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import ro.albertlr.graph.algorithm.CompactGraph;
+import ro.albertlr.graph.algorithm.queue.IndexedPriorityQueue;
+import ro.albertlr.graph.algorithm.queue.PriorityQueueType;
+
+import java.util.Arrays;
+
+/**
+ * Builds a {@link ContractionHierarchy} by contracting the vertices of a {@link CompactGraph} one at a time.
+ * <p>
+ * The next vertex to contract is the one with the smallest priority
+ * {@code edgeDifferenceCoefficient * (shortcuts added - arcs removed) + contractedNeighboursCoefficient * contracted
+ * neighbours}. Priorities of the neighbours are refreshed after every contraction and the priority of a vertex is
+ * recomputed when it reaches the top of the queue (lazy updates), so the order adapts as the graph shrinks.
+ * <p>
+ * When contracting {@code v}, a shortcut {@code u -> x} is added for every pair of remaining neighbours unless a local
+ * witness search from {@code u} (ignoring {@code v}, limited to {@code witnessSearchLimit} settled vertices) finds a
+ * path no longer than {@code u -> v -> x}.
+ */
+@Slf4j
+public class ContractionHierarchyPreprocessor<V, E> {
+    private static final int DEFAULT_WITNESS_SEARCH_LIMIT = 500;
+
+    private final CompactGraph<V, E> graph;
+    private final int n;
+    private final int witnessSearchLimit;
+    private final double edgeDifferenceCoefficient;
+    private final double contractedNeighboursCoefficient;
+
+    // arcs of the hierarchy, growing as shortcuts are added
+    private final IntArrayList arcTails = new IntArrayList();
+    private final IntArrayList arcHeads = new IntArrayList();
+    private final DoubleArrayList arcWeights = new DoubleArrayList();
+    private final IntArrayList arcOriginals = new IntArrayList();
+    private final IntArrayList arcFirst = new IntArrayList();
+    private final IntArrayList arcSecond = new IntArrayList();
+
+    // arcs between vertices that are not contracted yet
+    private final IntArrayList[] outArcs;
+    private final IntArrayList[] inArcs;
+
+    private final int[] contractedNeighbours;
+
+    // witness search buffers
+    private final IndexedPriorityQueue witnessQueue;
+    private final double[] witnessDistances;
+    private final int[] witnessGenerations;
+    private int witnessGeneration;
+
+    // shortcuts found by the last findShortcuts call: tail, head and the two arcs they replace
+    private final IntArrayList shortcutTails = new IntArrayList();
+    private final IntArrayList shortcutHeads = new IntArrayList();
+    private final IntArrayList shortcutFirst = new IntArrayList();
+    private final IntArrayList shortcutSecond = new IntArrayList();
+    private final DoubleArrayList shortcutWeights = new DoubleArrayList();
+
+    /**
+     * @param witnessSearchLimit              settled vertices after which a witness search gives up; {@code 0} means
+     *                                        the default of 500
+     * @param edgeDifferenceCoefficient       weight of the edge difference in the priority; {@code 0} means 2
+     * @param contractedNeighboursCoefficient weight of the contracted neighbours in the priority; {@code 0} means 1
+     */
+    @Builder
+    protected ContractionHierarchyPreprocessor(CompactGraph<V, E> graph, int witnessSearchLimit,
+                                               double edgeDifferenceCoefficient,
+                                               double contractedNeighboursCoefficient) {
+        this.graph = graph;
+        this.n = graph.getVertexCount();
+        this.witnessSearchLimit = witnessSearchLimit > 0 ? witnessSearchLimit : DEFAULT_WITNESS_SEARCH_LIMIT;
+        this.edgeDifferenceCoefficient = edgeDifferenceCoefficient > 0 ? edgeDifferenceCoefficient : 2;
+        this.contractedNeighboursCoefficient = contractedNeighboursCoefficient > 0 ? contractedNeighboursCoefficient : 1;
+
+        this.outArcs = new IntArrayList[n];
+        this.inArcs = new IntArrayList[n];
+        for (int v = 0; v < n; v++) {
+            outArcs[v] = new IntArrayList(graph.outDegree(v));
+            inArcs[v] = new IntArrayList();
+        }
+        this.contractedNeighbours = new int[n];
+
+        this.witnessQueue = PriorityQueueType.QUATERNARY_HEAP.create(n);
+        this.witnessDistances = new double[n];
+        this.witnessGenerations = new int[n];
+    }
+
+    public ContractionHierarchy<V, E> preprocess() {
+        for (int u = 0; u < n; u++) {
+            for (int arc = graph.firstArc(u); arc < graph.endArc(u); arc++) {
+                int v = graph.target(arc);
+                if (u != v) {
+                    addArc(u, v, graph.weight(arc), arc, ContractionHierarchy.NO_ARC, ContractionHierarchy.NO_ARC);
+                }
+            }
+        }
+        int originalArcs = arcTails.size();
+
+        double[] priorities = new double[n];
+        IndexedPriorityQueue order = PriorityQueueType.BINARY_HEAP.create(n);
+        for (int v = 0; v < n; v++) {
+            priorities[v] = priority(v);
+            order.insert(v, priorities[v]);
+        }
+
+        int[] ranks = new int[n];
+        IntArrayList[] upArcs = new IntArrayList[n];
+        IntArrayList[] downArcs = new IntArrayList[n];
+        int rank = 0;
+        while (!order.isEmpty()) {
+            int v = order.deleteMin();
+
+            double priority = priority(v);
+            if (priority > priorities[v]) {
+                // the priority got worse since it was queued, let the other vertices compete with it again
+                priorities[v] = priority;
+                order.insert(v, priority);
+                continue;
+            }
+
+            findShortcuts(v, true);
+            for (int i = 0; i < shortcutTails.size(); i++) {
+                addArc(shortcutTails.get(i), shortcutHeads.get(i), shortcutWeights.get(i),
+                        ContractionHierarchy.NO_ARC, shortcutFirst.get(i), shortcutSecond.get(i));
+            }
+
+            ranks[v] = rank++;
+            upArcs[v] = outArcs[v];
+            downArcs[v] = inArcs[v];
+
+            IntArrayList out = outArcs[v];
+            for (int i = 0; i < out.size(); i++) {
+                int x = arcHeads.get(out.get(i));
+                remove(inArcs[x], out.get(i));
+                contractedNeighbours[x]++;
+            }
+            IntArrayList in = inArcs[v];
+            for (int i = 0; i < in.size(); i++) {
+                int u = arcTails.get(in.get(i));
+                remove(outArcs[u], in.get(i));
+                contractedNeighbours[u]++;
+            }
+
+            // neighbour priorities that improved are applied now, the ones that got worse lazily when popped
+            for (int i = 0; i < out.size(); i++) {
+                updatePriority(arcHeads.get(out.get(i)), priorities, order);
+            }
+            for (int i = 0; i < in.size(); i++) {
+                updatePriority(arcTails.get(in.get(i)), priorities, order);
+            }
+
+            if (log.isDebugEnabled() && rank % 10_000 == 0) {
+                log.debug("contracted {} of {} vertices, {} shortcuts so far", rank, n, arcTails.size() - originalArcs);
+            }
+        }
+
+        log.info("contraction hierarchy of {} vertices built with {} shortcuts over {} original arcs",
+                n, arcTails.size() - originalArcs, originalArcs);
+
+        int[] upOffsets = new int[n + 1];
+        int[] downOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            upOffsets[v + 1] = upOffsets[v] + upArcs[v].size();
+            downOffsets[v + 1] = downOffsets[v] + downArcs[v].size();
+        }
+        int[] up = new int[upOffsets[n]];
+        int[] down = new int[downOffsets[n]];
+        for (int v = 0; v < n; v++) {
+            for (int i = 0; i < upArcs[v].size(); i++) {
+                up[upOffsets[v] + i] = upArcs[v].get(i);
+            }
+            for (int i = 0; i < downArcs[v].size(); i++) {
+                down[downOffsets[v] + i] = downArcs[v].get(i);
+            }
+        }
+
+        return new ContractionHierarchy<>(graph, ranks,
+                arcTails.toArray(), arcHeads.toArray(), arcWeights.toArray(),
+                arcOriginals.toArray(), arcFirst.toArray(), arcSecond.toArray(),
+                upOffsets, up, downOffsets, down);
+    }
+
+    private void updatePriority(int v, double[] priorities, IndexedPriorityQueue order) {
+        double priority = priority(v);
+        if (priority < priorities[v]) {
+            priorities[v] = priority;
+            order.decreaseKey(v, priority);
+        }
+    }
+
+    private double priority(int v) {
+        findShortcuts(v, false);
+        int edgeDifference = shortcutTails.size() - outArcs[v].size() - inArcs[v].size();
+        return edgeDifferenceCoefficient * edgeDifference + contractedNeighboursCoefficient * contractedNeighbours[v];
+    }
+
+    /**
+     * Collects the shortcuts needed to contract {@code v}. Without {@code record} only their number is meaningful.
+     */
+    private void findShortcuts(int v, boolean record) {
+        shortcutTails.clear();
+        shortcutHeads.clear();
+        shortcutFirst.clear();
+        shortcutSecond.clear();
+        shortcutWeights.clear();
+
+        IntArrayList in = inArcs[v];
+        IntArrayList out = outArcs[v];
+        if (in.isEmpty() || out.isEmpty()) {
+            return;
+        }
+
+        double maxOut = 0;
+        for (int j = 0; j < out.size(); j++) {
+            maxOut = Math.max(maxOut, arcWeights.get(out.get(j)));
+        }
+
+        for (int i = 0; i < in.size(); i++) {
+            int arcUV = in.get(i);
+            int u = arcTails.get(arcUV);
+            double weightUV = arcWeights.get(arcUV);
+
+            witnessSearch(u, v, weightUV + maxOut);
+
+            for (int j = 0; j < out.size(); j++) {
+                int arcVX = out.get(j);
+                int x = arcHeads.get(arcVX);
+                if (x == u) {
+                    continue;
+                }
+                double viaV = weightUV + arcWeights.get(arcVX);
+                if (witnessDistance(x) > viaV) {
+                    shortcutTails.add(u);
+                    if (record) {
+                        shortcutHeads.add(x);
+                        shortcutFirst.add(arcUV);
+                        shortcutSecond.add(arcVX);
+                        shortcutWeights.add(viaV);
+                    }
+                }
+            }
+        }
+    }
+
+    private void witnessSearch(int source, int excluded, double maxDistance) {
+        if (++witnessGeneration == 0) {
+            Arrays.fill(witnessGenerations, 0);
+            witnessGeneration = 1;
+        }
+        witnessQueue.clear();
+
+        witnessDistances[source] = 0;
+        witnessGenerations[source] = witnessGeneration;
+        witnessQueue.insert(source, 0);
+
+        int settled = 0;
+        while (!witnessQueue.isEmpty() && settled++ < witnessSearchLimit) {
+            int u = witnessQueue.deleteMin();
+            double distanceU = witnessDistances[u];
+            if (distanceU > maxDistance) {
+                break;
+            }
+            IntArrayList out = outArcs[u];
+            for (int i = 0; i < out.size(); i++) {
+                int arc = out.get(i);
+                int x = arcHeads.get(arc);
+                if (x == excluded) {
+                    continue;
+                }
+                double distanceX = distanceU + arcWeights.get(arc);
+                if (distanceX < witnessDistance(x)) {
+                    witnessDistances[x] = distanceX;
+                    witnessGenerations[x] = witnessGeneration;
+                    witnessQueue.insertOrDecrease(x, distanceX);
+                }
+            }
+        }
+    }
+
+    private double witnessDistance(int v) {
+        return witnessGenerations[v] == witnessGeneration ? witnessDistances[v] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Adds an arc between two uncontracted vertices; a parallel arc that is not shorter is dropped from the search
+     * graph, a longer one is replaced.
+     */
+    private void addArc(int tail, int head, double weight, int original, int first, int second) {
+        IntArrayList out = outArcs[tail];
+        for (int i = 0; i < out.size(); i++) {
+            int existing = out.get(i);
+            if (arcHeads.get(existing) == head) {
+                if (arcWeights.get(existing) <= weight) {
+                    return;
+                }
+                out.removeAtIndex(i);
+                remove(inArcs[head], existing);
+                break;
+            }
+        }
+
+        int arc = arcTails.size();
+        arcTails.add(tail);
+        arcHeads.add(head);
+        arcWeights.add(weight);
+        arcOriginals.add(original);
+        arcFirst.add(first);
+        arcSecond.add(second);
+
+        out.add(arc);
+        inArcs[head].add(arc);
+    }
+
+    private static void remove(IntArrayList arcs, int arc) {
+        for (int i = 0; i < arcs.size(); i++) {
+            if (arcs.get(i) == arc) {
+                arcs.removeAtIndex(i);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.ch;
+
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import ro.albertlr.graph.algorithm.CompactGraph;
+import ro.albertlr.graph.algorithm.queue.IndexedPriorityQueue;
+import ro.albertlr.graph.algorithm.queue.PriorityQueueType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Point-to-point queries on a {@link ContractionHierarchy}: a forward search on the upward graph from the source and
+ * a backward search on the downward graph from the target, interleaved by key. A direction stops as soon as its next
+ * key cannot improve the best meeting point found so far.
+ *
+ * @param <V> Vertices type
+ * @param <E> Edge type
+ */
+public class ContractionHierarchyQuery<V, E> {
+    private static final int FORWARD = 0;
+    private static final int BACKWARD = 1;
+
+    private final ContractionHierarchy<V, E> hierarchy;
+
+    private final double[][] distances;
+    private final int[][] parentArcs;
+    private final int[][] generations;
+    private final IndexedPriorityQueue[] queues;
+    private final double[] lastKeys = new double[2];
+    private int generation;
+
+    private int meeting;
+
+    public ContractionHierarchyQuery(ContractionHierarchy<V, E> hierarchy) {
+        int n = hierarchy.getVertexCount();
+        this.hierarchy = hierarchy;
+        this.distances = new double[2][n];
+        this.parentArcs = new int[2][n];
+        this.generations = new int[2][n];
+        this.queues = new IndexedPriorityQueue[]{
+                PriorityQueueType.BINARY_HEAP.create(n),
+                PriorityQueueType.BINARY_HEAP.create(n)
+        };
+    }
+
+    /**
+     * @return the shortest path distance between the two vertex ids, or {@link Double#POSITIVE_INFINITY} if the target
+     * cannot be reached
+     */
+    public double distance(int source, int target) {
+        if (++generation == 0) {
+            Arrays.fill(generations[FORWARD], 0);
+            Arrays.fill(generations[BACKWARD], 0);
+            generation = 1;
+        }
+        queues[FORWARD].clear();
+        queues[BACKWARD].clear();
+        meeting = -1;
+        lastKeys[FORWARD] = 0;
+        lastKeys[BACKWARD] = 0;
+
+        reach(FORWARD, source, 0, ContractionHierarchy.NO_ARC);
+        reach(BACKWARD, target, 0, ContractionHierarchy.NO_ARC);
+
+        double best = Double.POSITIVE_INFINITY;
+        while (true) {
+            boolean forwardDone = queues[FORWARD].isEmpty() || lastKeys[FORWARD] >= best;
+            boolean backwardDone = queues[BACKWARD].isEmpty() || lastKeys[BACKWARD] >= best;
+            if (forwardDone && backwardDone) {
+                break;
+            }
+            int direction = backwardDone || (!forwardDone && lastKeys[FORWARD] <= lastKeys[BACKWARD])
+                    ? FORWARD : BACKWARD;
+            int other = 1 - direction;
+
+            int u = queues[direction].deleteMin();
+            double distanceU = distances[direction][u];
+            lastKeys[direction] = distanceU;
+            if (distanceU >= best) {
+                continue;
+            }
+            if (generations[other][u] == generation && distanceU + distances[other][u] < best) {
+                best = distanceU + distances[other][u];
+                meeting = u;
+            }
+
+            int[] offsets = direction == FORWARD ? hierarchy.upOffsets : hierarchy.downOffsets;
+            int[] arcs = direction == FORWARD ? hierarchy.upArcs : hierarchy.downArcs;
+            int[] ends = direction == FORWARD ? hierarchy.arcHeads : hierarchy.arcTails;
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int arc = arcs[i];
+                reach(direction, ends[arc], distanceU + hierarchy.arcWeights[arc], arc);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return the arcs of the {@link CompactGraph} on a shortest path between the two vertex ids, empty if there is
+     * none or the source is the target
+     */
+    public IntArrayList arcs(int source, int target) {
+        IntArrayList path = new IntArrayList();
+        if (Double.isInfinite(distance(source, target))) {
+            return path;
+        }
+
+        IntArrayList hierarchyArcs = new IntArrayList();
+        for (int v = meeting; v != source; ) {
+            int arc = parentArcs[FORWARD][v];
+            hierarchyArcs.add(arc);
+            v = hierarchy.arcTails[arc];
+        }
+        IntArrayList stack = new IntArrayList();
+        for (int i = hierarchyArcs.size() - 1; i >= 0; i--) {
+            hierarchy.unpack(hierarchyArcs.get(i), path, stack);
+        }
+        for (int v = meeting; v != target; ) {
+            int arc = parentArcs[BACKWARD][v];
+            hierarchy.unpack(arc, path, stack);
+            v = hierarchy.arcHeads[arc];
+        }
+        return path;
+    }
+
+    /**
+     * Returns the path from source to destination, in the same form as {@link ro.albertlr.graph.algorithm.Paths#path}:
+     * the vertices from source to destination, empty if there is no path.
+     */
+    public Collection<V> path(V source, V destination) {
+        CompactGraph<V, E> graph = hierarchy.getGraph();
+        int s = graph.id(source);
+        int t = graph.id(destination);
+
+        List<V> path = new ArrayList<>();
+        if (s == t) {
+            path.add(source);
+            return path;
+        }
+        IntArrayList arcs = arcs(s, t);
+        if (arcs.isEmpty()) {
+            return path;
+        }
+        path.add(source);
+        for (int i = 0; i < arcs.size(); i++) {
+            path.add(graph.vertex(graph.target(arcs.get(i))));
+        }
+        return path;
+    }
+
+    private void reach(int direction, int v, double distance, int arc) {
+        if (generations[direction][v] != generation) {
+            generations[direction][v] = generation;
+            distances[direction][v] = distance;
+            parentArcs[direction][v] = arc;
+            queues[direction].insert(v, distance);
+        } else if (distance < distances[direction][v]) {
+            distances[direction][v] = distance;
+            parentArcs[direction][v] = arc;
+            queues[direction].decreaseKey(v, distance);
+        }
+    }
+}
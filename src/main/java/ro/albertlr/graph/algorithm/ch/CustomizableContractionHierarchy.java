@@ -0,0 +1,352 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.ch;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import ro.albertlr.graph.algorithm.CompactGraph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Customizable contraction hierarchy (CCH): the topology of a contraction hierarchy built from a metric independent
+ * order, usually a {@link NestedDissection}, so it is computed once per network and then {@link #customize customized}
+ * for any number of weights, e.g. morning and evening travel times, in a fraction of the preprocessing time.
+ * <p>
+ * Contracting the vertices in rank order without witness searches adds every possible shortcut, so the hierarchy is
+ * the undirected chordal supergraph of the network. Inside this class vertices are addressed by rank. Every hierarchy
+ * edge {@code {low, high}} (with {@code low < high}) is stored once, with the upward neighbours of {@code low} sorted
+ * by rank, and carries two weights in a {@link CustomizedMetric}: {@code low -> high} and {@code high -> low}.
+ * <p>
+ * The lowest upward neighbour of a vertex is its parent in the elimination tree; all the upward neighbours of a vertex
+ * are its ancestors, which is what the queries walk. A vertex is customized once every lower vertex adjacent to it
+ * is, so the vertices of one elimination tree level are customized in parallel.
+ *
+ * @param <V> Vertices type
+ * @param <E> Edge type
+ */
+@Slf4j
+public class CustomizableContractionHierarchy<V, E> {
+    public static final int NO_VERTEX = -1;
+    /**
+     * Vertices of a level customized by one task at least.
+     */
+    private static final int MIN_TASK_VERTICES = 256;
+
+    @Getter
+    private final CompactGraph<V, E> graph;
+    private final int n;
+
+    final int[] ranks;
+    /**
+     * Vertex id of every rank.
+     */
+    final int[] vertices;
+    /**
+     * Elimination tree parent of every rank, {@link #NO_VERTEX} for roots.
+     */
+    final int[] parents;
+
+    // edges by lower end: upOffsets[low] to upOffsets[low + 1], heads ascending
+    final int[] upOffsets;
+    final int[] edgeTails;
+    final int[] edgeHeads;
+
+    // edges by higher end, tails ascending
+    private final int[] downOffsets;
+    private final int[] downEdges;
+
+    // ranks grouped by elimination tree level, leaves first
+    private final int[] levelOffsets;
+    private final int[] levelVertices;
+
+    /**
+     * Hierarchy edge every {@link CompactGraph} arc is an arc of, {@link #NO_VERTEX} for loops, and whether the arc
+     * goes up, from the lower end to the higher one.
+     */
+    private final int[] arcEdges;
+    private final boolean[] arcUpward;
+
+    /**
+     * @param ranks a permutation of the vertex ids, e.g. {@link NestedDissection#ranks()}
+     */
+    public CustomizableContractionHierarchy(CompactGraph<V, E> graph, int[] ranks) {
+        this.graph = graph;
+        this.n = graph.getVertexCount();
+        this.ranks = ranks;
+        this.vertices = new int[n];
+        for (int v = 0; v < n; v++) {
+            vertices[ranks[v]] = v;
+        }
+
+        IntArrayList[] upward = new IntArrayList[n];
+        for (int r = 0; r < n; r++) {
+            upward[r] = new IntArrayList();
+        }
+        for (int u = 0; u < n; u++) {
+            for (int arc = graph.firstArc(u); arc < graph.endArc(u); arc++) {
+                int a = ranks[u];
+                int b = ranks[graph.target(arc)];
+                if (a != b) {
+                    upward[Math.min(a, b)].add(Math.max(a, b));
+                }
+            }
+        }
+
+        // contracting a vertex connects its upward neighbours; all of them become upward neighbours of the lowest one
+        this.parents = new int[n];
+        this.upOffsets = new int[n + 1];
+        int[][] heads = new int[n][];
+        for (int r = 0; r < n; r++) {
+            int[] sorted = upward[r].toSortedArray();
+            upward[r] = null;
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            heads[r] = Arrays.copyOf(sorted, distinct);
+            parents[r] = distinct == 0 ? NO_VERTEX : sorted[0];
+            for (int i = 1; i < distinct; i++) {
+                upward[sorted[0]].add(sorted[i]);
+            }
+            upOffsets[r + 1] = upOffsets[r] + distinct;
+        }
+        int m = upOffsets[n];
+        this.edgeTails = new int[m];
+        this.edgeHeads = new int[m];
+        this.downOffsets = new int[n + 1];
+        for (int r = 0; r < n; r++) {
+            for (int i = 0; i < heads[r].length; i++) {
+                int edge = upOffsets[r] + i;
+                edgeTails[edge] = r;
+                edgeHeads[edge] = heads[r][i];
+                downOffsets[edgeHeads[edge] + 1]++;
+            }
+            heads[r] = null;
+        }
+        for (int r = 0; r < n; r++) {
+            downOffsets[r + 1] += downOffsets[r];
+        }
+        this.downEdges = new int[m];
+        int[] next = Arrays.copyOf(downOffsets, n);
+        for (int edge = 0; edge < m; edge++) {
+            downEdges[next[edgeHeads[edge]]++] = edge;
+        }
+
+        int[] levels = new int[n];
+        int depth = 0;
+        for (int r = 0; r < n; r++) {
+            if (parents[r] != NO_VERTEX) {
+                levels[parents[r]] = Math.max(levels[parents[r]], levels[r] + 1);
+            }
+            depth = Math.max(depth, levels[r] + 1);
+        }
+        this.levelOffsets = new int[depth + 1];
+        for (int r = 0; r < n; r++) {
+            levelOffsets[levels[r] + 1]++;
+        }
+        for (int level = 0; level < depth; level++) {
+            levelOffsets[level + 1] += levelOffsets[level];
+        }
+        this.levelVertices = new int[n];
+        next = Arrays.copyOf(levelOffsets, depth);
+        for (int r = 0; r < n; r++) {
+            levelVertices[next[levels[r]]++] = r;
+        }
+
+        this.arcEdges = new int[graph.getArcCount()];
+        this.arcUpward = new boolean[graph.getArcCount()];
+        for (int u = 0; u < n; u++) {
+            for (int arc = graph.firstArc(u); arc < graph.endArc(u); arc++) {
+                int a = ranks[u];
+                int b = ranks[graph.target(arc)];
+                arcEdges[arc] = a == b ? NO_VERTEX : edge(Math.min(a, b), Math.max(a, b));
+                arcUpward[arc] = a < b;
+            }
+        }
+
+        log.info("customizable contraction hierarchy of {} vertices built with {} edges over {} arcs, "
+                + "elimination tree depth {}", n, m, graph.getArcCount(), depth);
+    }
+
+    public int getVertexCount() {
+        return n;
+    }
+
+    public int getEdgeCount() {
+        return edgeTails.length;
+    }
+
+    /**
+     * @return the number of elimination tree levels, i.e. of sequential customization steps
+     */
+    public int getDepth() {
+        return levelOffsets.length - 1;
+    }
+
+    /**
+     * Customizes the hierarchy for a weight of the edges, evaluated once per arc.
+     *
+     * @param parallelism number of threads; {@code 0} or less means all available processors
+     */
+    public CustomizedMetric<V, E> customize(ToDoubleFunction<? super E> weight, int parallelism) {
+        double[] weights = new double[graph.getArcCount()];
+        for (int arc = 0; arc < weights.length; arc++) {
+            weights[arc] = weight.applyAsDouble(graph.edge(arc));
+        }
+        return customize(weights, parallelism);
+    }
+
+    /**
+     * Customizes the hierarchy for the given weight of every {@link CompactGraph} arc.
+     * <p>
+     * Every edge starts with the lightest arc it stands for, if any, then takes the lightest path through each of its
+     * lower triangles {@code {x, low, high}}, whose two other edges are final since {@code x} is on a lower level.
+     *
+     * @param parallelism number of threads; {@code 0} or less means all available processors
+     */
+    public CustomizedMetric<V, E> customize(double[] arcWeights, int parallelism) {
+        int m = getEdgeCount();
+        double[] up = new double[m];
+        double[] down = new double[m];
+        int[] upArcs = new int[m];
+        int[] downArcs = new int[m];
+        int[] upVia = new int[m];
+        int[] downVia = new int[m];
+        Arrays.fill(up, Double.POSITIVE_INFINITY);
+        Arrays.fill(down, Double.POSITIVE_INFINITY);
+        Arrays.fill(upArcs, ContractionHierarchy.NO_ARC);
+        Arrays.fill(downArcs, ContractionHierarchy.NO_ARC);
+        Arrays.fill(upVia, NO_VERTEX);
+        Arrays.fill(downVia, NO_VERTEX);
+        for (int arc = 0; arc < arcEdges.length; arc++) {
+            int edge = arcEdges[arc];
+            if (edge == NO_VERTEX) {
+                continue;
+            }
+            if (arcUpward[arc] && arcWeights[arc] < up[edge]) {
+                up[edge] = arcWeights[arc];
+                upArcs[edge] = arc;
+            } else if (!arcUpward[arc] && arcWeights[arc] < down[edge]) {
+                down[edge] = arcWeights[arc];
+                downArcs[edge] = arc;
+            }
+        }
+
+        CustomizedMetric<V, E> metric = new CustomizedMetric<>(this, up, down, upArcs, downArcs, upVia, downVia);
+        ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        try {
+            for (int level = 0; level < getDepth(); level++) {
+                int from = levelOffsets[level];
+                int to = levelOffsets[level + 1];
+                if (to - from <= MIN_TASK_VERTICES) {
+                    for (int i = from; i < to; i++) {
+                        customize(levelVertices[i], metric);
+                    }
+                } else {
+                    pool.invoke(new LevelRange(metric, from, to));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return metric;
+    }
+
+    /**
+     * Relaxes the edges of {@code low} to its upward neighbours through every lower triangle; only writes the edges of
+     * {@code low}.
+     */
+    private void customize(int low, CustomizedMetric<V, E> metric) {
+        double[] up = metric.up;
+        double[] down = metric.down;
+        int last = upOffsets[low + 1];
+        for (int i = downOffsets[low]; i < downOffsets[low + 1]; i++) {
+            // x -> low and low -> x
+            int lower = downEdges[i];
+            int x = edgeTails[lower];
+            int edge = upOffsets[low];
+            // the upward neighbours of x above low are all upward neighbours of low: merge both sorted lists
+            for (int side = lower + 1; side < upOffsets[x + 1]; side++) {
+                int high = edgeHeads[side];
+                while (edge < last && edgeHeads[edge] < high) {
+                    edge++;
+                }
+                if (edge == last || edgeHeads[edge] != high) {
+                    // not chordal, cannot happen
+                    throw new IllegalStateException("Missing edge " + low + " -> " + high);
+                }
+                double viaUp = down[lower] + up[side];
+                if (viaUp < up[edge]) {
+                    up[edge] = viaUp;
+                    metric.upArcs[edge] = ContractionHierarchy.NO_ARC;
+                    metric.upVia[edge] = x;
+                }
+                double viaDown = down[side] + up[lower];
+                if (viaDown < down[edge]) {
+                    down[edge] = viaDown;
+                    metric.downArcs[edge] = ContractionHierarchy.NO_ARC;
+                    metric.downVia[edge] = x;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the edge between two ranks, {@code low < high}, {@link #NO_VERTEX} if they are not adjacent
+     */
+    int edge(int low, int high) {
+        int edge = Arrays.binarySearch(edgeHeads, upOffsets[low], upOffsets[low + 1], high);
+        return edge < 0 ? NO_VERTEX : edge;
+    }
+
+    /**
+     * Customizes the vertices {@code [from, to)} of {@link #levelVertices}, all on the same level.
+     */
+    private class LevelRange extends RecursiveAction {
+        private final CustomizedMetric<V, E> metric;
+        private final int from;
+        private final int to;
+
+        LevelRange(CustomizedMetric<V, E> metric, int from, int to) {
+            this.metric = metric;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MIN_TASK_VERTICES) {
+                for (int i = from; i < to; i++) {
+                    customize(levelVertices[i], metric);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new LevelRange(metric, from, middle), new LevelRange(metric, middle, to));
+            }
+        }
+    }
+}
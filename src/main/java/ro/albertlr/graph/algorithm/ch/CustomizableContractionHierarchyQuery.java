@@ -0,0 +1,172 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.ch;
+
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import ro.albertlr.graph.algorithm.CompactGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Point-to-point queries on a {@link CustomizedMetric} by elimination tree search: every upward neighbour of a vertex
+ * is one of its ancestors, so the forward search from the source relaxes the upward edges of the source and of its
+ * ancestors, bottom up, and the backward search does the same from the target over the downward weights. No priority
+ * queue is needed; the shortest path meets at a common ancestor.
+ *
+ * @param <V> Vertices type
+ * @param <E> Edge type
+ */
+public class CustomizableContractionHierarchyQuery<V, E> {
+    private final CustomizedMetric<V, E> metric;
+    private final CustomizableContractionHierarchy<V, E> hierarchy;
+
+    // by rank
+    private final double[] forward;
+    private final double[] backward;
+    private final int[] forwardEdges;
+    private final int[] backwardEdges;
+
+    // starts of the last searches, whose ancestors are reset by the next one
+    private int lastSource = CustomizableContractionHierarchy.NO_VERTEX;
+    private int lastTarget = CustomizableContractionHierarchy.NO_VERTEX;
+    private int meeting;
+
+    public CustomizableContractionHierarchyQuery(CustomizedMetric<V, E> metric) {
+        this.metric = metric;
+        this.hierarchy = metric.getHierarchy();
+        int n = hierarchy.getVertexCount();
+        this.forward = new double[n];
+        this.backward = new double[n];
+        this.forwardEdges = new int[n];
+        this.backwardEdges = new int[n];
+        Arrays.fill(forward, Double.POSITIVE_INFINITY);
+        Arrays.fill(backward, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * @return the shortest path distance between the two vertex ids, or {@link Double#POSITIVE_INFINITY} if the target
+     * cannot be reached
+     */
+    public double distance(int source, int target) {
+        int s = hierarchy.ranks[source];
+        int t = hierarchy.ranks[target];
+        reset(lastSource, forward);
+        reset(lastTarget, backward);
+        lastSource = s;
+        lastTarget = t;
+        search(s, forward, forwardEdges, metric.up);
+        search(t, backward, backwardEdges, metric.down);
+
+        double best = Double.POSITIVE_INFINITY;
+        meeting = CustomizableContractionHierarchy.NO_VERTEX;
+        for (int v = s; v != CustomizableContractionHierarchy.NO_VERTEX; v = hierarchy.parents[v]) {
+            if (forward[v] + backward[v] < best) {
+                best = forward[v] + backward[v];
+                meeting = v;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return the arcs of the {@link CompactGraph} on a shortest path between the two vertex ids, empty if there is
+     * none or the source is the target
+     */
+    public IntArrayList arcs(int source, int target) {
+        IntArrayList path = new IntArrayList();
+        if (Double.isInfinite(distance(source, target))) {
+            return path;
+        }
+        int s = hierarchy.ranks[source];
+        int t = hierarchy.ranks[target];
+
+        IntArrayList edges = new IntArrayList();
+        for (int v = meeting; v != s; v = hierarchy.edgeTails[forwardEdges[v]]) {
+            edges.add(forwardEdges[v]);
+        }
+        IntArrayList stack = new IntArrayList();
+        for (int i = edges.size() - 1; i >= 0; i--) {
+            metric.unpack(edges.get(i), true, path, stack);
+        }
+        for (int v = meeting; v != t; v = hierarchy.edgeTails[backwardEdges[v]]) {
+            metric.unpack(backwardEdges[v], false, path, stack);
+        }
+        return path;
+    }
+
+    /**
+     * Returns the path from source to destination, in the same form as {@link ro.albertlr.graph.algorithm.Paths#path}:
+     * the vertices from source to destination, empty if there is no path.
+     */
+    public Collection<V> path(V source, V destination) {
+        CompactGraph<V, E> graph = hierarchy.getGraph();
+        int s = graph.id(source);
+        int t = graph.id(destination);
+
+        List<V> path = new ArrayList<>();
+        if (s == t) {
+            path.add(source);
+            return path;
+        }
+        IntArrayList arcs = arcs(s, t);
+        if (arcs.isEmpty()) {
+            return path;
+        }
+        path.add(source);
+        for (int i = 0; i < arcs.size(); i++) {
+            path.add(graph.vertex(graph.target(arcs.get(i))));
+        }
+        return path;
+    }
+
+    private void reset(int start, double[] distances) {
+        for (int v = start; v != CustomizableContractionHierarchy.NO_VERTEX; v = hierarchy.parents[v]) {
+            distances[v] = Double.POSITIVE_INFINITY;
+        }
+    }
+
+    /**
+     * Distances from (or to) a rank to all its ancestors, relaxing the edges of every ancestor in turn; only the
+     * ancestors are reached.
+     */
+    private void search(int start, double[] distances, int[] edges, double[] weights) {
+        int[] parents = hierarchy.parents;
+        int[] upOffsets = hierarchy.upOffsets;
+        int[] edgeHeads = hierarchy.edgeHeads;
+        distances[start] = 0;
+        for (int v = start; v != CustomizableContractionHierarchy.NO_VERTEX; v = parents[v]) {
+            double distanceV = distances[v];
+            if (distanceV == Double.POSITIVE_INFINITY) {
+                continue;
+            }
+            for (int edge = upOffsets[v]; edge < upOffsets[v + 1]; edge++) {
+                int x = edgeHeads[edge];
+                double distanceX = distanceV + weights[edge];
+                if (distanceX < distances[x]) {
+                    distances[x] = distanceX;
+                    edges[x] = edge;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.ch;
+
+import lombok.Getter;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+
+/**
+ * Weights of the edges of a {@link CustomizableContractionHierarchy} for one metric, in both directions, with what
+ * every weight stands for: an arc of the {@link ro.albertlr.graph.algorithm.CompactGraph} or a path through a lower
+ * vertex. Several metrics of the same hierarchy can be kept and queried side by side.
+ * <p>
+ * Immutable once customized; queries create their own {@link CustomizableContractionHierarchyQuery}.
+ *
+ * @param <V> Vertices type
+ * @param <E> Edge type
+ */
+public class CustomizedMetric<V, E> {
+    @Getter
+    private final CustomizableContractionHierarchy<V, E> hierarchy;
+
+    // low -> high and high -> low weight of every edge
+    final double[] up;
+    final double[] down;
+    /**
+     * Arc an edge weight comes from, {@link ContractionHierarchy#NO_ARC} if it is a path through a lower vertex.
+     */
+    final int[] upArcs;
+    final int[] downArcs;
+    /**
+     * Lower vertex (rank) an edge weight is a path through, {@link CustomizableContractionHierarchy#NO_VERTEX} if it
+     * is an arc.
+     */
+    final int[] upVia;
+    final int[] downVia;
+
+    CustomizedMetric(CustomizableContractionHierarchy<V, E> hierarchy, double[] up, double[] down,
+                     int[] upArcs, int[] downArcs, int[] upVia, int[] downVia) {
+        this.hierarchy = hierarchy;
+        this.up = up;
+        this.down = down;
+        this.upArcs = upArcs;
+        this.downArcs = downArcs;
+        this.upVia = upVia;
+        this.downVia = downVia;
+    }
+
+    /**
+     * Appends to {@code path} the {@link ro.albertlr.graph.algorithm.CompactGraph} arcs an edge stands for in the given
+     * direction, in path order.
+     *
+     * @param upward {@code true} for {@code low -> high}, {@code false} for {@code high -> low}
+     * @param stack  scratch list, cleared before use; holds edges, the downward ones as {@code -edge - 1}
+     */
+    public void unpack(int edge, boolean upward, IntArrayList path, IntArrayList stack) {
+        stack.clear();
+        stack.add(upward ? edge : -edge - 1);
+        while (stack.notEmpty()) {
+            int current = stack.removeAtIndex(stack.size() - 1);
+            boolean currentUp = current >= 0;
+            int e = currentUp ? current : -current - 1;
+            int arc = currentUp ? upArcs[e] : downArcs[e];
+            if (arc != ContractionHierarchy.NO_ARC) {
+                path.add(arc);
+                continue;
+            }
+            int x = currentUp ? upVia[e] : downVia[e];
+            int low = hierarchy.edgeTails[e];
+            int high = hierarchy.edgeHeads[e];
+            int lowEdge = hierarchy.edge(x, low);
+            int highEdge = hierarchy.edge(x, high);
+            // low -> x -> high goes down then up, high -> x -> low the other way; second half pushed first
+            if (currentUp) {
+                stack.add(highEdge);
+                stack.add(-lowEdge - 1);
+            } else {
+                stack.add(lowEdge);
+                stack.add(-highEdge - 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.ch;
+
+import org.eclipse.collections.impl.list.mutable.primitive.DoubleArrayList;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import ro.albertlr.graph.algorithm.CompactGraph;
+import ro.albertlr.graph.algorithm.queue.IndexedPriorityQueue;
+import ro.albertlr.graph.algorithm.queue.PriorityQueueType;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Many-to-many distances on a {@link ContractionHierarchy}, computed with backward search buckets.
+ * <p>
+ * Every target runs a backward search on the downward graph and leaves a {@code (target, distance)} entry in the bucket
+ * of every vertex it settles. Every source then runs a forward search on the upward graph and, at every vertex it
+ * settles, scans the bucket: a shortest path always meets a target's backward search at its highest ranked vertex, so
+ * the minimum over the buckets is the distance. Both searches only see the (small) search spaces of the hierarchy, so
+ * the whole table costs {@code |S| + |T|} hierarchy searches instead of {@code |S|} one-to-all searches.
+ *
+ * @param <V> Vertices type
+ * @param <E> Edge type
+ */
+public class ManyToManySearch<V, E> {
+    private final ContractionHierarchy<V, E> hierarchy;
+
+    private final double[] distances;
+    private final int[] generations;
+    private final IndexedPriorityQueue queue;
+    private int generation;
+
+    // vertices settled by the last search and their distances
+    private final IntArrayList settled = new IntArrayList();
+    private final DoubleArrayList settledDistances = new DoubleArrayList();
+
+    public ManyToManySearch(ContractionHierarchy<V, E> hierarchy) {
+        int n = hierarchy.getVertexCount();
+        this.hierarchy = hierarchy;
+        this.distances = new double[n];
+        this.generations = new int[n];
+        this.queue = PriorityQueueType.BINARY_HEAP.create(n);
+    }
+
+    /**
+     * @return the {@code sources.length x targets.length} distance table between the given vertex ids, with
+     * {@link Double#POSITIVE_INFINITY} for unreachable pairs
+     */
+    public double[][] distances(int[] sources, int[] targets) {
+        int n = hierarchy.getVertexCount();
+
+        // backward phase: collect the bucket entries, then group them by vertex
+        IntArrayList entryVertices = new IntArrayList();
+        IntArrayList entryTargets = new IntArrayList();
+        DoubleArrayList entryDistances = new DoubleArrayList();
+        for (int j = 0; j < targets.length; j++) {
+            search(targets[j], false);
+            for (int i = 0; i < settled.size(); i++) {
+                entryVertices.add(settled.get(i));
+                entryTargets.add(j);
+                entryDistances.add(settledDistances.get(i));
+            }
+        }
+
+        int[] bucketOffsets = new int[n + 1];
+        for (int i = 0; i < entryVertices.size(); i++) {
+            bucketOffsets[entryVertices.get(i) + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            bucketOffsets[v + 1] += bucketOffsets[v];
+        }
+        int[] bucketTargets = new int[entryVertices.size()];
+        double[] bucketDistances = new double[entryVertices.size()];
+        int[] fill = Arrays.copyOf(bucketOffsets, n);
+        for (int i = 0; i < entryVertices.size(); i++) {
+            int k = fill[entryVertices.get(i)]++;
+            bucketTargets[k] = entryTargets.get(i);
+            bucketDistances[k] = entryDistances.get(i);
+        }
+
+        // forward phase: scan the buckets of the settled vertices
+        double[][] table = new double[sources.length][targets.length];
+        for (int i = 0; i < sources.length; i++) {
+            double[] row = table[i];
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+            search(sources[i], true);
+            for (int s = 0; s < settled.size(); s++) {
+                int v = settled.get(s);
+                double distanceV = settledDistances.get(s);
+                for (int k = bucketOffsets[v], last = bucketOffsets[v + 1]; k < last; k++) {
+                    double distance = distanceV + bucketDistances[k];
+                    if (distance < row[bucketTargets[k]]) {
+                        row[bucketTargets[k]] = distance;
+                    }
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Same as {@link #distances(int[], int[])}, addressing the vertices of the {@link CompactGraph} the hierarchy was
+     * built from; rows follow the order of {@code sources} and columns the order of {@code targets}.
+     */
+    public double[][] distances(List<V> sources, List<V> targets) {
+        return distances(ids(sources), ids(targets));
+    }
+
+    private int[] ids(List<V> vertices) {
+        CompactGraph<V, E> graph = hierarchy.getGraph();
+        int[] ids = new int[vertices.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = graph.id(vertices.get(i));
+            if (ids[i] < 0) {
+                throw new IllegalArgumentException("Unknown vertex " + vertices.get(i));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Runs a complete search on the upward ({@code forward}) or downward graph, leaving the settled vertices and their
+     * distances in {@link #settled} and {@link #settledDistances}.
+     */
+    private void search(int start, boolean forward) {
+        if (++generation == 0) {
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
+        settled.clear();
+        settledDistances.clear();
+        queue.clear();
+
+        int[] offsets = forward ? hierarchy.upOffsets : hierarchy.downOffsets;
+        int[] arcs = forward ? hierarchy.upArcs : hierarchy.downArcs;
+        int[] ends = forward ? hierarchy.arcHeads : hierarchy.arcTails;
+
+        generations[start] = generation;
+        distances[start] = 0;
+        queue.insert(start, 0);
+        while (!queue.isEmpty()) {
+            int u = queue.deleteMin();
+            double distanceU = distances[u];
+            settled.add(u);
+            settledDistances.add(distanceU);
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int arc = arcs[i];
+                int x = ends[arc];
+                double distanceX = distanceU + hierarchy.arcWeights[arc];
+                if (generations[x] != generation) {
+                    generations[x] = generation;
+                    distances[x] = distanceX;
+                    queue.insert(x, distanceX);
+                } else if (distanceX < distances[x]) {
+                    distances[x] = distanceX;
+                    queue.decreaseKey(x, distanceX);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.ch;
+
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import ro.albertlr.graph.algorithm.CompactGraph;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Metric independent contraction order of a {@link CompactGraph} by nested dissection: a small separator splits the
+ * (undirected) graph in two, the separator gets the highest ranks and both sides are ordered recursively below it.
+ * Vertices of different sides are never adjacent, so contracting them adds no shortcut between the sides, whatever the
+ * weights.
+ * <p>
+ * Separators are levels of a breadth-first search from a pseudo-peripheral vertex: among the levels leaving at least a
+ * third of the vertices on each side, the smallest one is taken. Disconnected parts are ordered independently and
+ * parts of at most {@code leafSize} vertices are not split any further.
+ */
+@Slf4j
+public class NestedDissection {
+    private static final int DEFAULT_LEAF_SIZE = 16;
+
+    private final int n;
+    private final int leafSize;
+
+    // undirected adjacency, without loops
+    private final int[] offsets;
+    private final int[] neighbours;
+
+    // search buffers; a vertex belongs to the part being split when its stamp is the current one
+    private final int[] stamps;
+    private int stamp;
+    private final int[] levels;
+    private final int[] queue;
+
+    /**
+     * @param leafSize parts up to this many vertices are not split; {@code 0} means the default of 16
+     */
+    @Builder
+    protected NestedDissection(CompactGraph<?, ?> graph, int leafSize) {
+        this.n = graph.getVertexCount();
+        this.leafSize = leafSize > 0 ? leafSize : DEFAULT_LEAF_SIZE;
+
+        this.offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            for (int arc = graph.firstArc(u); arc < graph.endArc(u); arc++) {
+                int v = graph.target(arc);
+                if (u != v) {
+                    offsets[u + 1]++;
+                    offsets[v + 1]++;
+                }
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        this.neighbours = new int[offsets[n]];
+        int[] next = Arrays.copyOf(offsets, n);
+        for (int u = 0; u < n; u++) {
+            for (int arc = graph.firstArc(u); arc < graph.endArc(u); arc++) {
+                int v = graph.target(arc);
+                if (u != v) {
+                    neighbours[next[u]++] = v;
+                    neighbours[next[v]++] = u;
+                }
+            }
+        }
+
+        this.stamps = new int[n];
+        this.levels = new int[n];
+        this.queue = new int[n];
+    }
+
+    /**
+     * @return the rank of every vertex id, a permutation of {@code [0, vertexCount)}
+     */
+    public int[] ranks() {
+        int[] ranks = new int[n];
+        int[] all = new int[n];
+        for (int v = 0; v < n; v++) {
+            all[v] = v;
+        }
+        Deque<Part> parts = new ArrayDeque<>();
+        parts.push(new Part(all, n));
+        int separators = 0;
+        while (!parts.isEmpty()) {
+            Part part = parts.pop();
+            separators += split(part, ranks, parts);
+        }
+        log.info("nested dissection of {} vertices done, {} of them in separators", n, separators);
+        return ranks;
+    }
+
+    /**
+     * Ranks the separator of the part and queues its sides, or ranks the whole part when it is a leaf.
+     *
+     * @return number of vertices put in a separator
+     */
+    private int split(Part part, int[] ranks, Deque<Part> parts) {
+        int[] vertices = part.vertices;
+        int low = part.high - vertices.length;
+        if (vertices.length <= leafSize) {
+            rank(vertices, low, ranks);
+            return 0;
+        }
+
+        nextStamp();
+        for (int v : vertices) {
+            stamps[v] = stamp;
+        }
+        int reached = bfs(vertices[0]);
+        if (reached < vertices.length) {
+            // disconnected: every component is a part of its own
+            int first = low;
+            nextStamp();
+            for (int v : vertices) {
+                stamps[v] = stamp;
+            }
+            for (int v : vertices) {
+                if (stamps[v] == stamp) {
+                    int size = bfs(v);
+                    int[] component = Arrays.copyOf(queue, size);
+                    parts.push(new Part(component, first + size));
+                    first += size;
+                }
+            }
+            return 0;
+        }
+
+        // the last vertex reached is far from the start; levels from it are long and thin
+        int peripheral = queue[reached - 1];
+        nextStamp();
+        for (int v : vertices) {
+            stamps[v] = stamp;
+        }
+        bfs(peripheral);
+        int depth = levels[queue[reached - 1]] + 1;
+        int[] levelSizes = new int[depth];
+        for (int v : vertices) {
+            levelSizes[levels[v]]++;
+        }
+
+        int separatorLevel = -1;
+        int below = 0;
+        int fallback = -1;
+        for (int level = 1; level < depth - 1; level++) {
+            below += levelSizes[level - 1];
+            int above = vertices.length - below - levelSizes[level];
+            if (fallback < 0 && below + levelSizes[level] >= vertices.length / 2) {
+                fallback = level;
+            }
+            if (3 * below >= vertices.length && 3 * above >= vertices.length
+                    && (separatorLevel < 0 || levelSizes[level] < levelSizes[separatorLevel])) {
+                separatorLevel = level;
+            }
+        }
+        if (separatorLevel < 0) {
+            separatorLevel = fallback;
+        }
+        if (separatorLevel < 0) {
+            // too shallow to split, e.g. a star
+            rank(vertices, low, ranks);
+            return 0;
+        }
+
+        int sizeA = 0;
+        int sizeS = levelSizes[separatorLevel];
+        for (int level = 0; level < separatorLevel; level++) {
+            sizeA += levelSizes[level];
+        }
+        int[] sideA = new int[sizeA];
+        int[] sideB = new int[vertices.length - sizeA - sizeS];
+        int[] separator = new int[sizeS];
+        int a = 0;
+        int b = 0;
+        int s = 0;
+        for (int v : vertices) {
+            if (levels[v] < separatorLevel) {
+                sideA[a++] = v;
+            } else if (levels[v] > separatorLevel) {
+                sideB[b++] = v;
+            } else {
+                separator[s++] = v;
+            }
+        }
+        rank(separator, part.high - sizeS, ranks);
+        parts.push(new Part(sideA, low + sizeA));
+        parts.push(new Part(sideB, part.high - sizeS));
+        return sizeS;
+    }
+
+    /**
+     * Breadth-first search over the vertices with the current stamp, which it clears; fills {@link #queue} in visiting
+     * order and {@link #levels}.
+     *
+     * @return the number of vertices reached
+     */
+    private int bfs(int start) {
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        stamps[start] = 0;
+        levels[start] = 0;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int v = neighbours[i];
+                if (stamps[v] == stamp) {
+                    stamps[v] = 0;
+                    levels[v] = levels[u] + 1;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return tail;
+    }
+
+    private void nextStamp() {
+        if (++stamp == 0) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+    }
+
+    private static void rank(int[] vertices, int firstRank, int[] ranks) {
+        for (int i = 0; i < vertices.length; i++) {
+            ranks[vertices[i]] = firstRank + i;
+        }
+    }
+
+    /**
+     * Vertices to order, taking the ranks {@code [high - vertices.length, high)}.
+     */
+    private static class Part {
+        private final int[] vertices;
+        private final int high;
+
+        Part(int[] vertices, int high) {
+            this.vertices = vertices;
+            this.high = high;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.ch;
+
+import lombok.Getter;
+import ro.albertlr.graph.algorithm.OneToAllSearch;
+import ro.albertlr.graph.algorithm.queue.IndexedPriorityQueue;
+import ro.albertlr.graph.algorithm.queue.PriorityQueueType;
+
+import java.util.Arrays;
+
+/**
+ * PHAST (hardware-accelerated shortest path trees) one-to-all searches on a {@link ContractionHierarchy}.
+ * <p>
+ * A search runs Dijkstra on the upward graph from the source, then a single linear sweep over all the vertices in
+ * decreasing rank, where every vertex pulls its distance through its incoming downward arcs (which all come from higher
+ * ranked, already final, vertices). Vertices are renumbered by sweep position and the downward arcs are stored grouped
+ * by head in sweep order, so the sweep reads the arc arrays strictly sequentially and the distance array almost so.
+ * <p>
+ * The structure is immutable and shared; every thread gets its own {@link #newSearch() search}.
+ *
+ * @param <V> Vertices type
+ * @param <E> Edge type
+ */
+public class Phast<V, E> {
+    @Getter
+    private final ContractionHierarchy<V, E> hierarchy;
+    private final int n;
+
+    /**
+     * Vertex id at every sweep position (highest rank first) and the reverse mapping.
+     */
+    private final int[] sweepVertices;
+    private final int[] sweepPositions;
+
+    // upward graph, by sweep position
+    private final int[] upOffsets;
+    private final int[] upHeads;
+    private final double[] upWeights;
+    private final int[] upArcs;
+
+    // incoming downward arcs of every sweep position, tails as sweep positions
+    private final int[] downOffsets;
+    private final int[] downTails;
+    private final double[] downWeights;
+    private final int[] downArcs;
+
+    /**
+     * Tail of the last original arc a hierarchy arc unpacks to, i.e. the predecessor of its head in the original graph.
+     */
+    private final int[] lastTails;
+
+    public Phast(ContractionHierarchy<V, E> hierarchy) {
+        this.hierarchy = hierarchy;
+        this.n = hierarchy.getVertexCount();
+
+        sweepVertices = new int[n];
+        sweepPositions = new int[n];
+        for (int v = 0; v < n; v++) {
+            int position = n - 1 - hierarchy.rank(v);
+            sweepVertices[position] = v;
+            sweepPositions[v] = position;
+        }
+
+        upOffsets = new int[n + 1];
+        downOffsets = new int[n + 1];
+        for (int position = 0; position < n; position++) {
+            int v = sweepVertices[position];
+            upOffsets[position + 1] = upOffsets[position] + hierarchy.upOffsets[v + 1] - hierarchy.upOffsets[v];
+            downOffsets[position + 1] = downOffsets[position] + hierarchy.downOffsets[v + 1] - hierarchy.downOffsets[v];
+        }
+
+        upHeads = new int[upOffsets[n]];
+        upWeights = new double[upOffsets[n]];
+        upArcs = new int[upOffsets[n]];
+        downTails = new int[downOffsets[n]];
+        downWeights = new double[downOffsets[n]];
+        downArcs = new int[downOffsets[n]];
+        for (int position = 0; position < n; position++) {
+            int v = sweepVertices[position];
+            int k = upOffsets[position];
+            for (int i = hierarchy.upOffsets[v]; i < hierarchy.upOffsets[v + 1]; i++, k++) {
+                int arc = hierarchy.upArcs[i];
+                upHeads[k] = sweepPositions[hierarchy.arcHeads[arc]];
+                upWeights[k] = hierarchy.arcWeights[arc];
+                upArcs[k] = arc;
+            }
+            k = downOffsets[position];
+            for (int i = hierarchy.downOffsets[v]; i < hierarchy.downOffsets[v + 1]; i++, k++) {
+                int arc = hierarchy.downArcs[i];
+                downTails[k] = sweepPositions[hierarchy.arcTails[arc]];
+                downWeights[k] = hierarchy.arcWeights[arc];
+                downArcs[k] = arc;
+            }
+        }
+
+        // a shortcut is always created after the two arcs it replaces, so its second half is already resolved
+        lastTails = new int[hierarchy.getArcCount()];
+        for (int arc = 0; arc < lastTails.length; arc++) {
+            lastTails[arc] = hierarchy.isShortcut(arc)
+                    ? lastTails[hierarchy.arcSecond[arc]]
+                    : hierarchy.arcTails[arc];
+        }
+    }
+
+    public PhastSearch newSearch() {
+        return new PhastSearch();
+    }
+
+    /**
+     * Buffers of one thread; distances and predecessors are reported by vertex id.
+     */
+    public class PhastSearch implements OneToAllSearch {
+        private final double[] sweepDistances = new double[n];
+        private final int[] sweepParents = new int[n];
+        private final IndexedPriorityQueue queue = PriorityQueueType.BINARY_HEAP.create(n);
+
+        private final double[] distances = new double[n];
+        private final int[] predecessors = new int[n];
+
+        private PhastSearch() {
+        }
+
+        @Override
+        public void search(int source) {
+            Arrays.fill(sweepDistances, Double.POSITIVE_INFINITY);
+            Arrays.fill(sweepParents, ContractionHierarchy.NO_ARC);
+
+            // upward search
+            int start = sweepPositions[source];
+            sweepDistances[start] = 0;
+            queue.clear();
+            queue.insert(start, 0);
+            while (!queue.isEmpty()) {
+                int u = queue.deleteMin();
+                double distanceU = sweepDistances[u];
+                for (int k = upOffsets[u], last = upOffsets[u + 1]; k < last; k++) {
+                    int x = upHeads[k];
+                    double distanceX = distanceU + upWeights[k];
+                    if (distanceX < sweepDistances[x]) {
+                        sweepDistances[x] = distanceX;
+                        sweepParents[x] = upArcs[k];
+                        queue.insertOrDecrease(x, distanceX);
+                    }
+                }
+            }
+
+            // downward sweep, from the highest rank to the lowest
+            for (int v = 0; v < n; v++) {
+                double distanceV = sweepDistances[v];
+                int parent = sweepParents[v];
+                for (int k = downOffsets[v], last = downOffsets[v + 1]; k < last; k++) {
+                    double distance = sweepDistances[downTails[k]] + downWeights[k];
+                    if (distance < distanceV) {
+                        distanceV = distance;
+                        parent = downArcs[k];
+                    }
+                }
+                sweepDistances[v] = distanceV;
+                sweepParents[v] = parent;
+            }
+
+            for (int v = 0; v < n; v++) {
+                int position = sweepPositions[v];
+                distances[v] = sweepDistances[position];
+                int parent = sweepParents[position];
+                predecessors[v] = parent == ContractionHierarchy.NO_ARC ? NO_PREDECESSOR : lastTails[parent];
+            }
+        }
+
+        @Override
+        public double[] getDistances() {
+            return distances;
+        }
+
+        @Override
+        public int[] getPredecessors() {
+            return predecessors;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.p2p;
+
+import ro.albertlr.graph.algorithm.CompactGraph;
+import ro.albertlr.graph.algorithm.OneToAllSearch;
+import ro.albertlr.graph.algorithm.queue.IndexedPriorityQueue;
+import ro.albertlr.graph.algorithm.queue.PriorityQueueType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A* point-to-point search guided by {@link Landmarks} lower bounds: a vertex is keyed by its distance from the source
+ * plus the lower bound of its distance to the target, and the search stops when the target is settled. Vertices a
+ * landmark proves cannot reach the target are never queued.
+ *
+ * @param <V> Vertices type
+ * @param <E> Edge type
+ */
+public class AltSearch<V, E> {
+    private final CompactGraph<V, E> graph;
+    private final Landmarks landmarks;
+
+    private final double[] distances;
+    private final int[] predecessors;
+    private final int[] generations;
+    private final IndexedPriorityQueue queue;
+    private int generation;
+
+    public AltSearch(CompactGraph<V, E> graph, Landmarks landmarks) {
+        int n = graph.getVertexCount();
+        this.graph = graph;
+        this.landmarks = landmarks;
+        this.distances = new double[n];
+        this.predecessors = new int[n];
+        this.generations = new int[n];
+        this.queue = PriorityQueueType.BINARY_HEAP.create(n);
+    }
+
+    /**
+     * @return the shortest path distance between the two vertex ids, or {@link Double#POSITIVE_INFINITY} if the target
+     * cannot be reached
+     */
+    public double distance(int source, int target) {
+        if (++generation == 0) {
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
+        queue.clear();
+
+        reach(source, 0, OneToAllSearch.NO_PREDECESSOR, target);
+        while (!queue.isEmpty()) {
+            int u = queue.deleteMin();
+            if (u == target) {
+                return distances[target];
+            }
+            double distanceU = distances[u];
+            for (int arc = graph.firstArc(u), end = graph.endArc(u); arc < end; arc++) {
+                reach(graph.target(arc), distanceU + graph.weight(arc), u, target);
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the path from source to destination, in the same form as {@link ro.albertlr.graph.algorithm.Paths#path}:
+     * the vertices from source to destination, empty if there is no path.
+     */
+    public Collection<V> path(V source, V destination) {
+        int s = graph.id(source);
+        int t = graph.id(destination);
+        List<V> path = new ArrayList<>();
+        if (Double.isInfinite(distance(s, t))) {
+            return path;
+        }
+        for (int v = t; v != OneToAllSearch.NO_PREDECESSOR; v = predecessors[v]) {
+            path.add(graph.vertex(v));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    private void reach(int v, double distance, int predecessor, int target) {
+        if (generations[v] != generation) {
+            double bound = landmarks.lowerBound(v, target);
+            if (bound == Double.POSITIVE_INFINITY) {
+                return;
+            }
+            generations[v] = generation;
+            distances[v] = distance;
+            predecessors[v] = predecessor;
+            queue.insert(v, distance + bound);
+        } else if (distance < distances[v] && queue.contains(v)) {
+            distances[v] = distance;
+            predecessors[v] = predecessor;
+            queue.decreaseKey(v, distance + landmarks.lowerBound(v, target));
+        }
+    }
+}
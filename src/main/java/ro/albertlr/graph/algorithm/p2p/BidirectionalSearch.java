@@ -0,0 +1,191 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.p2p;
+
+import ro.albertlr.graph.algorithm.CompactGraph;
+import ro.albertlr.graph.algorithm.OneToAllSearch;
+import ro.albertlr.graph.algorithm.queue.IndexedPriorityQueue;
+import ro.albertlr.graph.algorithm.queue.PriorityQueueType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bidirectional point-to-point search: a forward search from the source on the graph and a backward search from the
+ * target on its {@link CompactGraph#reverse() reverse}, alternating one vertex at a time. Every time a vertex gets
+ * labels from both sides the best path {@code mu} is updated; the search stops once the last keys taken from the two
+ * queues add up to {@code mu}.
+ * <p>
+ * Without landmarks this is bidirectional Dijkstra. With {@link Landmarks} it is bidirectional ALT using the average
+ * potential {@code p(v) = (lb(v, t) - lb(s, v)) / 2}: forward keys are {@code d(s, v) + p(v)} and backward keys
+ * {@code d(v, t) - p(v)}, which keeps both searches consistent so the same stopping rule holds. Vertices a landmark
+ * proves to be off every source-target path are never queued.
+ *
+ * @param <V> Vertices type
+ * @param <E> Edge type
+ */
+public class BidirectionalSearch<V, E> {
+    private static final int FORWARD = 0;
+    private static final int BACKWARD = 1;
+
+    private final CompactGraph<V, E> graph;
+    private final CompactGraph<V, E>[] directions;
+    private final Landmarks landmarks;
+
+    private final double[][] distances;
+    private final int[][] parents;
+    private final int[][] generations;
+    private final IndexedPriorityQueue[] queues;
+    private int generation;
+
+    private int source;
+    private int target;
+    private int meeting;
+
+    public BidirectionalSearch(CompactGraph<V, E> graph) {
+        this(graph, null);
+    }
+
+    /**
+     * @param landmarks lower bounds guiding the search; {@code null} means plain bidirectional Dijkstra
+     */
+    @SuppressWarnings("unchecked")
+    public BidirectionalSearch(CompactGraph<V, E> graph, Landmarks landmarks) {
+        int n = graph.getVertexCount();
+        this.graph = graph;
+        this.directions = new CompactGraph[]{graph, graph.reverse()};
+        this.landmarks = landmarks;
+        this.distances = new double[2][n];
+        this.parents = new int[2][n];
+        this.generations = new int[2][n];
+        this.queues = new IndexedPriorityQueue[]{
+                PriorityQueueType.BINARY_HEAP.create(n),
+                PriorityQueueType.BINARY_HEAP.create(n)
+        };
+    }
+
+    /**
+     * @return the shortest path distance between the two vertex ids, or {@link Double#POSITIVE_INFINITY} if the target
+     * cannot be reached
+     */
+    public double distance(int source, int target) {
+        if (++generation == 0) {
+            Arrays.fill(generations[FORWARD], 0);
+            Arrays.fill(generations[BACKWARD], 0);
+            generation = 1;
+        }
+        this.source = source;
+        this.target = target;
+        queues[FORWARD].clear();
+        queues[BACKWARD].clear();
+        meeting = -1;
+
+        double best = Double.POSITIVE_INFINITY;
+        best = reach(FORWARD, source, 0, OneToAllSearch.NO_PREDECESSOR, best);
+        best = reach(BACKWARD, target, 0, OneToAllSearch.NO_PREDECESSOR, best);
+
+        double[] lastKeys = {key(FORWARD, source, 0), key(BACKWARD, target, 0)};
+        int direction = BACKWARD;
+        while (!queues[FORWARD].isEmpty() && !queues[BACKWARD].isEmpty()
+                && lastKeys[FORWARD] + lastKeys[BACKWARD] < best) {
+            direction = 1 - direction;
+            int u = queues[direction].deleteMin();
+            double distanceU = distances[direction][u];
+            lastKeys[direction] = key(direction, u, distanceU);
+
+            CompactGraph<V, E> g = directions[direction];
+            for (int arc = g.firstArc(u), end = g.endArc(u); arc < end; arc++) {
+                best = reach(direction, g.target(arc), distanceU + g.weight(arc), u, best);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the path from source to destination, in the same form as {@link ro.albertlr.graph.algorithm.Paths#path}:
+     * the vertices from source to destination, empty if there is no path.
+     */
+    public Collection<V> path(V source, V destination) {
+        List<V> path = new ArrayList<>();
+        if (Double.isInfinite(distance(graph.id(source), graph.id(destination)))) {
+            return path;
+        }
+        for (int v = meeting; v != OneToAllSearch.NO_PREDECESSOR; v = parents[FORWARD][v]) {
+            path.add(graph.vertex(v));
+        }
+        Collections.reverse(path);
+        for (int v = parents[BACKWARD][meeting]; v != OneToAllSearch.NO_PREDECESSOR; v = parents[BACKWARD][v]) {
+            path.add(graph.vertex(v));
+        }
+        return path;
+    }
+
+    /**
+     * Forward potential of a vertex; {@link Double#NaN} if it cannot lie on a path from the source to the target.
+     */
+    private double potential(int v) {
+        if (landmarks == null) {
+            return 0;
+        }
+        double toTarget = landmarks.lowerBound(v, target);
+        double fromSource = landmarks.lowerBound(source, v);
+        if (toTarget == Double.POSITIVE_INFINITY || fromSource == Double.POSITIVE_INFINITY) {
+            return Double.NaN;
+        }
+        return (toTarget - fromSource) / 2;
+    }
+
+    private double key(int direction, int v, double distance) {
+        double potential = potential(v);
+        return direction == FORWARD ? distance + potential : distance - potential;
+    }
+
+    /**
+     * Offers a label to {@code v} and returns the updated best path length.
+     */
+    private double reach(int direction, int v, double distance, int parent, double best) {
+        if (generations[direction][v] != generation) {
+            double key = key(direction, v, distance);
+            if (Double.isNaN(key)) {
+                return best;
+            }
+            generations[direction][v] = generation;
+            distances[direction][v] = distance;
+            parents[direction][v] = parent;
+            queues[direction].insert(v, key);
+        } else if (distance < distances[direction][v] && queues[direction].contains(v)) {
+            distances[direction][v] = distance;
+            parents[direction][v] = parent;
+            queues[direction].decreaseKey(v, key(direction, v, distance));
+        } else {
+            return best;
+        }
+
+        int other = 1 - direction;
+        if (generations[other][v] == generation && distance + distances[other][v] < best) {
+            meeting = v;
+            return distance + distances[other][v];
+        }
+        return best;
+    }
+}
@@ -0,0 +1,35 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.p2p;
+
+/**
+ * How {@link Landmarks} are picked.
+ */
+public enum LandmarkSelection {
+    /**
+     * Every new landmark is the vertex farthest from the landmarks already chosen.
+     */
+    FARTHEST,
+    /**
+     * Every new landmark is a leaf of the shortest path tree of a random root, in the subtree whose distances are worst
+     * covered by the landmarks already chosen.
+     */
+    AVOID
+}
@@ -0,0 +1,233 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.p2p;
+
+import lombok.Builder;
+import lombok.Getter;
+import ro.albertlr.graph.algorithm.CompactDijkstra;
+import ro.albertlr.graph.algorithm.CompactGraph;
+import ro.albertlr.graph.algorithm.OneToAllSearch;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Landmark distance tables of the ALT algorithm (A*, landmarks and triangle inequality).
+ * <p>
+ * For every landmark {@code l} the distances {@code d(l, v)} and {@code d(v, l)} to and from every vertex are stored in
+ * two flat arrays, vertex major, so the bounds of one vertex are read from a single cache line. By the triangle
+ * inequality {@code d(l, t) - d(l, v)} and {@code d(v, l) - d(t, l)} are lower bounds of {@code d(v, t)}.
+ */
+public class Landmarks {
+    private static final int DEFAULT_COUNT = 16;
+
+    @Getter
+    private final CompactGraph<?, ?> graph;
+    private final int n;
+    @Getter
+    private final int count;
+    private final int[] landmarks;
+
+    // d(l, v) and d(v, l) at [v * count + l]
+    private final double[] fromLandmarks;
+    private final double[] toLandmarks;
+
+    /**
+     * @param count     number of landmarks; {@code 0} or less means 16
+     * @param selection how landmarks are picked; {@code null} means {@link LandmarkSelection#AVOID}
+     * @param seed      seed of the random roots used by the selection
+     */
+    @Builder
+    protected Landmarks(CompactGraph<?, ?> graph, int count, LandmarkSelection selection, long seed) {
+        this.graph = graph;
+        this.n = graph.getVertexCount();
+        this.count = Math.min(count > 0 ? count : DEFAULT_COUNT, n);
+        this.landmarks = new int[this.count];
+        this.fromLandmarks = new double[n * this.count];
+        this.toLandmarks = new double[n * this.count];
+
+        CompactDijkstra forward = new CompactDijkstra(graph);
+        CompactDijkstra backward = new CompactDijkstra(graph.reverse());
+        Random random = new Random(seed);
+        for (int i = 0; i < this.count; i++) {
+            int landmark = selection == LandmarkSelection.FARTHEST
+                    ? farthest(i, random, forward)
+                    : avoid(i, random, forward);
+            landmarks[i] = landmark;
+
+            forward.search(landmark);
+            backward.search(landmark);
+            double[] from = forward.getDistances();
+            double[] to = backward.getDistances();
+            for (int v = 0; v < n; v++) {
+                fromLandmarks[v * this.count + i] = from[v];
+                toLandmarks[v * this.count + i] = to[v];
+            }
+        }
+    }
+
+    public int landmark(int i) {
+        return landmarks[i];
+    }
+
+    /**
+     * @return a lower bound of the distance from {@code v} to {@code t}, {@link Double#POSITIVE_INFINITY} if a landmark
+     * proves {@code t} cannot be reached from {@code v}
+     */
+    public double lowerBound(int v, int t) {
+        return lowerBound(v, t, count);
+    }
+
+    private double lowerBound(int v, int t, int landmarkCount) {
+        double bound = 0;
+        int vRow = v * count;
+        int tRow = t * count;
+        for (int i = 0; i < landmarkCount; i++) {
+            // NaN (infinity minus infinity) means the landmark tells nothing and fails both comparisons
+            double viaFrom = fromLandmarks[tRow + i] - fromLandmarks[vRow + i];
+            if (viaFrom > bound) {
+                bound = viaFrom;
+            }
+            double viaTo = toLandmarks[vRow + i] - toLandmarks[tRow + i];
+            if (viaTo > bound) {
+                bound = viaTo;
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * The first landmark is the vertex farthest from a random root; every next one maximizes the distance from the
+     * closest landmark already chosen (vertices no landmark reaches come first).
+     */
+    private int farthest(int selected, Random random, OneToAllSearch forward) {
+        if (selected == 0) {
+            forward.search(random.nextInt(n));
+            return farthestVertex(forward.getDistances());
+        }
+        double[] closest = new double[n];
+        for (int v = 0; v < n; v++) {
+            double distance = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < selected; i++) {
+                distance = Math.min(distance, fromLandmarks[v * count + i]);
+            }
+            closest[v] = distance;
+        }
+        for (int i = 0; i < selected; i++) {
+            closest[landmarks[i]] = -1;
+        }
+        int best = 0;
+        for (int v = 1; v < n; v++) {
+            if (closest[v] > closest[best]) {
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    private static int farthestVertex(double[] distances) {
+        int best = 0;
+        for (int v = 0; v < distances.length; v++) {
+            if (distances[v] != Double.POSITIVE_INFINITY
+                    && (distances[best] == Double.POSITIVE_INFINITY || distances[v] > distances[best])) {
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Grows the shortest path tree of a random root and weighs every vertex by how much its distance is underestimated
+     * by the landmarks already chosen. Subtrees holding a landmark weigh nothing; the new landmark is the leaf reached by
+     * descending from the heaviest subtree into the heaviest child.
+     */
+    private int avoid(int selected, Random random, OneToAllSearch forward) {
+        int root = random.nextInt(n);
+        forward.search(root);
+        double[] distances = forward.getDistances();
+        int[] predecessors = forward.getPredecessors();
+
+        // children of every tree vertex, and the tree vertices parents first
+        int[] childOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            if (predecessors[v] != OneToAllSearch.NO_PREDECESSOR) {
+                childOffsets[predecessors[v] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            childOffsets[v + 1] += childOffsets[v];
+        }
+        int[] children = new int[childOffsets[n]];
+        int[] fill = Arrays.copyOf(childOffsets, n);
+        for (int v = 0; v < n; v++) {
+            if (predecessors[v] != OneToAllSearch.NO_PREDECESSOR) {
+                children[fill[predecessors[v]]++] = v;
+            }
+        }
+        int[] order = new int[n];
+        int size = 0;
+        order[size++] = root;
+        for (int head = 0; head < size; head++) {
+            int u = order[head];
+            for (int k = childOffsets[u]; k < childOffsets[u + 1]; k++) {
+                order[size++] = children[k];
+            }
+        }
+
+        boolean[] isLandmark = new boolean[n];
+        for (int i = 0; i < selected; i++) {
+            isLandmark[landmarks[i]] = true;
+        }
+        double[] weights = new double[n];
+        boolean[] covered = new boolean[n];
+        for (int position = size - 1; position >= 0; position--) {
+            int u = order[position];
+            double weight = distances[u] - lowerBound(root, u, selected);
+            boolean hasLandmark = isLandmark[u];
+            for (int k = childOffsets[u]; k < childOffsets[u + 1]; k++) {
+                weight += weights[children[k]];
+                hasLandmark |= covered[children[k]];
+            }
+            covered[u] = hasLandmark;
+            weights[u] = hasLandmark ? 0 : weight;
+        }
+
+        int best = root;
+        for (int position = 0; position < size; position++) {
+            if (weights[order[position]] > weights[best]) {
+                best = order[position];
+            }
+        }
+        if (weights[best] == 0) {
+            // the tree of this root is covered already, fall back to the farthest vertex
+            return farthest(selected, random, forward);
+        }
+        while (childOffsets[best] < childOffsets[best + 1]) {
+            int next = children[childOffsets[best]];
+            for (int k = childOffsets[best] + 1; k < childOffsets[best + 1]; k++) {
+                if (weights[children[k]] > weights[next]) {
+                    next = children[k];
+                }
+            }
+            best = next;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,145 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.queue;
+
+import java.util.Arrays;
+
+/**
+ * Base of the monotone integer priority queues: ids are kept in doubly linked bucket lists stored in arrays addressed
+ * by id, so moving an id between buckets is O(1) and does not allocate.
+ * <p>
+ * Keys must be non-negative integers and, as in Dijkstra's algorithm, no key smaller than the last extracted one may be
+ * inserted.
+ */
+abstract class BucketQueue implements IndexedPriorityQueue {
+    protected static final int NONE = -1;
+
+    protected final long[] keys;
+    private final int[] next;
+    private final int[] previous;
+    private final int[] bucketOf;
+    protected final int[] heads;
+
+    private int size;
+
+    protected BucketQueue(int capacity, int buckets) {
+        this.keys = new long[capacity];
+        this.next = new int[capacity];
+        this.previous = new int[capacity];
+        this.bucketOf = new int[capacity];
+        this.heads = new int[buckets];
+        Arrays.fill(bucketOf, NONE);
+        Arrays.fill(heads, NONE);
+    }
+
+    /**
+     * Bucket holding the given key, relative to the current state of the queue.
+     */
+    protected abstract int bucket(long key);
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return bucketOf[id] != NONE;
+    }
+
+    @Override
+    public double key(int id) {
+        return keys[id];
+    }
+
+    @Override
+    public void insert(int id, double key) {
+        keys[id] = toLong(key);
+        link(id, bucket(keys[id]));
+        size++;
+    }
+
+    @Override
+    public void decreaseKey(int id, double key) {
+        unlink(id);
+        keys[id] = toLong(key);
+        link(id, bucket(keys[id]));
+    }
+
+    @Override
+    public void clear() {
+        for (int bucket = 0; bucket < heads.length; bucket++) {
+            for (int id = heads[bucket]; id != NONE; id = next[id]) {
+                bucketOf[id] = NONE;
+            }
+            heads[bucket] = NONE;
+        }
+        size = 0;
+    }
+
+    protected int removeFirst(int bucket) {
+        int id = heads[bucket];
+        unlink(id);
+        size--;
+        return id;
+    }
+
+    protected int next(int id) {
+        return next[id];
+    }
+
+    protected void link(int id, int bucket) {
+        int head = heads[bucket];
+        next[id] = head;
+        previous[id] = NONE;
+        if (head != NONE) {
+            previous[head] = id;
+        }
+        heads[bucket] = id;
+        bucketOf[id] = bucket;
+    }
+
+    protected void unlink(int id) {
+        int before = previous[id];
+        int after = next[id];
+        if (before == NONE) {
+            heads[bucketOf[id]] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after != NONE) {
+            previous[after] = before;
+        }
+        bucketOf[id] = NONE;
+    }
+
+    private static long toLong(double key) {
+        long value = (long) key;
+        if (value != key || value < 0) {
+            throw new IllegalArgumentException("Key " + key + " is not a non-negative integer");
+        }
+        return value;
+    }
+}
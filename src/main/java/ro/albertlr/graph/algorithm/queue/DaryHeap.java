@@ -0,0 +1,148 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.queue;
+
+import java.util.Arrays;
+
+/**
+ * Indexed implicit d-ary min-heap.
+ * <p>
+ * Keys are kept next to the ids in heap order, so sifting compares keys without an indirection. A higher arity makes
+ * the heap shallower (cheaper decrease-key, which dominates on road networks) at the price of more comparisons per
+ * delete-min; 4 is usually the sweet spot.
+ */
+public class DaryHeap implements IndexedPriorityQueue {
+    private static final int ABSENT = -1;
+
+    private final int arity;
+
+    private final int[] heap;
+    private final double[] keys;
+    private final int[] positions;
+    private int size;
+
+    public DaryHeap(int capacity, int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Heap arity must be at least 2, but was " + arity);
+        }
+        this.arity = arity;
+        this.heap = new int[capacity];
+        this.keys = new double[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(positions, ABSENT);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return positions[id] != ABSENT;
+    }
+
+    @Override
+    public double key(int id) {
+        return keys[positions[id]];
+    }
+
+    @Override
+    public void insert(int id, double key) {
+        siftUp(size++, id, key);
+    }
+
+    @Override
+    public void decreaseKey(int id, double key) {
+        siftUp(positions[id], id, key);
+    }
+
+    @Override
+    public int deleteMin() {
+        int min = heap[0];
+        positions[min] = ABSENT;
+        if (--size > 0) {
+            siftDown(0, heap[size], keys[size]);
+        }
+        return min;
+    }
+
+    @Override
+    public void clear() {
+        for (int position = 0; position < size; position++) {
+            positions[heap[position]] = ABSENT;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int position, int id, double key) {
+        while (position > 0) {
+            int parent = (position - 1) / arity;
+            if (keys[parent] <= key) {
+                break;
+            }
+            move(parent, position);
+            position = parent;
+        }
+        place(position, id, key);
+    }
+
+    private void siftDown(int position, int id, double key) {
+        while (true) {
+            int first = position * arity + 1;
+            if (first >= size) {
+                break;
+            }
+            int last = Math.min(first + arity, size);
+            int child = first;
+            double childKey = keys[first];
+            for (int candidate = first + 1; candidate < last; candidate++) {
+                if (keys[candidate] < childKey) {
+                    child = candidate;
+                    childKey = keys[candidate];
+                }
+            }
+            if (key <= childKey) {
+                break;
+            }
+            move(child, position);
+            position = child;
+        }
+        place(position, id, key);
+    }
+
+    private void move(int from, int to) {
+        int id = heap[from];
+        heap[to] = id;
+        keys[to] = keys[from];
+        positions[id] = to;
+    }
+
+    private void place(int position, int id, double key) {
+        heap[position] = id;
+        keys[position] = key;
+        positions[id] = position;
+    }
+}
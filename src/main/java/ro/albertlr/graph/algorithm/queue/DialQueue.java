@@ -0,0 +1,64 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.queue;
+
+/**
+ * Dial's bucket queue: a circular array of {@code maxWeight + 1} buckets, one per integer key.
+ * <p>
+ * During Dijkstra every queued key lies in {@code [min, min + maxWeight]}, so {@code key % (maxWeight + 1)} addresses a
+ * distinct bucket and extraction only scans forward from the last extracted key. Best suited for small integer
+ * weights, since the scan is proportional to {@code maxWeight} in the worst case.
+ */
+public class DialQueue extends BucketQueue {
+    private final int span;
+    private long cursor;
+
+    /**
+     * @param maxWeight largest edge weight; keys may never exceed the last extracted key by more than this
+     */
+    public DialQueue(int capacity, int maxWeight) {
+        super(capacity, maxWeight + 1);
+        this.span = maxWeight + 1;
+    }
+
+    @Override
+    protected int bucket(long key) {
+        if (key < cursor || key - cursor >= span) {
+            throw new IllegalArgumentException("Key " + key + " is out of the range [" + cursor + ", " + (cursor + span) + ")");
+        }
+        return (int) (key % span);
+    }
+
+    @Override
+    public int deleteMin() {
+        int bucket = (int) (cursor % span);
+        while (heads[bucket] == NONE) {
+            cursor++;
+            bucket = bucket + 1 == span ? 0 : bucket + 1;
+        }
+        return removeFirst(bucket);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        cursor = 0;
+    }
+}
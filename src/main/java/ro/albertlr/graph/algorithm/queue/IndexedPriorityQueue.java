@@ -0,0 +1,68 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.queue;
+
+/**
+ * Min-priority queue over int ids in {@code [0, capacity)}, each id being present at most once.
+ * <p>
+ * Implementations preallocate all their storage for {@code capacity} ids, so inserting, decreasing and extracting do
+ * not allocate. They are not thread safe.
+ */
+public interface IndexedPriorityQueue {
+
+    boolean isEmpty();
+
+    int size();
+
+    boolean contains(int id);
+
+    /**
+     * Key of an id currently in the queue.
+     */
+    double key(int id);
+
+    /**
+     * Inserts an id that is not in the queue.
+     */
+    void insert(int id, double key);
+
+    /**
+     * Lowers the key of an id that is in the queue; the new key must not be greater than the current one.
+     */
+    void decreaseKey(int id, double key);
+
+    /**
+     * Removes and returns the id with the smallest key.
+     */
+    int deleteMin();
+
+    /**
+     * Removes every id from the queue.
+     */
+    void clear();
+
+    default void insertOrDecrease(int id, double key) {
+        if (contains(id)) {
+            decreaseKey(id, key);
+        } else {
+            insert(id, key);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.queue;
+
+/**
+ * Indexed pairing min-heap.
+ * <p>
+ * The multi-way tree is stored in parallel arrays addressed by id (leftmost child, right sibling and left
+ * sibling-or-parent links), so nodes are never allocated. Decrease-key cuts the subtree and melds it with the root in
+ * O(1); delete-min merges the children of the root with the standard two-pass pairing.
+ */
+public class PairingHeap implements IndexedPriorityQueue {
+    private static final int NONE = -1;
+
+    private final double[] keys;
+    private final int[] child;
+    private final int[] next;
+    private final int[] previous;
+    private final boolean[] present;
+    private final int[] scratch;
+
+    private int root = NONE;
+    private int size;
+
+    public PairingHeap(int capacity) {
+        this.keys = new double[capacity];
+        this.child = new int[capacity];
+        this.next = new int[capacity];
+        this.previous = new int[capacity];
+        this.present = new boolean[capacity];
+        this.scratch = new int[capacity];
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return present[id];
+    }
+
+    @Override
+    public double key(int id) {
+        return keys[id];
+    }
+
+    @Override
+    public void insert(int id, double key) {
+        keys[id] = key;
+        child[id] = NONE;
+        next[id] = NONE;
+        previous[id] = NONE;
+        present[id] = true;
+        size++;
+        root = meld(root, id);
+    }
+
+    @Override
+    public void decreaseKey(int id, double key) {
+        keys[id] = key;
+        if (id == root) {
+            return;
+        }
+        // cut the subtree rooted at id
+        int before = previous[id];
+        if (child[before] == id) {
+            child[before] = next[id];
+        } else {
+            next[before] = next[id];
+        }
+        if (next[id] != NONE) {
+            previous[next[id]] = before;
+        }
+        next[id] = NONE;
+        previous[id] = NONE;
+
+        root = meld(root, id);
+    }
+
+    @Override
+    public int deleteMin() {
+        int min = root;
+        present[min] = false;
+        size--;
+
+        int count = 0;
+        for (int c = child[min]; c != NONE; ) {
+            int sibling = next[c];
+            next[c] = NONE;
+            previous[c] = NONE;
+            scratch[count++] = c;
+            c = sibling;
+        }
+
+        // first pass: meld pairs left to right
+        int pairs = 0;
+        for (int i = 0; i + 1 < count; i += 2) {
+            scratch[pairs++] = meld(scratch[i], scratch[i + 1]);
+        }
+        if ((count & 1) == 1) {
+            scratch[pairs++] = scratch[count - 1];
+        }
+
+        // second pass: meld right to left into a single tree
+        int merged = NONE;
+        for (int i = pairs - 1; i >= 0; i--) {
+            merged = meld(merged, scratch[i]);
+        }
+        root = merged;
+        return min;
+    }
+
+    @Override
+    public void clear() {
+        if (root != NONE) {
+            int top = 0;
+            scratch[top++] = root;
+            while (top > 0) {
+                int id = scratch[--top];
+                present[id] = false;
+                for (int c = child[id]; c != NONE; c = next[c]) {
+                    scratch[top++] = c;
+                }
+            }
+        }
+        root = NONE;
+        size = 0;
+    }
+
+    /**
+     * Links two roots, the one with the larger key becoming the leftmost child of the other.
+     */
+    private int meld(int a, int b) {
+        if (a == NONE) {
+            return b;
+        }
+        if (b == NONE) {
+            return a;
+        }
+        if (keys[b] < keys[a]) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        int firstChild = child[a];
+        next[b] = firstChild;
+        if (firstChild != NONE) {
+            previous[firstChild] = b;
+        }
+        previous[b] = a;
+        child[a] = b;
+        return a;
+    }
+}
@@ -0,0 +1,98 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.queue;
+
+/**
+ * Available {@link IndexedPriorityQueue} implementations, selectable through the {@code algorithm.queue} property.
+ * <p>
+ * {@link #RADIX_HEAP} and {@link #DIAL} are monotone integer queues: they only accept non-negative integer keys, so
+ * they can only be used when every edge weight is a non-negative integer (see {@link #forWeights(boolean)}).
+ */
+public enum PriorityQueueType {
+    BINARY_HEAP {
+        @Override
+        public IndexedPriorityQueue create(int capacity, double maxWeight) {
+            return new DaryHeap(capacity, 2);
+        }
+    },
+    QUATERNARY_HEAP {
+        @Override
+        public IndexedPriorityQueue create(int capacity, double maxWeight) {
+            return new DaryHeap(capacity, 4);
+        }
+    },
+    PAIRING_HEAP {
+        @Override
+        public IndexedPriorityQueue create(int capacity, double maxWeight) {
+            return new PairingHeap(capacity);
+        }
+    },
+    RADIX_HEAP {
+        @Override
+        public IndexedPriorityQueue create(int capacity, double maxWeight) {
+            return new RadixHeap(capacity);
+        }
+
+        @Override
+        public boolean requiresIntegralKeys() {
+            return true;
+        }
+    },
+    /**
+     * Dial's buckets, one per weight value; when the largest weight is unknown or would need more than
+     * {@link #MAX_DIAL_BUCKETS} buckets a {@link RadixHeap} is created instead.
+     */
+    DIAL {
+        @Override
+        public IndexedPriorityQueue create(int capacity, double maxWeight) {
+            if (maxWeight < MAX_DIAL_BUCKETS) {
+                return new DialQueue(capacity, (int) maxWeight);
+            }
+            return new RadixHeap(capacity);
+        }
+
+        @Override
+        public boolean requiresIntegralKeys() {
+            return true;
+        }
+    };
+
+    public static final int MAX_DIAL_BUCKETS = 1 << 20;
+
+    /**
+     * @param maxWeight the largest edge weight of the searched graph
+     */
+    public abstract IndexedPriorityQueue create(int capacity, double maxWeight);
+
+    public IndexedPriorityQueue create(int capacity) {
+        return create(capacity, Double.POSITIVE_INFINITY);
+    }
+
+    public boolean requiresIntegralKeys() {
+        return false;
+    }
+
+    /**
+     * Returns this queue type if it can be used with the given kind of weights, or {@link #BINARY_HEAP} otherwise.
+     */
+    public PriorityQueueType forWeights(boolean integralWeights) {
+        return requiresIntegralKeys() && !integralWeights ? BINARY_HEAP : this;
+    }
+}
@@ -0,0 +1,76 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.queue;
+
+/**
+ * Indexed radix heap for monotone integer keys.
+ * <p>
+ * Bucket 0 holds the keys equal to the last extracted key {@code last}; bucket {@code i > 0} holds the keys whose
+ * highest bit differing from {@code last} is bit {@code i - 1}. When bucket 0 runs empty, the smallest key of the first
+ * non-empty bucket becomes {@code last} and that bucket is redistributed into strictly lower buckets, so every id moves
+ * at most 64 times and the work does not depend on the magnitude of the weights.
+ */
+public class RadixHeap extends BucketQueue {
+    private static final int BUCKETS = Long.SIZE + 1;
+
+    private long last;
+
+    public RadixHeap(int capacity) {
+        super(capacity, BUCKETS);
+    }
+
+    @Override
+    protected int bucket(long key) {
+        if (key < last) {
+            throw new IllegalArgumentException("Key " + key + " is smaller than the last extracted key " + last);
+        }
+        return key == last ? 0 : Long.SIZE - Long.numberOfLeadingZeros(key ^ last);
+    }
+
+    @Override
+    public int deleteMin() {
+        if (heads[0] == NONE) {
+            int bucket = 1;
+            while (heads[bucket] == NONE) {
+                bucket++;
+            }
+
+            long min = Long.MAX_VALUE;
+            for (int id = heads[bucket]; id != NONE; id = next(id)) {
+                min = Math.min(min, keys[id]);
+            }
+            last = min;
+
+            for (int id = heads[bucket]; id != NONE; ) {
+                int following = next(id);
+                unlink(id);
+                link(id, bucket(keys[id]));
+                id = following;
+            }
+        }
+        return removeFirst(0);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        last = 0;
+    }
+}
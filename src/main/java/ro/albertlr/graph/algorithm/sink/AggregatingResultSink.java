@@ -0,0 +1,101 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.sink;
+
+import ro.albertlr.graph.algorithm.ResultSink;
+
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps summary statistics of the rows instead of the rows: reachable pairs, average distance, diameter and, per
+ * source, the eccentricity and the sum of distances (for closeness). Memory is {@code O(n)}; it is thread safe.
+ */
+public class AggregatingResultSink implements ResultSink {
+    private final LongAdder reachablePairs = new LongAdder();
+    private final LongAdder unreachablePairs = new LongAdder();
+    private final DoubleAdder distanceSum = new DoubleAdder();
+    private final DoubleAccumulator diameter = new DoubleAccumulator(Math::max, 0);
+
+    private final double[] eccentricities;
+    private final double[] distanceSums;
+
+    public AggregatingResultSink(int size) {
+        this.eccentricities = new double[size];
+        this.distanceSums = new double[size];
+    }
+
+    @Override
+    public void accept(int source, double[] distances, int[] predecessors) {
+        long reachable = 0;
+        double sum = 0;
+        double eccentricity = 0;
+        for (int target = 0; target < distances.length; target++) {
+            double distance = distances[target];
+            if (distance == Double.POSITIVE_INFINITY || target == source) {
+                continue;
+            }
+            reachable++;
+            sum += distance;
+            eccentricity = Math.max(eccentricity, distance);
+        }
+        reachablePairs.add(reachable);
+        unreachablePairs.add(distances.length - 1 - reachable);
+        distanceSum.add(sum);
+        diameter.accumulate(eccentricity);
+        eccentricities[source] = eccentricity;
+        distanceSums[source] = sum;
+    }
+
+    public long getReachablePairs() {
+        return reachablePairs.sum();
+    }
+
+    public long getUnreachablePairs() {
+        return unreachablePairs.sum();
+    }
+
+    public double getAverageDistance() {
+        long pairs = reachablePairs.sum();
+        return pairs == 0 ? 0 : distanceSum.sum() / pairs;
+    }
+
+    /**
+     * Largest finite distance between two vertices.
+     */
+    public double getDiameter() {
+        return diameter.get();
+    }
+
+    /**
+     * Largest finite distance from the source.
+     */
+    public double eccentricity(int source) {
+        return eccentricities[source];
+    }
+
+    /**
+     * Sum of the finite distances from the source.
+     */
+    public double distanceSum(int source) {
+        return distanceSums[source];
+    }
+}
@@ -0,0 +1,163 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.sink;
+
+import lombok.extern.slf4j.Slf4j;
+import ro.albertlr.graph.algorithm.ResultSink;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Decouples the all-pairs workers from a slow sink (disk, network): rows are copied into a bounded pool of buffers and
+ * handed to a single writer thread, so computing and writing overlap while at most {@code capacity} rows wait in
+ * memory. When the writer falls behind, workers block instead of piling up rows.
+ * <p>
+ * The delegate is only called from the writer thread, one row at a time, so it does not have to be thread safe. A
+ * failure of the delegate is rethrown to the workers by the next {@link #accept} and by {@link #close()}.
+ */
+@Slf4j
+public class AsyncResultSink implements ResultSink, Closeable {
+    private static final Row END = new Row();
+
+    private final ResultSink delegate;
+    private final int size;
+    private final BlockingQueue<Row> pending;
+    private final BlockingQueue<Row> free;
+    private final Thread writer;
+    private volatile Throwable failure;
+
+    /**
+     * @param size     length of the rows
+     * @param capacity number of rows buffered between the workers and the writer, at least one
+     */
+    public AsyncResultSink(ResultSink delegate, int size, int capacity) {
+        capacity = Math.max(1, capacity);
+        this.delegate = delegate;
+        this.size = size;
+        this.pending = new ArrayBlockingQueue<>(capacity + 1);
+        this.free = new ArrayBlockingQueue<>(capacity);
+        for (int i = 0; i < capacity; i++) {
+            free.add(new Row());
+        }
+        this.writer = new Thread(this::drain, "apsp-sink-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void accept(int source, double[] distances, int[] predecessors) {
+        accept(source, distances, predecessors, null);
+    }
+
+    @Override
+    public void accept(int source, double[] distances, int[] predecessors, double[][] metrics) {
+        checkFailure();
+        try {
+            Row row = free.take();
+            row.copy(source, distances, predecessors, metrics, size);
+            pending.put(row);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing row " + source, e);
+        }
+    }
+
+    /**
+     * Waits for the queued rows to be written, then closes the delegate if it is {@link Closeable}.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            pending.put(END);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while flushing the queued rows", e);
+        } finally {
+            if (delegate instanceof Closeable) {
+                ((Closeable) delegate).close();
+            }
+        }
+        if (failure != null) {
+            throw new IOException("Writing the rows failed", failure);
+        }
+    }
+
+    private void drain() {
+        try {
+            for (Row row = pending.take(); row != END; row = pending.take()) {
+                if (failure == null) {
+                    try {
+                        delegate.accept(row.source, row.distances, row.hasPredecessors ? row.predecessors : null,
+                                row.hasMetrics ? row.metrics : null);
+                    } catch (Throwable e) {
+                        log.error("Writing row {} failed, dropping the remaining rows", row.source, e);
+                        failure = e;
+                    }
+                }
+                free.put(row);
+            }
+        } catch (InterruptedException e) {
+            failure = e;
+        }
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw new IllegalStateException("Writing the rows failed", failure);
+        }
+    }
+
+    private static class Row {
+        private int source;
+        private double[] distances;
+        private int[] predecessors;
+        private boolean hasPredecessors;
+        private double[][] metrics;
+        private boolean hasMetrics;
+
+        void copy(int source, double[] distances, int[] predecessors, double[][] metrics, int size) {
+            this.source = source;
+            if (this.distances == null) {
+                this.distances = new double[size];
+            }
+            System.arraycopy(distances, 0, this.distances, 0, size);
+            hasPredecessors = predecessors != null;
+            if (hasPredecessors) {
+                if (this.predecessors == null) {
+                    this.predecessors = new int[size];
+                }
+                System.arraycopy(predecessors, 0, this.predecessors, 0, size);
+            }
+            hasMetrics = metrics != null;
+            if (hasMetrics) {
+                if (this.metrics == null) {
+                    this.metrics = new double[metrics.length][size];
+                }
+                for (int k = 0; k < metrics.length; k++) {
+                    System.arraycopy(metrics[k], 0, this.metrics[k], 0, size);
+                }
+            }
+        }
+    }
+}
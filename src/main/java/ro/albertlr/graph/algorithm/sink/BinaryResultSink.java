@@ -0,0 +1,66 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.sink;
+
+import ro.albertlr.graph.algorithm.ResultSink;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Streams rows as binary records: a header ({@code magic}, {@code version}, {@code size}) followed, for every row in the
+ * order it is computed, by the source id and {@code size} big endian floats ({@link Float#POSITIVE_INFINITY} for
+ * unreachable targets). Unlike the random access matrix files it only needs an {@link OutputStream}, so it can feed a
+ * pipe or a socket.
+ */
+public class BinaryResultSink implements ResultSink, Closeable {
+    public static final int MAGIC = 0x41505352;
+    public static final int VERSION = 1;
+
+    private final DataOutputStream output;
+
+    public BinaryResultSink(OutputStream output, int size) throws IOException {
+        this.output = new DataOutputStream(new BufferedOutputStream(output, 1 << 16));
+        this.output.writeInt(MAGIC);
+        this.output.writeInt(VERSION);
+        this.output.writeInt(size);
+    }
+
+    @Override
+    public synchronized void accept(int source, double[] distances, int[] predecessors) {
+        try {
+            output.writeInt(source);
+            for (double distance : distances) {
+                output.writeFloat((float) distance);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write row " + source, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        output.close();
+    }
+}
@@ -0,0 +1,99 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.sink;
+
+import ro.albertlr.graph.algorithm.ResultSink;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Writes the reachable pairs of every row as {@code source,target,distance} lines, followed by the secondary metrics
+ * of the pair when the row has them, sources in the order they are computed. Calls are serialized, so it can be used
+ * directly by the workers, though wrapping it in an {@link AsyncResultSink} keeps them from waiting on the disk.
+ */
+public class CsvResultSink implements ResultSink, Closeable {
+    private final Writer writer;
+    private final IntFunction<String> labels;
+    private final StringBuilder line = new StringBuilder();
+
+    /**
+     * @param labels external id written for every vertex id
+     */
+    public CsvResultSink(Path file, IntFunction<String> labels) throws IOException {
+        this(file, labels, Collections.emptyList());
+    }
+
+    /**
+     * @param metricNames header of the secondary metric columns, in the order of the metrics of the rows
+     */
+    public CsvResultSink(Path file, IntFunction<String> labels, List<String> metricNames) throws IOException {
+        this.writer = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 16);
+        this.labels = labels;
+        writer.write("source,target,distance");
+        for (String metricName : metricNames) {
+            writer.write(',');
+            writer.write(metricName);
+        }
+        writer.write('\n');
+    }
+
+    @Override
+    public void accept(int source, double[] distances, int[] predecessors) {
+        accept(source, distances, predecessors, null);
+    }
+
+    @Override
+    public synchronized void accept(int source, double[] distances, int[] predecessors, double[][] metrics) {
+        String sourceLabel = labels.apply(source);
+        try {
+            for (int target = 0; target < distances.length; target++) {
+                if (distances[target] == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                line.setLength(0);
+                line.append(sourceLabel).append(',').append(labels.apply(target)).append(',').append(distances[target]);
+                if (metrics != null) {
+                    for (double[] metric : metrics) {
+                        line.append(',').append(metric[target]);
+                    }
+                }
+                line.append('\n');
+                writer.append(line);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write row " + source, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
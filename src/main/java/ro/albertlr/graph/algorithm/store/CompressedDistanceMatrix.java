@@ -0,0 +1,200 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.store;
+
+import lombok.Getter;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reader of the compressed distance matrix format written by {@link CompressedDistanceMatrixWriter}.
+ * <p>
+ * The header (magic, version, size, resolution, index offset, vertex labels and the vertex id of every column) is
+ * followed by the encoded rows, in the order they were computed, and by the index holding the offset and length of
+ * every row. Only the header and the index are loaded; a row or a cell is read with one positional read and decodes
+ * only that row, so readers can be shared by threads.
+ */
+public class CompressedDistanceMatrix implements Closeable {
+    /**
+     * Quantized value of unreachable cells; reachable distances are stored as {@code round(distance / resolution) + 1}.
+     */
+    private static final long UNREACHABLE = 0;
+
+    private final FileChannel channel;
+    private final int size;
+    @Getter
+    private final double resolution;
+    private final String[] labels;
+    private final int[] columnOrder;
+    /**
+     * Column of every vertex id, the inverse of {@link #columnOrder}.
+     */
+    private final int[] columns;
+    private final long[] rowOffsets;
+    private final int[] rowLengths;
+
+    private CompressedDistanceMatrix(FileChannel channel, int size, double resolution, String[] labels,
+                                     int[] columnOrder, long[] rowOffsets, int[] rowLengths) {
+        this.channel = channel;
+        this.size = size;
+        this.resolution = resolution;
+        this.labels = labels;
+        this.columnOrder = columnOrder;
+        this.columns = new int[size];
+        for (int column = 0; column < size; column++) {
+            columns[columnOrder[column]] = column;
+        }
+        this.rowOffsets = rowOffsets;
+        this.rowLengths = rowLengths;
+    }
+
+    public static CompressedDistanceMatrix open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            DataInputStream header = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            if (header.readInt() != CompressedDistanceMatrixWriter.MAGIC) {
+                throw new IOException(file + " is not a compressed distance matrix file");
+            }
+            int version = header.readInt();
+            if (version != CompressedDistanceMatrixWriter.VERSION) {
+                throw new IOException("Unsupported compressed distance matrix version " + version + " in " + file);
+            }
+            int size = header.readInt();
+            double resolution = header.readDouble();
+            long indexOffset = header.readLong();
+            if (indexOffset == 0) {
+                throw new IOException(file + " was not closed by its writer, the row index is missing");
+            }
+            String[] labels = new String[size];
+            for (int v = 0; v < size; v++) {
+                labels[v] = header.readUTF();
+            }
+            int[] columnOrder = new int[size];
+            for (int column = 0; column < size; column++) {
+                columnOrder[column] = header.readInt();
+            }
+
+            ByteBuffer index = ByteBuffer.allocate(size * 12);
+            while (index.hasRemaining()) {
+                if (channel.read(index, indexOffset + index.position()) < 0) {
+                    throw new IOException(file + " is truncated");
+                }
+            }
+            index.flip();
+            long[] rowOffsets = new long[size];
+            int[] rowLengths = new int[size];
+            for (int source = 0; source < size; source++) {
+                rowOffsets[source] = index.getLong();
+                rowLengths[source] = index.getInt();
+            }
+            return new CompressedDistanceMatrix(channel, size, resolution, labels, columnOrder, rowOffsets, rowLengths);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String label(int vertex) {
+        return labels[vertex];
+    }
+
+    public boolean hasRow(int source) {
+        return rowOffsets[source] >= 0;
+    }
+
+    /**
+     * Decodes a row into {@code distances} (allocated if {@code null}) and returns it.
+     */
+    public double[] row(int source, double[] distances) throws IOException {
+        if (distances == null) {
+            distances = new double[size];
+        }
+        ByteBuffer row = read(source);
+        long value = 0;
+        for (int target : columnOrder) {
+            value += readDelta(row);
+            distances[target] = dequantize(value, resolution);
+        }
+        return distances;
+    }
+
+    /**
+     * Decodes the row of {@code source} up to the column of {@code target}.
+     */
+    public double get(int source, int target) throws IOException {
+        ByteBuffer row = read(source);
+        long value = 0;
+        for (int i = 0, column = columns[target]; i <= column; i++) {
+            value += readDelta(row);
+        }
+        return dequantize(value, resolution);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private ByteBuffer read(int source) throws IOException {
+        if (rowOffsets[source] < 0) {
+            throw new IllegalStateException("Row " + source + " was not written");
+        }
+        ByteBuffer row = ByteBuffer.allocate(rowLengths[source]);
+        while (row.hasRemaining()) {
+            if (channel.read(row, rowOffsets[source] + row.position()) < 0) {
+                throw new IOException("Row " + source + " is truncated");
+            }
+        }
+        row.flip();
+        return row;
+    }
+
+    private static long readDelta(ByteBuffer row) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = row.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static long quantize(double distance, double resolution) {
+        return distance == Double.POSITIVE_INFINITY ? UNREACHABLE : Math.round(distance / resolution) + 1;
+    }
+
+    static double dequantize(long value, double resolution) {
+        return value == UNREACHABLE ? Double.POSITIVE_INFINITY : (value - 1) * resolution;
+    }
+}
@@ -0,0 +1,241 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.store;
+
+import ro.albertlr.graph.algorithm.CompactGraph;
+import ro.albertlr.graph.algorithm.ResultSink;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Writes a {@link CompressedDistanceMatrix} file as the all-pairs engine streams rows into it.
+ * <p>
+ * Every row is quantized to multiples of the resolution, delta encoded cell to cell and stored as zigzag varints. The
+ * cells of a row are written in a column order shared by all rows and kept in the header. With the
+ * {@link #breadthFirstOrder(CompactGraph) breadth-first order} of the graph, consecutive columns are close in the
+ * network, so their distances from any source differ by about the weight of a few arcs rather than by the spread of
+ * the whole row; the fewer resolution steps an arc weighs, the fewer bytes a cell takes.
+ * <p>
+ * Worker threads encode their rows in their own buffers and only append to the file under a lock; the row offset index
+ * is written by {@link #close()}.
+ */
+public class CompressedDistanceMatrixWriter implements ResultSink, Closeable {
+    static final int MAGIC = 0x41505343;
+    static final int VERSION = 2;
+    /**
+     * Position of the index offset in the header.
+     */
+    static final int INDEX_OFFSET_POSITION = 20;
+
+    private final FileChannel channel;
+    private final int size;
+    private final double resolution;
+    private final int[] columnOrder;
+    private final long[] rowOffsets;
+    private final int[] rowLengths;
+    private final ThreadLocal<RowEncoder> encoders = ThreadLocal.withInitial(RowEncoder::new);
+    private long position;
+
+    private CompressedDistanceMatrixWriter(FileChannel channel, int size, double resolution, int[] columnOrder,
+                                           long position) {
+        this.channel = channel;
+        this.size = size;
+        this.resolution = resolution;
+        this.columnOrder = columnOrder;
+        this.rowOffsets = new long[size];
+        this.rowLengths = new int[size];
+        this.position = position;
+        Arrays.fill(rowOffsets, -1);
+    }
+
+    /**
+     * Creates (or truncates) the file for the matrix of the given graph, its columns in breadth-first order.
+     *
+     * @param resolution quantization step of the stored distances, e.g. {@code 1} for integral weights
+     * @param labels     external id of every vertex id, stored in the header; may be {@code null}
+     */
+    public static CompressedDistanceMatrixWriter create(Path file, CompactGraph<?, ?> graph, double resolution,
+                                                        IntFunction<String> labels) throws IOException {
+        return create(file, graph.getVertexCount(), resolution, labels, breadthFirstOrder(graph));
+    }
+
+    /**
+     * Creates (or truncates) the file for a matrix of the given size.
+     *
+     * @param resolution  quantization step of the stored distances, e.g. {@code 1} for integral weights
+     * @param labels      external id of every vertex id, stored in the header; may be {@code null}
+     * @param columnOrder vertex id of every column, a permutation of {@code [0, size)}; {@code null} means by id
+     */
+    public static CompressedDistanceMatrixWriter create(Path file, int size, double resolution,
+                                                        IntFunction<String> labels, int[] columnOrder)
+            throws IOException {
+        if (!(resolution > 0)) {
+            throw new IllegalArgumentException("Resolution must be positive: " + resolution);
+        }
+        if (columnOrder == null) {
+            columnOrder = new int[size];
+            for (int v = 0; v < size; v++) {
+                columnOrder[v] = v;
+            }
+        } else if (columnOrder.length != size) {
+            throw new IllegalArgumentException(columnOrder.length + " columns for a matrix of size " + size);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(bytes);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeInt(size);
+        header.writeDouble(resolution);
+        header.writeLong(0); // index offset, written on close
+        for (int v = 0; v < size; v++) {
+            header.writeUTF(labels == null ? "" : labels.apply(v));
+        }
+        for (int v = 0; v < size; v++) {
+            header.writeInt(columnOrder[v]);
+        }
+        header.flush();
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            return new CompressedDistanceMatrixWriter(channel, size, resolution, columnOrder, bytes.size());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void accept(int source, double[] distances, int[] predecessors) {
+        RowEncoder encoder = encoders.get();
+        encoder.encode(distances, columnOrder, resolution);
+        ByteBuffer buffer = ByteBuffer.wrap(encoder.bytes, 0, encoder.length);
+        try {
+            synchronized (channel) {
+                rowOffsets[source] = position;
+                rowLengths[source] = encoder.length;
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot write row " + source, e);
+        }
+    }
+
+    /**
+     * @return the vertex ids in breadth-first order over the arcs of the graph, restarting from the lowest unvisited id
+     * for the vertices not reached
+     */
+    public static int[] breadthFirstOrder(CompactGraph<?, ?> graph) {
+        int n = graph.getVertexCount();
+        int[] order = new int[n];
+        boolean[] visited = new boolean[n];
+        int tail = 0;
+        for (int start = 0; start < n; start++) {
+            if (visited[start]) {
+                continue;
+            }
+            int head = tail;
+            order[tail++] = start;
+            visited[start] = true;
+            while (head < tail) {
+                int u = order[head++];
+                for (int arc = graph.firstArc(u); arc < graph.endArc(u); arc++) {
+                    int v = graph.target(arc);
+                    if (!visited[v]) {
+                        visited[v] = true;
+                        order[tail++] = v;
+                    }
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Appends the row offset index and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            synchronized (channel) {
+                ByteBuffer index = ByteBuffer.allocate(size * 12);
+                for (int source = 0; source < size; source++) {
+                    index.putLong(rowOffsets[source]);
+                    index.putInt(rowLengths[source]);
+                }
+                index.flip();
+                long indexOffset = position;
+                while (index.hasRemaining()) {
+                    position += channel.write(index, position);
+                }
+                ByteBuffer header = ByteBuffer.allocate(8);
+                header.putLong(0, indexOffset);
+                channel.write(header, INDEX_OFFSET_POSITION);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Growable per-thread encoding buffer.
+     */
+    private static class RowEncoder {
+        private byte[] bytes = new byte[1 << 12];
+        private int length;
+
+        void encode(double[] distances, int[] columnOrder, double resolution) {
+            length = 0;
+            long previous = 0;
+            for (int target : columnOrder) {
+                long value = CompressedDistanceMatrix.quantize(distances[target], resolution);
+                long delta = value - previous;
+                previous = value;
+                writeVarint((delta << 1) ^ (delta >> 63));
+            }
+        }
+
+        private void writeVarint(long value) {
+            if (length + 10 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            while ((value & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.store;
+
+import lombok.Getter;
+import ro.albertlr.graph.algorithm.ResultSink;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntFunction;
+
+/**
+ * Distance matrix stored in a memory-mapped file, so matrices larger than the heap can be written by the all-pairs
+ * engine and read back without copying.
+ * <p>
+ * The file starts with a header (magic, version, cell type, size, data offset and the label of every vertex id) followed
+ * by {@code size x size} fixed width cells, row major. The data is mapped in chunks of whole rows, each under 2GB.
+ * Rows are written with absolute puts, so worker threads can {@link #accept} distinct sources concurrently.
+ */
+public class MappedDistanceMatrix implements ResultSink, Closeable, Flushable {
+    private static final int MAGIC = 0x41505344;
+    private static final int VERSION = 1;
+    private static final int CELL_BYTES = 4;
+
+    public enum Cell {
+        /**
+         * Distances as {@code float}, unreachable pairs as {@link Float#POSITIVE_INFINITY}.
+         */
+        FLOAT,
+        /**
+         * Distances rounded to {@code int}, unreachable pairs as {@link Integer#MAX_VALUE}; exact for integral weights.
+         */
+        INT
+    }
+
+    private final FileChannel channel;
+    @Getter
+    private final Cell cell;
+    private final int size;
+    private final String[] labels;
+    private final long rowBytes;
+    private final int rowsPerChunk;
+    private final MappedByteBuffer[] chunks;
+
+    private MappedDistanceMatrix(FileChannel channel, FileChannel.MapMode mode, Cell cell, int size, String[] labels,
+                                 long dataOffset) throws IOException {
+        this.channel = channel;
+        this.cell = cell;
+        this.size = size;
+        this.labels = labels;
+        this.rowBytes = (long) size * CELL_BYTES;
+        this.rowsPerChunk = (int) Math.max(1, Math.min(size, Integer.MAX_VALUE / Math.max(1, rowBytes)));
+        this.chunks = new MappedByteBuffer[(size + rowsPerChunk - 1) / rowsPerChunk];
+        for (int c = 0; c < chunks.length; c++) {
+            int rows = Math.min(rowsPerChunk, size - c * rowsPerChunk);
+            chunks[c] = channel.map(mode, dataOffset + c * rowsPerChunk * rowBytes, rows * rowBytes);
+        }
+    }
+
+    /**
+     * Creates (or truncates) the file for a matrix of the given size.
+     *
+     * @param labels external id of every vertex id, stored in the header; may be {@code null}
+     */
+    public static MappedDistanceMatrix create(Path file, int size, Cell cell, IntFunction<String> labels)
+            throws IOException {
+        String[] names = new String[size];
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(bytes);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeInt(cell.ordinal());
+        header.writeInt(size);
+        header.writeLong(0); // data offset, patched below
+        for (int v = 0; v < size; v++) {
+            names[v] = labels == null ? "" : labels.apply(v);
+            header.writeUTF(names[v]);
+        }
+        header.flush();
+
+        long dataOffset = (bytes.size() + 7) & ~7L;
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        buffer.putLong(16, dataOffset);
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            return new MappedDistanceMatrix(channel, FileChannel.MapMode.READ_WRITE, cell, size, names, dataOffset);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens an existing matrix file for reading.
+     */
+    public static MappedDistanceMatrix open(Path file) throws IOException {
+        return open(file, false);
+    }
+
+    /**
+     * Opens an existing matrix file; a writable one accepts rows in place, e.g. to resume an interrupted run.
+     */
+    public static MappedDistanceMatrix open(Path file, boolean writable) throws IOException {
+        FileChannel channel = writable
+                ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            DataInputStream header = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            if (header.readInt() != MAGIC) {
+                throw new IOException(file + " is not a distance matrix file");
+            }
+            int version = header.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported distance matrix version " + version + " in " + file);
+            }
+            Cell cell = Cell.values()[header.readInt()];
+            int size = header.readInt();
+            long dataOffset = header.readLong();
+            String[] labels = new String[size];
+            for (int v = 0; v < size; v++) {
+                labels[v] = header.readUTF();
+            }
+            FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+            return new MappedDistanceMatrix(channel, mode, cell, size, labels, dataOffset);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String label(int vertex) {
+        return labels[vertex];
+    }
+
+    public double get(int source, int target) {
+        int index = offset(source) + target * CELL_BYTES;
+        ByteBuffer chunk = chunks[source / rowsPerChunk];
+        if (cell == Cell.FLOAT) {
+            return chunk.getFloat(index);
+        }
+        int value = chunk.getInt(index);
+        return value == Integer.MAX_VALUE ? Double.POSITIVE_INFINITY : value;
+    }
+
+    /**
+     * Read-only view of the cells of a row, without copying; its content follows {@link #getCell()}.
+     */
+    public ByteBuffer row(int source) {
+        ByteBuffer row = chunks[source / rowsPerChunk].asReadOnlyBuffer();
+        row.position(offset(source));
+        row.limit(offset(source) + (int) rowBytes);
+        return row.slice();
+    }
+
+    @Override
+    public void accept(int source, double[] distances, int[] predecessors) {
+        ByteBuffer chunk = chunks[source / rowsPerChunk];
+        int index = offset(source);
+        if (cell == Cell.FLOAT) {
+            for (int target = 0; target < size; target++, index += CELL_BYTES) {
+                chunk.putFloat(index, (float) distances[target]);
+            }
+        } else {
+            for (int target = 0; target < size; target++, index += CELL_BYTES) {
+                double distance = distances[target];
+                chunk.putInt(index, distance >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) Math.round(distance));
+            }
+        }
+    }
+
+    /**
+     * Writes the rows accepted so far to the disk.
+     */
+    @Override
+    public void flush() {
+        for (MappedByteBuffer chunk : chunks) {
+            if (!chunk.isReadOnly()) {
+                chunk.force();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    private int offset(int source) {
+        return (int) ((source % rowsPerChunk) * rowBytes);
+    }
+}
@@ -0,0 +1,242 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.store;
+
+import ro.albertlr.graph.algorithm.OneToAllSearch;
+import ro.albertlr.graph.algorithm.ResultSink;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * All-pairs routing table: for every source and target, the vertex following the source on a shortest path. Any path
+ * is then walked hop by hop, following the row of every intermediate vertex towards the same target.
+ * <p>
+ * Rows are derived from the predecessor rows of the all-pairs engine (it is a {@link ResultSink}): the next hop of a
+ * target is the one of its predecessor, resolved iteratively with memoization, so a row costs {@code O(n)}. Cells are
+ * {@code int} holding the next hop plus one, so a fresh (zeroed) table reads as having no next hops. They are held in
+ * heap arrays or in a memory-mapped file (header {@code magic}, {@code version}, {@code size}, then row major cells)
+ * mapped in chunks of whole rows.
+ */
+public class NextHopTable implements ResultSink, Closeable {
+    public static final int NO_NEXT_HOP = -1;
+
+    private static final int MAGIC = 0x4150534E;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int UNRESOLVED = -2;
+
+    private final FileChannel channel;
+    private final int size;
+    private final int rowsPerChunk;
+    private final IntBuffer[] chunks;
+    private final MappedByteBuffer[] mappings;
+    private final ThreadLocal<int[][]> scratch;
+
+    private NextHopTable(FileChannel channel, FileChannel.MapMode mode, int size) throws IOException {
+        this.channel = channel;
+        this.size = size;
+        this.rowsPerChunk = (int) Math.max(1, Math.min(size, (Integer.MAX_VALUE / 4) / Math.max(1, size)));
+        this.chunks = new IntBuffer[(size + rowsPerChunk - 1) / rowsPerChunk];
+        this.mappings = new MappedByteBuffer[channel == null ? 0 : chunks.length];
+        for (int c = 0; c < chunks.length; c++) {
+            int cells = Math.min(rowsPerChunk, size - c * rowsPerChunk) * size;
+            if (channel == null) {
+                chunks[c] = IntBuffer.wrap(new int[cells]);
+            } else {
+                mappings[c] = channel.map(mode, HEADER_BYTES + 4L * c * rowsPerChunk * size, 4L * cells);
+                chunks[c] = mappings[c].asIntBuffer();
+            }
+        }
+        this.scratch = ThreadLocal.withInitial(() -> new int[2][size]);
+    }
+
+    public static NextHopTable inMemory(int size) {
+        try {
+            return new NextHopTable(null, null, size);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Creates (or truncates) a memory-mapped table file.
+     */
+    public static NextHopTable create(Path file, int size) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(size).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            return new NextHopTable(channel, FileChannel.MapMode.READ_WRITE, size);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a table file for reading.
+     */
+    public static NextHopTable open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException(file + " is truncated");
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException(file + " is not a next hop table file");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported next hop table version " + version + " in " + file);
+            }
+            return new NextHopTable(channel, FileChannel.MapMode.READ_ONLY, header.getInt());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the vertex after {@code source} on a shortest path to {@code target}, {@code source} itself if it is the
+     * target, {@link #NO_NEXT_HOP} if the target is unreachable or the row was not computed
+     */
+    public int nextHop(int source, int target) {
+        return chunks[source / rowsPerChunk].get((source % rowsPerChunk) * size + target) - 1;
+    }
+
+    /**
+     * Iterates over the vertex ids of a shortest path, from {@code source} to {@code target} included; empty if there
+     * is no path.
+     */
+    public PrimitiveIterator.OfInt path(int source, int target) {
+        return new PathIterator(source, target);
+    }
+
+    /**
+     * Stores the next hops of a source, derived from its predecessor row. Every engine passes one, including the
+     * Floyd–Warshall runs of {@link ro.albertlr.graph.algorithm.AllPairsShortestPath}.
+     *
+     * @throws IllegalArgumentException if the row is missing or is not a tree rooted at the source
+     */
+    @Override
+    public void accept(int source, double[] distances, int[] predecessors) {
+        if (predecessors == null) {
+            throw new IllegalArgumentException("A next hop table needs predecessor rows");
+        }
+        int[][] buffers = scratch.get();
+        int[] row = buffers[0];
+        int[] stack = buffers[1];
+        Arrays.fill(row, UNRESOLVED);
+        row[source] = source;
+        for (int target = 0; target < size; target++) {
+            int depth = 0;
+            int v = target;
+            while (row[v] == UNRESOLVED) {
+                int predecessor = predecessors[v];
+                if (predecessor == OneToAllSearch.NO_PREDECESSOR) {
+                    row[v] = NO_NEXT_HOP;
+                } else if (predecessor == source) {
+                    row[v] = v;
+                } else if (depth == size) {
+                    throw new IllegalArgumentException("The predecessors of source " + source + " form a cycle");
+                } else {
+                    stack[depth++] = v;
+                    v = predecessor;
+                }
+            }
+            int resolved = row[v];
+            while (depth > 0) {
+                row[stack[--depth]] = resolved;
+            }
+        }
+
+        IntBuffer chunk = chunks[source / rowsPerChunk];
+        int offset = (source % rowsPerChunk) * size;
+        for (int target = 0; target < size; target++) {
+            chunk.put(offset + target, row[target] + 1);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            for (MappedByteBuffer mapping : mappings) {
+                if (!mapping.isReadOnly()) {
+                    mapping.force();
+                }
+            }
+            channel.close();
+        }
+    }
+
+    private class PathIterator implements PrimitiveIterator.OfInt {
+        private final int target;
+        private int next;
+        private int hops;
+
+        PathIterator(int source, int target) {
+            this.target = target;
+            this.next = nextHop(source, target) == NO_NEXT_HOP ? NO_NEXT_HOP : source;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != NO_NEXT_HOP;
+        }
+
+        @Override
+        public int nextInt() {
+            if (next == NO_NEXT_HOP) {
+                throw new NoSuchElementException();
+            }
+            int current = next;
+            if (current == target) {
+                next = NO_NEXT_HOP;
+            } else if (++hops > size) {
+                throw new IllegalStateException("Next hops towards " + target + " form a cycle");
+            } else {
+                next = nextHop(current, target);
+            }
+            return current;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.dbf;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Field descriptor of a dBase file: where the field lies inside a record and how its bytes are encoded.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public class DbfField {
+    private final String name;
+    /**
+     * dBase type: {@code C} character, {@code N} or {@code F} numeric, {@code D} date, {@code L} logical.
+     */
+    private final char type;
+    /**
+     * Offset of the field from the start of the record, the deletion flag included.
+     */
+    private final int offset;
+    private final int length;
+    private final int decimalCount;
+
+    public boolean isNumeric() {
+        return type == 'N' || type == 'F';
+    }
+}
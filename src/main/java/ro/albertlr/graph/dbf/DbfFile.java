@@ -0,0 +1,281 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.dbf;
+
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Memory-mapped dBase III file, the attribute table of a shapefile.
+ * <p>
+ * Records are fixed width, so a field of any record is found at {@code header + record * recordLength + offset} and
+ * its ASCII digits are decoded straight from the mapped bytes into primitives, without building strings or feature
+ * objects. The records are mapped in chunks of whole records, each under 2GB. Reads use absolute gets only, so an
+ * instance can be shared by threads reading distinct records.
+ */
+public class DbfFile implements Closeable {
+    private static final int FIELD_DESCRIPTOR_BYTES = 32;
+    private static final byte HEADER_TERMINATOR = 0x0D;
+    private static final byte DELETED = '*';
+    // mantissas up to 15 significant digits are exact in a double, dividing by an exact power of ten rounds correctly
+    private static final int EXACT_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final FileChannel channel;
+    @Getter
+    private final int recordCount;
+    @Getter
+    private final int recordLength;
+    private final Map<String, DbfField> fields;
+    private final int recordsPerChunk;
+    private final MappedByteBuffer[] chunks;
+
+    private DbfFile(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(FIELD_DESCRIPTOR_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(header, 0);
+        this.recordCount = header.getInt(4);
+        int headerLength = header.getShort(8) & 0xFFFF;
+        this.recordLength = header.getShort(10) & 0xFFFF;
+        if (recordCount < 0 || recordLength == 0) {
+            throw new IOException("Not a dBase file: " + recordCount + " records of " + recordLength + " bytes");
+        }
+
+        ByteBuffer descriptors = ByteBuffer.allocate(headerLength - FIELD_DESCRIPTOR_BYTES);
+        readFully(descriptors, FIELD_DESCRIPTOR_BYTES);
+        this.fields = new LinkedHashMap<>();
+        int offset = 1; // deletion flag
+        for (int at = 0; at + FIELD_DESCRIPTOR_BYTES <= descriptors.limit()
+                && descriptors.get(at) != HEADER_TERMINATOR; at += FIELD_DESCRIPTOR_BYTES) {
+            int nameLength = 0;
+            while (nameLength < 11 && descriptors.get(at + nameLength) != 0) {
+                nameLength++;
+            }
+            String name = new String(descriptors.array(), at, nameLength, StandardCharsets.US_ASCII).trim();
+            int length = descriptors.get(at + 16) & 0xFF;
+            fields.put(name, new DbfField(name, (char) descriptors.get(at + 11), offset, length,
+                    descriptors.get(at + 17) & 0xFF));
+            offset += length;
+        }
+
+        this.recordsPerChunk = Math.max(1, Integer.MAX_VALUE / recordLength);
+        this.chunks = new MappedByteBuffer[(recordCount + recordsPerChunk - 1) / recordsPerChunk];
+        for (int c = 0; c < chunks.length; c++) {
+            int records = Math.min(recordsPerChunk, recordCount - c * recordsPerChunk);
+            chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY,
+                    headerLength + (long) c * recordsPerChunk * recordLength, (long) records * recordLength);
+        }
+    }
+
+    public static DbfFile open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new DbfFile(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the fields, in record order
+     */
+    public List<DbfField> getFields() {
+        return Collections.unmodifiableList(new ArrayList<>(fields.values()));
+    }
+
+    /**
+     * @return the field with the given name, {@code null} if there is none
+     */
+    public DbfField field(String name) {
+        return fields.get(name);
+    }
+
+    public boolean isDeleted(int record) {
+        return chunk(record).get(position(record)) == DELETED;
+    }
+
+    /**
+     * @return whether the field is blank, or holds the overflow marker numeric fields get when a value did not fit
+     */
+    public boolean isNull(int record, DbfField field) {
+        ByteBuffer chunk = chunk(record);
+        int from = position(record) + field.getOffset();
+        int end = from + field.getLength();
+        for (int i = from; i < end; i++) {
+            byte b = chunk.get(i);
+            if (b != ' ') {
+                return b == DELETED;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes a numeric field as a {@code long}, dropping any fraction; a blank field is {@code 0}.
+     */
+    public long getLong(int record, DbfField field) {
+        ByteBuffer chunk = chunk(record);
+        int i = position(record) + field.getOffset();
+        int end = i + field.getLength();
+        while (i < end && chunk.get(i) == ' ') {
+            i++;
+        }
+        boolean negative = false;
+        if (i < end && (chunk.get(i) == '-' || chunk.get(i) == '+')) {
+            negative = chunk.get(i) == '-';
+            i++;
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = chunk.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Decodes a numeric field as a {@code double}, to the same value {@link Double#parseDouble} gives; a blank field is
+     * {@code 0}.
+     */
+    public double getDouble(int record, DbfField field) {
+        ByteBuffer chunk = chunk(record);
+        int from = position(record) + field.getOffset();
+        int end = from + field.getLength();
+        int i = from;
+        while (i < end && chunk.get(i) == ' ') {
+            i++;
+        }
+        boolean negative = false;
+        if (i < end && (chunk.get(i) == '-' || chunk.get(i) == '+')) {
+            negative = chunk.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            byte b = chunk.get(i);
+            if (b == '.' && !fraction) {
+                fraction = true;
+            } else if (b >= '0' && b <= '9') {
+                if (mantissa != 0 || b != '0') {
+                    digits++;
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (fraction) {
+                    scale++;
+                }
+            } else {
+                break;
+            }
+        }
+        while (i < end && chunk.get(i) == ' ') {
+            i++;
+        }
+        if (i < end || digits > EXACT_DIGITS || scale >= POWERS_OF_TEN.length) {
+            // exponent notation or more precision than the fast path handles
+            return Double.parseDouble(getString(record, field));
+        }
+        double value = mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    public String getString(int record, DbfField field) {
+        byte[] bytes = new byte[field.getLength()];
+        ByteBuffer chunk = chunk(record);
+        int from = position(record) + field.getOffset();
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = chunk.get(from + i);
+        }
+        return new String(bytes, StandardCharsets.ISO_8859_1).trim();
+    }
+
+    /**
+     * Decodes a numeric field of every record into a column; blank fields and deleted records get {@code missing}.
+     */
+    public double[] doubleColumn(DbfField field, double missing) {
+        double[] column = new double[recordCount];
+        for (int record = 0; record < recordCount; record++) {
+            column[record] = isDeleted(record) || isNull(record, field) ? missing : getDouble(record, field);
+        }
+        return column;
+    }
+
+    /**
+     * Decodes a numeric field of every record into a column; blank fields and deleted records get {@code missing}.
+     */
+    public long[] longColumn(DbfField field, long missing) {
+        long[] column = new long[recordCount];
+        readLongs(field, missing, column, 0, recordCount);
+        return column;
+    }
+
+    /**
+     * Decodes a numeric field of the records {@code [from, to)} into the same positions of {@code column}.
+     */
+    public void readLongs(DbfField field, long missing, long[] column, int from, int to) {
+        for (int record = from; record < to; record++) {
+            column[record] = isDeleted(record) || isNull(record, field) ? missing : getLong(record, field);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private ByteBuffer chunk(int record) {
+        return chunks[record / recordsPerChunk];
+    }
+
+    private int position(int record) {
+        return (record % recordsPerChunk) * recordLength;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated dBase header");
+            }
+        }
+    }
+}
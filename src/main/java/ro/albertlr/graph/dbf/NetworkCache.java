@@ -0,0 +1,294 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.dbf;
+
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import org.jgrapht.Graph;
+import ro.albertlr.graph.Node;
+import ro.albertlr.graph.NodeDictionary;
+import ro.albertlr.graph.Road;
+import ro.albertlr.graph.RoadAttributes;
+import ro.albertlr.graph.RoadColumn;
+import ro.albertlr.graph.RoadNetwork;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of an imported road network, written next to the source files so later runs map it instead of
+ * parsing the source again.
+ * <p>
+ * The header holds a version, the size, modification time and a hash of every source file, and the projected columns;
+ * a snapshot that does not match all of them is stale and ignored. The body holds the {@code tazId} of every vertex, in
+ * vertex order, then one 8-byte aligned array per edge attribute, in edge order: the ids of the end vertices, the
+ * record number and every projected column at the width of its type, so long ids keep every digit.
+ * <p>
+ * Loading copies the arrays into the store in bulk and returns a {@link RoadNetwork} over them instead of adding every
+ * road to a new graph; the vertex and edge order, and with it every vertex id, is the one of the original import.
+ */
+@UtilityClass
+@Slf4j
+public class NetworkCache {
+    private static final int MAGIC = 0x4E455457;
+    private static final int VERSION = 2;
+    private static final String EXTENSION = ".graph";
+    // bytes hashed at each end of a source file
+    private static final int HASHED_BYTES = 1 << 16;
+
+    /**
+     * @return the snapshot file of a source: same folder and name, {@code .graph} extension
+     */
+    public static Path cacheFile(Path source) {
+        String name = source.getFileName().toString().replaceFirst("\\.[^.]*$", "");
+        return source.resolveSibling(name + EXTENSION);
+    }
+
+    /**
+     * @param attributes empty store of the network, filled with its roads and nodes when the snapshot is loaded; its
+     *                   columns are the ones the snapshot must hold
+     * @return the read-only network in the snapshot, {@code null} if there is none or it is stale
+     * @throws IllegalStateException if the store is not empty
+     */
+    public static Graph<Node, Road> load(Path cache, List<Path> sources, RoadAttributes attributes)
+            throws IOException {
+        if (!Files.exists(cache)) {
+            return null;
+        }
+        String typeName;
+        int vertexCount;
+        int edgeCount;
+        long dataOffset;
+        try (DataInputStream header = new DataInputStream(new BufferedInputStream(Files.newInputStream(cache)))) {
+            if (header.readInt() != MAGIC || header.readInt() != VERSION) {
+                log.info("network cache {} has another format, ignoring it", cache);
+                return null;
+            }
+            dataOffset = header.readLong();
+            if (!fingerprint(sources, attributes.getColumns()).equals(header.readUTF())) {
+                log.info("network cache {} is stale, ignoring it", cache);
+                return null;
+            }
+            typeName = header.readUTF();
+            vertexCount = header.readInt();
+            edgeCount = header.readInt();
+        }
+
+        NodeDictionary nodes = attributes.getNodes();
+        if (nodes.size() != 0 || attributes.size() != 0) {
+            throw new IllegalStateException("The network cache " + cache + " needs an empty store");
+        }
+        try (FileChannel channel = FileChannel.open(cache, StandardOpenOption.READ)) {
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset, channel.size() - dataOffset);
+
+            int[] tazOffsets = new int[vertexCount + 1];
+            data.asIntBuffer().get(tazOffsets);
+            data.position(data.position() + 4 * tazOffsets.length);
+            byte[] tazBytes = new byte[tazOffsets[vertexCount]];
+            data.get(tazBytes);
+            data.position(align(data.position()));
+            for (int v = 0; v < vertexCount; v++) {
+                nodes.add(Node.builder()
+                        .tazId(new String(tazBytes, tazOffsets[v], tazOffsets[v + 1] - tazOffsets[v], StandardCharsets.UTF_8))
+                        .build());
+            }
+
+            attributes.setTypeName(typeName);
+            int first = attributes.reserve(edgeCount);
+            IntBuffer from = slice(data, 4 * edgeCount).asIntBuffer();
+            IntBuffer to = slice(data, 4 * edgeCount).asIntBuffer();
+            IntBuffer records = slice(data, 4 * edgeCount).asIntBuffer();
+            attributes.put(first, from, to, records);
+            for (RoadColumn column : attributes.getColumns()) {
+                switch (column.getType()) {
+                    case INT:
+                        attributes.put(column, first, slice(data, 4 * edgeCount).asIntBuffer());
+                        break;
+                    case LONG:
+                        attributes.put(column, first, slice(data, 8 * edgeCount).asLongBuffer());
+                        break;
+                    default:
+                        attributes.put(column, first, slice(data, 8 * edgeCount).asDoubleBuffer());
+                        break;
+                }
+            }
+            return new RoadNetwork(attributes, first, edgeCount);
+        }
+    }
+
+    /**
+     * Writes the snapshot of a network imported from the sources, replacing any previous one atomically.
+     *
+     * @param attributes store the roads of the network are views of
+     */
+    public static void write(Path cache, List<Path> sources, Graph<Node, Road> roadNetwork, RoadAttributes attributes)
+            throws IOException {
+        NodeDictionary dictionary = attributes.getNodes();
+        List<Node> nodes = new ArrayList<>(roadNetwork.vertexSet());
+        // vertex order of every dictionary index
+        int[] ids = new int[dictionary.size()];
+        ByteArrayOutputStream tazBytes = new ByteArrayOutputStream();
+        int[] tazOffsets = new int[nodes.size() + 1];
+        for (int v = 0; v < nodes.size(); v++) {
+            ids[dictionary.index(nodes.get(v).getTazId())] = v;
+            byte[] taz = nodes.get(v).getTazId().getBytes(StandardCharsets.UTF_8);
+            tazBytes.write(taz, 0, taz.length);
+            tazOffsets[v + 1] = tazBytes.size();
+        }
+        List<Road> roads = new ArrayList<>(roadNetwork.edgeSet());
+        String typeName = attributes.getTypeName();
+
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeLong(0); // data offset, patched below
+        header.writeUTF(fingerprint(sources, attributes.getColumns()));
+        header.writeUTF(typeName);
+        header.writeInt(nodes.size());
+        header.writeInt(roads.size());
+        header.flush();
+        long dataOffset = align(headerBytes.size());
+        ByteBuffer headerBuffer = ByteBuffer.wrap(headerBytes.toByteArray());
+        headerBuffer.putLong(8, dataOffset);
+
+        Path temporary = cache.resolveSibling(cache.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            output.write(headerBuffer.array());
+            pad(output, dataOffset - headerBuffer.capacity());
+            for (int offset : tazOffsets) {
+                output.writeInt(offset);
+            }
+            tazBytes.writeTo(output);
+            pad(output, align(output.size()) - output.size());
+            for (Road road : roads) {
+                output.writeInt(ids[attributes.getFrom(road.getEdge())]);
+            }
+            pad(output, align(output.size()) - output.size());
+            for (Road road : roads) {
+                output.writeInt(ids[attributes.getTo(road.getEdge())]);
+            }
+            pad(output, align(output.size()) - output.size());
+            for (Road road : roads) {
+                output.writeInt(attributes.getRecord(road.getEdge()));
+            }
+            pad(output, align(output.size()) - output.size());
+            for (RoadColumn column : attributes.getColumns()) {
+                for (Road road : roads) {
+                    switch (column.getType()) {
+                        case INT:
+                            output.writeInt(attributes.getInt(column, road.getEdge()));
+                            break;
+                        case LONG:
+                            output.writeLong(attributes.getLong(column, road.getEdge()));
+                            break;
+                        default:
+                            output.writeDouble(attributes.getDouble(column, road.getEdge()));
+                            break;
+                    }
+                }
+                pad(output, align(output.size()) - output.size());
+            }
+        }
+        Files.move(temporary, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("network cache {} written with {} vertices, {} edges and columns {}", cache, nodes.size(),
+                roads.size(), attributes.getColumns());
+    }
+
+    /**
+     * Identifies the sources, by path, size, modification time and a hash of their first and last bytes, and the
+     * columns stored.
+     */
+    private static String fingerprint(List<Path> sources, Collection<RoadColumn> columns) throws IOException {
+        StringBuilder fingerprint = new StringBuilder();
+        for (Path source : sources) {
+            fingerprint.append(source.toAbsolutePath()).append('|')
+                    .append(Files.size(source)).append('|')
+                    .append(Files.getLastModifiedTime(source).toMillis()).append('|')
+                    .append(Long.toHexString(hash(source))).append('|');
+        }
+        for (RoadColumn column : columns) {
+            fingerprint.append(column).append(',');
+        }
+        return fingerprint.toString();
+    }
+
+    private static long hash(Path source) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int head = (int) Math.min(size, HASHED_BYTES);
+            int tail = (int) Math.min(size - head, HASHED_BYTES);
+            ByteBuffer buffer = ByteBuffer.allocate(head + tail);
+            buffer.limit(head);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, buffer.position()) < 0) {
+                    break;
+                }
+            }
+            buffer.limit(head + tail);
+            buffer.position(head);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, size - tail + buffer.position() - head) < 0) {
+                    break;
+                }
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), 0, buffer.position());
+            return crc.getValue();
+        }
+    }
+
+    /**
+     * @return the next {@code bytes} of the data, which is moved past them and the padding after them
+     */
+    private static ByteBuffer slice(ByteBuffer data, int bytes) {
+        ByteBuffer slice = data.slice();
+        slice.limit(bytes);
+        data.position(align(data.position() + bytes));
+        return slice;
+    }
+
+    private static int align(long position) {
+        return (int) ((position + 7) & ~7L);
+    }
+
+    private static void pad(DataOutputStream output, long bytes) throws IOException {
+        for (long i = 0; i < bytes; i++) {
+            output.writeByte(0);
+        }
+    }
+}
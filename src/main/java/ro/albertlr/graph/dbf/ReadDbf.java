@@ -0,0 +1,228 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.dbf;
+
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultDirectedWeightedGraph;
+import ro.albertlr.graph.Node;
+import ro.albertlr.graph.NodeDictionary;
+import ro.albertlr.graph.Road;
+import ro.albertlr.graph.RoadAttributes;
+import ro.albertlr.graph.RoadColumn;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Builds the road network straight from the {@code .dbf} attribute table of the links shapefile, without going through
+ * GeoTools features. The geometry is never used, so the {@code .shp} and {@code .shx} files are not read at all.
+ * <p>
+ * Only the columns the {@link RoadAttributes} store are decoded, besides {@code NODEA} and {@code NODEB}; the bytes of
+ * every other column are skipped.
+ */
+@UtilityClass
+@Slf4j
+public class ReadDbf {
+    private static final String NODE_A = "NODEA";
+    private static final String NODE_B = "NODEB";
+
+    // records decoded by one task at least
+    private static final int MIN_RANGE_RECORDS = 16384;
+
+    public static Graph<Node, Road> importFile(String filename) throws IOException {
+        return importFile(filename, 0,
+                new RoadAttributes(new NodeDictionary(), EnumSet.allOf(RoadColumn.class), false));
+    }
+
+    /**
+     * Records are decoded in ranges by a {@link ForkJoinPool}, each range into its own slice of the attribute and node
+     * columns. The roads are then added to the graph in record order on the calling thread, so the vertex and edge
+     * order, and with it every vertex id, is the same whatever the parallelism.
+     *
+     * @param parallelism number of decoding threads; {@code 0} or less means all available processors
+     * @param attributes  store of the network, filled with its roads and, through its dictionary, its nodes
+     */
+    public static Graph<Node, Road> importFile(String filename, int parallelism, RoadAttributes attributes)
+            throws IOException {
+        File file = new File(filename);
+        if (!file.exists()) {
+            log.error("The file {} does not exist", filename);
+            return null;
+        }
+
+        Graph<Node, Road> roadNetwork = new DefaultDirectedWeightedGraph<>(null, null);
+
+        try (DbfFile dbf = DbfFile.open(file.toPath())) {
+            int recordCount = dbf.getRecordCount();
+            attributes.setTypeName(file.getName().replaceFirst("\\.[^.]*$", ""));
+            int first = attributes.reserve(recordCount);
+            // the column, its storage and how to decode it are resolved once, not per range
+            List<FieldReader> readers = new ArrayList<>();
+            for (DbfField field : dbf.getFields()) {
+                RoadColumn column = roadColumn(field);
+                if (column != null && attributes.has(column)) {
+                    readers.add(fieldReader(dbf, field, column, attributes.setter(column)));
+                }
+            }
+            RecordRange records = new RecordRange(dbf, attributes, first, readers,
+                    nodeField(dbf, NODE_A), nodeField(dbf, NODE_B), new long[recordCount], new long[recordCount],
+                    0, recordCount, Math.max(MIN_RANGE_RECORDS, recordCount / (4 * threads(parallelism))));
+            ForkJoinPool pool = new ForkJoinPool(threads(parallelism));
+            try {
+                pool.invoke(records);
+            } finally {
+                pool.shutdown();
+            }
+
+            NodeDictionary nodes = attributes.getNodes();
+            for (int record = 0; record < recordCount; record++) {
+                if (dbf.isDeleted(record)) {
+                    continue;
+                }
+                Road road = attributes.road(records.first + record);
+                Node nodeA = nodes.getOrCreate(records.nodesA[record]);
+                road.setA(nodeA);
+                nodeA.getRoadsFrom().add(road);
+                Node nodeB = nodes.getOrCreate(records.nodesB[record]);
+                road.setB(nodeB);
+                nodeB.getRoadsTo().add(road);
+
+                if (!roadNetwork.containsVertex(nodeA)) {
+                    roadNetwork.addVertex(nodeA);
+                }
+                if (!roadNetwork.containsVertex(nodeB)) {
+                    roadNetwork.addVertex(nodeB);
+                }
+                roadNetwork.addEdge(nodeA, nodeB, road);
+            }
+        }
+
+        log.info("===");
+        log.info("network: {} vertices, {} edges", roadNetwork.vertexSet().size(), roadNetwork.edgeSet().size());
+        log.info("===");
+
+        return roadNetwork;
+    }
+
+    private static int threads(int parallelism) {
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    private static RoadColumn roadColumn(DbfField field) {
+        String name = field.getName();
+        if (NODE_A.equals(name) || NODE_B.equals(name)) {
+            return null;
+        }
+        RoadColumn column = RoadColumn.find(name);
+        if (column == null) {
+            log.warn("column {} of type {} skipped", name, field.getType());
+            return null;
+        }
+        if (!field.isNumeric()) {
+            throw new IllegalArgumentException("Column " + name + " is not numeric but " + field.getType());
+        }
+        return column;
+    }
+
+    private static FieldReader fieldReader(DbfFile dbf, DbfField field, RoadColumn column,
+                                           RoadAttributes.ColumnSetter setter) {
+        if (column.getType() == RoadColumn.Type.LONG) {
+            return (record, edge) -> {
+                if (!dbf.isNull(record, field)) {
+                    setter.set(edge, dbf.getLong(record, field));
+                }
+            };
+        }
+        return (record, edge) -> {
+            if (!dbf.isNull(record, field)) {
+                setter.set(edge, dbf.getDouble(record, field));
+            }
+        };
+    }
+
+    private static DbfField nodeField(DbfFile dbf, String name) {
+        DbfField field = dbf.field(name);
+        if (field == null || !field.isNumeric()) {
+            throw new IllegalArgumentException("Column " + name + " must be a numeric field: " + field);
+        }
+        return field;
+    }
+
+    /**
+     * Decodes one projected field of a record into the column of its edge; null fields keep the default, as with
+     * GeoTools.
+     */
+    @FunctionalInterface
+    private interface FieldReader {
+        void read(int record, int edge);
+    }
+
+    /**
+     * Decodes the records {@code [from, to)}, splitting ranges larger than the threshold in two.
+     */
+    @RequiredArgsConstructor
+    private static class RecordRange extends RecursiveAction {
+        private final DbfFile dbf;
+        private final RoadAttributes attributes;
+        // edge id of the first record
+        private final int first;
+        private final List<FieldReader> readers;
+        private final DbfField nodeA;
+        private final DbfField nodeB;
+        private final long[] nodesA;
+        private final long[] nodesB;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        @Override
+        protected void compute() {
+            if (to - from > threshold) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RecordRange(dbf, attributes, first, readers, nodeA, nodeB, nodesA, nodesB,
+                                from, middle, threshold),
+                        new RecordRange(dbf, attributes, first, readers, nodeA, nodeB, nodesA, nodesB,
+                                middle, to, threshold));
+                return;
+            }
+            for (int record = from; record < to; record++) {
+                // same feature ids GeoTools gives: the 1-based record number
+                attributes.setRecord(first + record, record + 1);
+            }
+            for (FieldReader reader : readers) {
+                for (int record = from; record < to; record++) {
+                    if (!dbf.isDeleted(record)) {
+                        reader.read(record, first + record);
+                    }
+                }
+            }
+            dbf.readLongs(nodeA, 0, nodesA, from, to);
+            dbf.readLongs(nodeB, 0, nodesB, from, to);
+        }
+    }
+}
@@ -28,6 +28,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.geotools.data.FeatureSource;
 import org.geotools.data.FileDataStore;
 import org.geotools.data.FileDataStoreFinder;
+import org.geotools.data.Query;
 import org.geotools.data.simple.SimpleFeatureSource;
 import org.geotools.feature.FeatureCollection;
 import org.geotools.feature.FeatureIterator;
@@ -38,12 +39,17 @@ import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
 import org.opengis.filter.Filter;
 import ro.albertlr.graph.Node;
+import ro.albertlr.graph.NodeDictionary;
 import ro.albertlr.graph.Road;
+import ro.albertlr.graph.RoadAttributes;
+import ro.albertlr.graph.RoadColumn;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
 import java.util.function.DoubleConsumer;
 import java.util.function.IntConsumer;
@@ -58,6 +64,14 @@ import java.util.function.ToLongFunction;
 public class ReadShapefile {
 
     public static Graph<Node, Road> importFile(String filename) throws IOException {
+        return importFile(filename, new RoadAttributes(new NodeDictionary(), EnumSet.allOf(RoadColumn.class), false));
+    }
+
+    /**
+     * @param attributes store of the network, filled with its roads and, through its dictionary, its nodes; only its
+     *                   columns are loaded besides NODEA and NODEB
+     */
+    public static Graph<Node, Road> importFile(String filename, RoadAttributes attributes) throws IOException {
         File file = new File(filename);
         if (!file.exists()) {
             log.error("The file {} does not exists", filename);
@@ -78,15 +92,23 @@ public class ReadShapefile {
         FeatureSource<SimpleFeatureType, SimpleFeature> source = store.getFeatureSource(typeName);
         Filter filter = Filter.INCLUDE; // ECQL.toFilter("BBOX(THE_GEOM, 10,20,30,40)")
 
-        FeatureCollection<SimpleFeatureType, SimpleFeature> collection = source.getFeatures(filter);
+        Query query = new Query(typeName, filter);
+        List<String> propertyNames = new ArrayList<>(Arrays.asList("NODEA", "NODEB"));
+        for (RoadColumn column : attributes.getColumns()) {
+            propertyNames.add(column.name());
+        }
+        query.setPropertyNames(propertyNames.toArray(new String[0]));
+        attributes.setTypeName(typeName);
+
+        FeatureCollection<SimpleFeatureType, SimpleFeature> collection = source.getFeatures(query);
         try (FeatureIterator<SimpleFeature> features = collection.features()) {
             while (features.hasNext()) {
                 SimpleFeature feature = features.next();
 
-                Road road = Road.builder().featureId(feature.getID()).build();
+                Road road = attributes.road(attributes.add(record(feature.getID())));
 
                 for (Property property : feature.getProperties()) {
-                    setProperty(property, road);
+                    setProperty(property, road, attributes.getNodes());
                 }
 
                 log.debug(road.toString());
@@ -117,9 +139,7 @@ public class ReadShapefile {
         return roadNetwork;
     }
 
-    private static Map<String, Node> nodeCache = new HashMap<>();
-
-    private static void setProperty(Property property, Road road) {
+    private static void setProperty(Property property, Road road, NodeDictionary nodes) {
         log.trace("\tproperty: [{}<{}>={}]; {}", property.getName(), property.getDescriptor().getName(), property.getValue(), property);
 
         String key = property.getName().toString();
@@ -130,100 +150,46 @@ public class ReadShapefile {
         String value = String.valueOf(property.getValue());
         switch (key) {
             case "NODEA": {
-                Node nodeA = getOrCreate(value);
+                Node nodeA = nodes.getOrCreate(value);
 
                 road.setA(nodeA);
                 nodeA.getRoadsFrom().add(road);
             }
             break;
             case "NODEB": {
-                Node nodeB = getOrCreate(value);
+                Node nodeB = nodes.getOrCreate(value);
 
                 road.setB(nodeB);
                 nodeB.getRoadsTo().add(road);
             }
             break;
-            case "ID":
-                set(road::setId, Parsers.LONG.getParser(), value);
-                break;
-            case "SP_F":
-                road.setSP_F((int) Double.parseDouble(value));
-                break;
-            case "SP_B":
-                road.setSP_B((int) Double.parseDouble(value));
-                break;
-            case "SP_F_M":
-                road.setSP_F_M((int) Double.parseDouble(value));
-                break;
-            case "SP_B_M":
-                set(road::setSP_B_M, Parsers.DOUBLE.getParser(), value);
-                break;
-            case "CAP_F_M":
-                set(road::setCAP_F_M, Parsers.DOUBLE.getParser(), value);
-                break;
-            case "CAP_B_M":
-                road.setCAP_B_M((int) Double.parseDouble(value));
-                break;
-            case "LD_F_M":
-                road.setLD_F_M((int) Double.parseDouble(value));
-                break;
-            case "LD_B_M":
-                road.setLD_B_M((int) Double.parseDouble(value));
-                break;
-            case "SPF_F_M":
-                road.setSPF_F_M((int) Double.parseDouble(value));
-                break;
-            case "SPF_B_M":
-                road.setSPF_B_M((int) Double.parseDouble(value));
-                break;
-            case "LDF_F_M":
-                road.setLDF_F_M((int) Double.parseDouble(value));
-                break;
-            case "LDF_B_M":
-                road.setLDF_B_M((int) Double.parseDouble(value));
-                break;
-            case "SP_F_E":
-                road.setSP_F_E((int) Double.parseDouble(value));
-                break;
-            case "SP_B_E":
-                road.setSP_B_E((int) Double.parseDouble(value));
-                break;
-            case "CAP_F_E":
-                road.setCAP_F_E((int) Double.parseDouble(value));
-                break;
-            case "CAP_B_E":
-                road.setCAP_B_E((int) Double.parseDouble(value));
-                break;
-            case "LD_F_E":
-                road.setLD_F_E((int) Double.parseDouble(value));
-                break;
-            case "LD_B_E":
-                road.setLD_B_E((int) Double.parseDouble(value));
-                break;
-            case "SPF_F_E":
-                road.setSPF_F_E((int) Double.parseDouble(value));
-                break;
-            case "SPF_B_E":
-                road.setSPF_B_E((int) Double.parseDouble(value));
-                break;
-            case "LDF_F_E":
-                road.setLDF_F_E((int) Double.parseDouble(value));
-                break;
-            case "LDF_B_E":
-                set(road::setLDF_B_E, Parsers.INT.getParser(), value);
-                break;
-            case "LEVEL":
-                set(road::setLEVEL, Parsers.INT.getParser(), value);
-                break;
-            case "LENGTH":
-                set(road::setLength, (ToLongFunction<String>) Long::parseLong, value);
-                break;
             case "the_geom":
                 // do nothing
                 break;
-            default:
-                log.warn("PROPERTY[{},{}]: {} with value {} skipped", road.getFeatureId(), road.getId(), key, value);
-                break;
+            default: {
+                RoadColumn column = RoadColumn.find(key);
+                if (column == null || !road.getAttributes().has(column)) {
+                    log.warn("PROPERTY[{},{}]: {} with value {} skipped", road.getFeatureId(), road.getId(), key, value);
+                } else if (column.getType() == RoadColumn.Type.LONG) {
+                    set(parsed -> road.set(column, parsed), Parsers.LONG.getParser(), value);
+                } else if (column.getType() == RoadColumn.Type.DOUBLE) {
+                    set(parsed -> road.set(column, parsed), Parsers.DOUBLE.getParser(), value);
+                } else {
+                    set(parsed -> road.set(column, (long) parsed), Parsers.INT.getParser(), value);
+                }
+            }
+            break;
+        }
+    }
+
+    /**
+     * @return the 1-based record number at the end of a shapefile feature id, {@code 0} if it has none
+     */
+    private static int record(String featureId) {
+        try {
+            return Integer.parseInt(featureId.substring(featureId.lastIndexOf('.') + 1));
+        } catch (NumberFormatException e) {
+            return 0;
         }
     }
 
@@ -275,15 +241,4 @@ public class ReadShapefile {
     }
 
     private Map<String, LongConsumer> longConsumers;
-
-    private Node getOrCreate(String tazId) {
-        Node node;
-        if (nodeCache.containsKey(tazId)) {
-            node = nodeCache.get(tazId);
-        } else {
-            node = Node.builder().tazId(tazId).build();
-            nodeCache.put(tazId, node);
-        }
-        return node;
-    }
 }
@@ -0,0 +1,67 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class NodeDictionaryTest {
+
+    @Test
+    public void numericAndTextIdsShareTheirIndex() {
+        NodeDictionary nodes = new NodeDictionary();
+        Node text = nodes.getOrCreate("42");
+        assertSame(text, nodes.getOrCreate(42L));
+        Node numeric = nodes.getOrCreate(7L);
+        assertSame(numeric, nodes.getOrCreate("7"));
+        assertSame(numeric, nodes.getOrCreate(7L));
+        Node other = nodes.getOrCreate("B-12");
+
+        assertEquals(3, nodes.size());
+        assertEquals(0, nodes.index("42"));
+        assertEquals(1, nodes.index("7"));
+        assertEquals(2, nodes.index("B-12"));
+        assertSame(other, nodes.node(2));
+        assertEquals("7", nodes.tazId(1));
+        assertEquals(NodeDictionary.NONE, nodes.index("8"));
+        assertNull(nodes.get("8"));
+    }
+
+    @Test
+    public void restoredNodesFollowTheCreatedOnes() {
+        NodeDictionary nodes = new NodeDictionary();
+        nodes.getOrCreate(1L);
+        Node restored = Node.builder().tazId("2").build();
+        nodes.add(restored);
+        assertEquals(1, nodes.index("2"));
+        assertSame(restored, nodes.getOrCreate(2L));
+        assertEquals(2, nodes.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicatesAreRejected() {
+        NodeDictionary nodes = new NodeDictionary();
+        nodes.getOrCreate(42L);
+        nodes.add(Node.builder().tazId("42").build());
+    }
+}
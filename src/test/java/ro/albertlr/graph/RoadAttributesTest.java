@@ -0,0 +1,156 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph;
+
+import org.junit.Test;
+
+import java.nio.Buffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RoadAttributesTest {
+    // well past the initial capacity of 1024, so the columns grow twice
+    private static final int EDGES = 3000;
+
+    @Test
+    public void appendedEdgesSurviveGrowing() {
+        for (boolean offHeap : new boolean[]{false, true}) {
+            RoadAttributes attributes = attributes(offHeap);
+            for (int i = 0; i < EDGES; i++) {
+                int edge = attributes.add(i + 1);
+                assertEquals(i, edge);
+                attributes.setFrom(edge, i % 7);
+                attributes.setTo(edge, i % 11);
+                attributes.set(RoadColumn.ID, edge, (1L << 40) + i);
+                attributes.set(RoadColumn.SP_F, edge, 2.0 * i);
+                attributes.set(RoadColumn.CAP_F_M, edge, i + 0.5);
+            }
+            assertEquals(EDGES, attributes.size());
+            for (int edge = 0; edge < EDGES; edge++) {
+                String message = (offHeap ? "off heap" : "on heap") + ", edge " + edge;
+                assertEquals(message, edge + 1, attributes.getRecord(edge));
+                assertEquals(message, edge % 7, attributes.getFrom(edge));
+                assertEquals(message, edge % 11, attributes.getTo(edge));
+                assertEquals(message, (1L << 40) + edge, attributes.getLong(RoadColumn.ID, edge));
+                assertEquals(message, 2 * edge, attributes.getInt(RoadColumn.SP_F, edge));
+                assertEquals(message, edge + 0.5, attributes.getDouble(RoadColumn.CAP_F_M, edge), 0);
+            }
+        }
+    }
+
+    @Test
+    public void reservedEdgesAreWrittenInBulk() {
+        for (boolean offHeap : new boolean[]{false, true}) {
+            RoadAttributes attributes = attributes(offHeap);
+            attributes.add(0);
+            int first = attributes.reserve(EDGES);
+            assertEquals(1, first);
+            assertEquals(EDGES + 1, attributes.size());
+            assertEquals(NodeDictionary.NONE, attributes.getFrom(first + EDGES - 1));
+            assertEquals(NodeDictionary.NONE, attributes.getTo(first + EDGES - 1));
+
+            IntBuffer from = IntBuffer.allocate(EDGES + 1);
+            IntBuffer to = IntBuffer.allocate(EDGES);
+            IntBuffer records = IntBuffer.allocate(EDGES);
+            LongBuffer ids = LongBuffer.allocate(EDGES);
+            IntBuffer speeds = IntBuffer.allocate(EDGES);
+            DoubleBuffer capacities = DoubleBuffer.allocate(EDGES);
+            // only the remaining values are copied
+            from.put(-5);
+            for (int i = 0; i < EDGES; i++) {
+                from.put(i % 13);
+                to.put(i % 17);
+                records.put(i + 1);
+                ids.put(-i);
+                speeds.put(3 * i);
+                capacities.put(i / 4.0);
+            }
+            for (Buffer buffer : Arrays.asList(to, records, ids, speeds, capacities)) {
+                buffer.flip();
+            }
+            from.flip().position(1);
+            attributes.put(first, from, to, records);
+            attributes.put(RoadColumn.ID, first, ids);
+            attributes.put(RoadColumn.SP_F, first, speeds);
+            attributes.put(RoadColumn.CAP_F_M, first, capacities);
+            assertEquals("the caller's buffer is not consumed", 1, from.position());
+            assertEquals("the caller's buffer is not consumed", 0, ids.position());
+
+            // grow once more after the bulk writes
+            attributes.reserve(EDGES);
+            for (int i = 0; i < EDGES; i++) {
+                String message = (offHeap ? "off heap" : "on heap") + ", edge " + (first + i);
+                assertEquals(message, i % 13, attributes.getFrom(first + i));
+                assertEquals(message, i % 17, attributes.getTo(first + i));
+                assertEquals(message, i + 1, attributes.getRecord(first + i));
+                assertEquals(message, -i, attributes.getLong(RoadColumn.ID, first + i));
+                assertEquals(message, 3 * i, attributes.getInt(RoadColumn.SP_F, first + i));
+                assertEquals(message, i / 4.0, attributes.getDouble(RoadColumn.CAP_F_M, first + i), 0);
+            }
+            assertEquals(0, attributes.getRecord(0));
+            assertEquals(0, attributes.getLong(RoadColumn.ID, 0));
+        }
+    }
+
+    @Test
+    public void settersNarrowToTheColumnType() {
+        RoadAttributes attributes = attributes(true);
+        int edge = attributes.add(1);
+        attributes.setter(RoadColumn.SP_F).set(edge, 12.9);
+        attributes.setter(RoadColumn.ID).set(edge, 7.9);
+        attributes.setter(RoadColumn.CAP_F_M).set(edge, 3L);
+        assertEquals(12, attributes.getInt(RoadColumn.SP_F, edge));
+        assertEquals(7, attributes.getLong(RoadColumn.ID, edge));
+        assertEquals(3, attributes.getDouble(RoadColumn.CAP_F_M, edge), 0);
+    }
+
+    @Test
+    public void unstoredColumnsReadZero() {
+        RoadAttributes attributes = attributes(false);
+        for (int i = 0; i < EDGES; i++) {
+            attributes.add(i);
+        }
+        assertFalse(attributes.has(RoadColumn.LENGTH));
+        assertTrue(attributes.has(RoadColumn.SP_F));
+        for (int edge : new int[]{0, 1023, 1024, EDGES - 1}) {
+            assertEquals(0, attributes.getLong(RoadColumn.LENGTH, edge));
+            assertEquals(0, attributes.getInt(RoadColumn.SP_B, edge));
+            assertEquals(0, attributes.getDouble(RoadColumn.SP_B_M, edge), 0);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unstoredColumnsRefuseWrites() {
+        RoadAttributes attributes = new RoadAttributes(new NodeDictionary(), Collections.emptySet(), false);
+        attributes.set(RoadColumn.LENGTH, attributes.add(1), 5L);
+    }
+
+    private static RoadAttributes attributes(boolean offHeap) {
+        return new RoadAttributes(new NodeDictionary(),
+                Arrays.asList(RoadColumn.ID, RoadColumn.SP_F, RoadColumn.CAP_F_M), offHeap);
+    }
+}
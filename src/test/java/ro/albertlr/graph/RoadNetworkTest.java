@@ -0,0 +1,129 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph;
+
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultDirectedWeightedGraph;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RoadNetworkTest {
+
+    @Test
+    public void answersLikeTheImportedGraph() {
+        Random random = new Random(21);
+        RoadAttributes attributes = new RoadAttributes(new NodeDictionary(), Collections.emptySet(), false);
+        NodeDictionary nodes = attributes.getNodes();
+        // edges before the block belong to another network
+        for (int i = 0; i < 5; i++) {
+            road(attributes, nodes.getOrCreate(i), nodes.getOrCreate(i + 1));
+        }
+        int nodeCount = 60;
+        int first = attributes.size();
+        Set<Long> pairs = new HashSet<>();
+        for (int i = 0; i < 400; i++) {
+            int a = random.nextInt(nodeCount);
+            // some loops, some nodes without roads
+            int b = random.nextInt(10) == 0 ? a : random.nextInt(nodeCount);
+            if (pairs.add((long) a * nodeCount + b)) {
+                road(attributes, nodes.getOrCreate(a), nodes.getOrCreate(b));
+            }
+        }
+        nodes.getOrCreate(nodeCount);
+        int edgeCount = attributes.size() - first;
+
+        Graph<Node, Road> expected = new DefaultDirectedWeightedGraph<>(null, null);
+        for (int index = 0; index < nodes.size(); index++) {
+            expected.addVertex(nodes.node(index));
+        }
+        for (int edge = first; edge < first + edgeCount; edge++) {
+            Road road = attributes.road(edge);
+            expected.addEdge(road.getA(), road.getB(), road);
+        }
+        RoadNetwork network = new RoadNetwork(attributes, first, edgeCount);
+
+        assertEquals(new ArrayList<>(expected.vertexSet()), new ArrayList<>(network.vertexSet()));
+        assertEquals(new ArrayList<>(expected.edgeSet()), new ArrayList<>(network.edgeSet()));
+        List<Node> vertices = new ArrayList<>(expected.vertexSet());
+        for (Node u : vertices) {
+            assertEquals("out of " + u, new ArrayList<>(expected.outgoingEdgesOf(u)),
+                    new ArrayList<>(network.outgoingEdgesOf(u)));
+            assertEquals("in of " + u, new ArrayList<>(expected.incomingEdgesOf(u)),
+                    new ArrayList<>(network.incomingEdgesOf(u)));
+            assertEquals("out degree of " + u, expected.outgoingEdgesOf(u).size(), network.outDegreeOf(u));
+            assertEquals("in degree of " + u, expected.incomingEdgesOf(u).size(), network.inDegreeOf(u));
+            for (Node v : vertices) {
+                assertEquals(u + " -> " + v, expected.getAllEdges(u, v), network.getAllEdges(u, v));
+                assertEquals(u + " -> " + v, expected.getEdge(u, v), network.getEdge(u, v));
+                assertEquals(u + " -> " + v, expected.containsEdge(u, v), network.containsEdge(u, v));
+            }
+        }
+        for (int edge = 0; edge < attributes.size(); edge++) {
+            Road road = attributes.road(edge);
+            assertEquals("edge " + edge, expected.containsEdge(road), network.containsEdge(road));
+            assertEquals("edge " + edge, expected.containsEdge(road), network.edgeSet().contains(road));
+            if (network.containsEdge(road)) {
+                assertEquals(road.getA(), network.getEdgeSource(road));
+                assertEquals(road.getB(), network.getEdgeTarget(road));
+                assertTrue(network.outgoingEdgesOf(road.getA()).contains(road));
+                assertTrue(network.incomingEdgesOf(road.getB()).contains(road));
+                assertEquals(road.getA().equals(road.getB()), network.incomingEdgesOf(road.getA()).contains(road));
+            }
+        }
+
+        Node stranger = Node.builder().tazId("stranger").build();
+        assertFalse(network.containsVertex(stranger));
+        assertNull(network.getAllEdges(stranger, vertices.get(0)));
+        RoadAttributes other = new RoadAttributes(nodes, Collections.emptySet(), false);
+        other.reserve(first + 1);
+        assertFalse("an edge of another store", network.containsEdge(other.road(first)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownVerticesAreRejected() {
+        RoadAttributes attributes = new RoadAttributes(new NodeDictionary(), Collections.emptySet(), false);
+        road(attributes, attributes.getNodes().getOrCreate(1), attributes.getNodes().getOrCreate(2));
+        new RoadNetwork(attributes, 0, 1).outgoingEdgesOf(Node.builder().tazId("3").build());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void networksAreReadOnly() {
+        RoadAttributes attributes = new RoadAttributes(new NodeDictionary(), Collections.emptySet(), false);
+        road(attributes, attributes.getNodes().getOrCreate(1), attributes.getNodes().getOrCreate(2));
+        new RoadNetwork(attributes, 0, 1).removeEdge(attributes.road(0));
+    }
+
+    private static void road(RoadAttributes attributes, Node a, Node b) {
+        Road road = attributes.road(attributes.add(attributes.size() + 1));
+        road.setA(a);
+        road.setB(b);
+    }
+}
@@ -0,0 +1,84 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm;
+
+import org.junit.Test;
+import ro.albertlr.graph.algorithm.SampleNetwork.Arc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class AllPairsShortestPathTest {
+
+    @Test
+    public void compactDijkstraMatchesTheReference() {
+        SampleNetwork network = SampleNetwork.random(11, 200, false);
+        CompactDijkstra dijkstra = new CompactDijkstra(network.compact());
+        for (int source = 0; source < network.getVertexCount(); source += 7) {
+            dijkstra.search(source);
+            double[] expected = network.distances(source);
+            SampleNetwork.assertDistances("source " + source, expected, dijkstra.getDistances());
+            network.assertShortestPathTree("source " + source, source, expected, dijkstra.getPredecessors());
+        }
+    }
+
+    @Test
+    public void everyRowMatchesTheReference() {
+        SampleNetwork network = SampleNetwork.random(12, 150, false);
+        for (int parallelism : new int[]{1, 4}) {
+            DistanceMatrix matrix = AllPairsShortestPath.builder()
+                    .graph(network.compact())
+                    .parallelism(parallelism)
+                    .build()
+                    .compute();
+            for (int source = 0; source < network.getVertexCount(); source++) {
+                SampleNetwork.assertDistances(parallelism + " workers, source " + source, network.distances(source),
+                        matrix.row(source));
+            }
+        }
+    }
+
+    @Test
+    public void sinkReceivesEveryRowOnceWithItsTree() {
+        SampleNetwork network = SampleNetwork.random(13, 120, true);
+        CompactGraph<Integer, Arc> graph = network.compact();
+        int n = graph.getVertexCount();
+        double[][] distances = new double[n][];
+        int[][] predecessors = new int[n][];
+        AllPairsShortestPath.builder()
+                .graph(graph)
+                .parallelism(3)
+                .build()
+                .compute((source, row, tree) -> {
+                    synchronized (distances) {
+                        assertNull("row " + source + " twice", distances[source]);
+                        distances[source] = row.clone();
+                        predecessors[source] = tree.clone();
+                    }
+                });
+        for (int source = 0; source < n; source++) {
+            assertNotNull("row " + source, distances[source]);
+            assertEquals(0, distances[source][source], 0);
+            SampleNetwork.assertDistances("source " + source, network.distances(source), distances[source]);
+            network.assertShortestPathTree("source " + source, source, distances[source], predecessors[source]);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm;
+
+import org.junit.Test;
+import ro.albertlr.graph.algorithm.SampleNetwork.Arc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BlockedFloydWarshallTest {
+
+    @Test
+    public void distancesMatchTheReference() {
+        SampleNetwork network = SampleNetwork.random(61, 130, false);
+        // tiles that do not divide the vertex count, and a single tile
+        for (int blockSize : new int[]{1, 16, 50, 200}) {
+            BlockedFloydWarshall floydWarshall = compute(network, blockSize);
+            for (int source = 0; source < network.getVertexCount(); source++) {
+                double[] expected = network.distances(source);
+                for (int target = 0; target < network.getVertexCount(); target++) {
+                    SampleNetwork.assertDistance("block " + blockSize + ", " + source + " -> " + target,
+                            expected[target], floydWarshall.distance(source, target));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void nextHopsFollowShortestPaths() {
+        SampleNetwork network = SampleNetwork.random(62, 100, true);
+        CompactGraph<Integer, Arc> graph = network.compact();
+        BlockedFloydWarshall floydWarshall = compute(network, 8);
+        for (int source = 0; source < graph.getVertexCount(); source++) {
+            double[] expected = network.distances(source);
+            for (int target = 0; target < graph.getVertexCount(); target++) {
+                int hop = floydWarshall.nextHop(source, target);
+                if (source == target) {
+                    assertEquals(source, hop);
+                } else if (expected[target] == Double.POSITIVE_INFINITY) {
+                    assertEquals(BlockedFloydWarshall.NO_NEXT_HOP, hop);
+                } else {
+                    double length = 0;
+                    int steps = 0;
+                    for (int u = source; u != target; u = floydWarshall.nextHop(u, target)) {
+                        assertTrue(source + " -> " + target + " does not end", steps++ < graph.getVertexCount());
+                        length += weight(graph, u, floydWarshall.nextHop(u, target));
+                    }
+                    SampleNetwork.assertDistance(source + " -> " + target, expected[target], length);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void rowsAreWrittenWithShortestPathTrees() {
+        SampleNetwork network = SampleNetwork.random(63, 90, true);
+        int[] rows = new int[network.getVertexCount()];
+        compute(network, 32).writeTo((source, distances, predecessors) -> {
+            rows[source]++;
+            double[] expected = network.distances(source);
+            SampleNetwork.assertDistances("source " + source, expected, distances);
+            network.assertShortestPathTree("source " + source, source, expected, predecessors);
+        });
+        for (int source = 0; source < rows.length; source++) {
+            assertEquals("rows of " + source, 1, rows[source]);
+        }
+    }
+
+    @Test
+    public void toDistanceMatrixCopiesTheDistances() {
+        SampleNetwork network = SampleNetwork.random(64, 70, false);
+        BlockedFloydWarshall floydWarshall = compute(network, 0);
+        assertEquals(64, floydWarshall.getBlockSize());
+        DistanceMatrix matrix = floydWarshall.toDistanceMatrix();
+        for (int source = 0; source < network.getVertexCount(); source++) {
+            SampleNetwork.assertDistances("source " + source, network.distances(source), matrix.row(source));
+        }
+    }
+
+    private static BlockedFloydWarshall compute(SampleNetwork network, int blockSize) {
+        return BlockedFloydWarshall.builder()
+                .graph(network.compact())
+                .parallelism(3)
+                .blockSize(blockSize)
+                .build()
+                .compute();
+    }
+
+    private static double weight(CompactGraph<Integer, Arc> graph, int from, int to) {
+        for (int arc = graph.firstArc(from); arc < graph.endArc(from); arc++) {
+            if (graph.target(arc) == to) {
+                return graph.weight(arc);
+            }
+        }
+        throw new AssertionError("no arc " + from + " -> " + to);
+    }
+}
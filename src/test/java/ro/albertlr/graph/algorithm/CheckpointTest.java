@@ -0,0 +1,188 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ro.albertlr.graph.algorithm.store.MappedDistanceMatrix;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CheckpointTest {
+    private static final Flushable NOTHING = () -> {
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void interruptedRunResumesToTheFullMatrix() throws IOException {
+        SampleNetwork network = SampleNetwork.random(151, 200, false);
+        int n = network.getVertexCount();
+        AllPairsShortestPath apsp = AllPairsShortestPath.builder()
+                .graph(network.compact())
+                .parallelism(3)
+                .build();
+        Path output = folder.newFile("distances.apsp").toPath();
+        Path file = folder.getRoot().toPath().resolve("distances.checkpoint");
+
+        // the run crashes after 60 rows: the checkpoint and the matrix are not closed
+        MappedDistanceMatrix interrupted = MappedDistanceMatrix.create(output, n, MappedDistanceMatrix.Cell.FLOAT, null);
+        Checkpoint checkpoint = Checkpoint.open(file, "run", n, interrupted, 0);
+        AtomicInteger rows = new AtomicInteger();
+        try {
+            apsp.compute((source, distances, predecessors) -> {
+                if (rows.incrementAndGet() > 60) {
+                    throw new IllegalStateException("crash");
+                }
+                interrupted.accept(source, distances, predecessors);
+            }, checkpoint);
+            throw new AssertionError("the run was not interrupted");
+        } catch (IllegalStateException e) {
+            // rethrown by the pool, maybe as a copy of the one thrown by a worker
+            assertTrue(e.toString(), e.getMessage().contains("crash"));
+        }
+        interrupted.close();
+
+        boolean[] computed = new boolean[n];
+        try (MappedDistanceMatrix matrix = MappedDistanceMatrix.open(output, true);
+             Checkpoint resumed = Checkpoint.open(file, "run", n, matrix, 0)) {
+            int completed = resumed.getCompletedCount();
+            assertTrue(completed + " sources completed", completed > 0 && completed <= 60);
+            boolean[] before = new boolean[n];
+            for (int source = 0; source < n; source++) {
+                before[source] = resumed.isCompleted(source);
+            }
+            apsp.compute((source, distances, predecessors) -> {
+                assertFalse("source " + source + " recomputed", before[source]);
+                computed[source] = true;
+                matrix.accept(source, distances, predecessors);
+            }, resumed);
+            for (int source = 0; source < n; source++) {
+                assertTrue("source " + source, before[source] != computed[source]);
+            }
+            assertEquals(n, resumed.getCompletedCount());
+        }
+
+        DistanceMatrix expected = apsp.compute();
+        try (MappedDistanceMatrix matrix = MappedDistanceMatrix.open(output)) {
+            for (int source = 0; source < n; source++) {
+                for (int target = 0; target < n; target++) {
+                    assertEquals(source + " -> " + target, (float) expected.get(source, target),
+                            matrix.get(source, target), 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void checkpointsOfAnotherRunAreIgnored() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("run.checkpoint");
+        try (Checkpoint checkpoint = Checkpoint.open(file, "DIJKSTRA|SP_B_M", 10, NOTHING, Long.MAX_VALUE)) {
+            checkpoint.completed(3);
+            checkpoint.completed(7);
+        }
+        try (Checkpoint checkpoint = Checkpoint.open(file, "DIJKSTRA|SP_B_M", 10, NOTHING, Long.MAX_VALUE)) {
+            assertEquals(2, checkpoint.getCompletedCount());
+            assertTrue(checkpoint.isCompleted(3));
+            assertTrue(checkpoint.isCompleted(7));
+            assertFalse(checkpoint.isCompleted(4));
+        }
+        try (Checkpoint checkpoint = Checkpoint.open(file, "PHAST|SP_B_M", 10, NOTHING, Long.MAX_VALUE)) {
+            assertEquals(0, checkpoint.getCompletedCount());
+        }
+        try (Checkpoint checkpoint = Checkpoint.open(file, "DIJKSTRA|SP_B_M", 11, NOTHING, Long.MAX_VALUE)) {
+            assertEquals(0, checkpoint.getCompletedCount());
+        }
+    }
+
+    @Test
+    public void savesReplaceTheCheckpointAtomically() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("run.checkpoint");
+        Path temporary = file.resolveSibling("run.checkpoint.tmp");
+        // left over by a save that crashed
+        Files.write(temporary, "partial".getBytes(StandardCharsets.US_ASCII));
+
+        AtomicInteger flushes = new AtomicInteger();
+        boolean[] failing = {false};
+        Flushable output = () -> {
+            if (failing[0]) {
+                throw new IOException("disk full");
+            }
+            flushes.incrementAndGet();
+        };
+        Checkpoint checkpoint = Checkpoint.open(file, "run", 100, output, Long.MAX_VALUE);
+        for (int source = 0; source < 50; source++) {
+            checkpoint.completed(source);
+        }
+        checkpoint.save();
+        assertEquals("the output is flushed before the save", 1, flushes.get());
+        assertFalse(Files.exists(temporary));
+        byte[] saved = Files.readAllBytes(file);
+
+        checkpoint.completed(50);
+        failing[0] = true;
+        try {
+            checkpoint.save();
+            throw new AssertionError("saved without flushing the output");
+        } catch (IOException e) {
+            assertEquals("disk full", e.getMessage());
+        }
+        assertArrayEquals(saved, Files.readAllBytes(file));
+
+        try (Checkpoint reopened = Checkpoint.open(file, "run", 100, NOTHING, Long.MAX_VALUE)) {
+            assertEquals(50, reopened.getCompletedCount());
+        }
+    }
+
+    @Test
+    public void intervalThrottlesTheSaves() throws IOException {
+        AtomicInteger flushes = new AtomicInteger();
+        Path file = folder.getRoot().toPath().resolve("run.checkpoint");
+        try (Checkpoint checkpoint = Checkpoint.open(file, "run", 10, flushes::incrementAndGet, Long.MAX_VALUE)) {
+            for (int source = 0; source < 10; source++) {
+                checkpoint.completed(source);
+            }
+            assertEquals(0, flushes.get());
+            assertFalse(Files.exists(file));
+        }
+        assertEquals("saved once on close", 1, flushes.get());
+        assertTrue(Files.exists(file));
+    }
+
+    @Test(expected = IOException.class)
+    public void otherFilesAreRejected() throws IOException {
+        Path file = folder.newFile("run.checkpoint").toPath();
+        Files.write(file, Arrays.asList("source,target,distance", "0,1,2.5"), StandardCharsets.US_ASCII);
+        Checkpoint.open(file, "run", 10, NOTHING, 0);
+    }
+}
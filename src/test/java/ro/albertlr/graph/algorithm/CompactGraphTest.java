@@ -0,0 +1,119 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm;
+
+import org.junit.Test;
+import ro.albertlr.graph.algorithm.SampleNetwork.Arc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompactGraphTest {
+
+    @Test
+    public void arcsOfEveryVertexAreTheEdgesOfTheGraph() {
+        SampleNetwork network = SampleNetwork.random(1, 150, false);
+        CompactGraph<Integer, Arc> graph = network.compact();
+
+        assertEquals(network.getVertexCount(), graph.getVertexCount());
+        assertEquals(network.getArcs().size(), graph.getArcCount());
+        for (int v = 0; v < network.getVertexCount(); v++) {
+            assertEquals(v, graph.id(v));
+            assertEquals(Integer.valueOf(v), graph.vertex(v));
+        }
+        List<List<String>> expected = arcsByTail(network, false);
+        for (int u = 0; u < graph.getVertexCount(); u++) {
+            List<String> actual = new ArrayList<>();
+            for (int arc = graph.firstArc(u); arc < graph.endArc(u); arc++) {
+                Arc edge = graph.edge(arc);
+                assertEquals(u, edge.getFrom());
+                assertEquals(edge.getTo(), graph.target(arc));
+                assertEquals(edge.getWeight(), graph.weight(arc), 0);
+                actual.add(edge.toString());
+            }
+            assertEquals(graph.endArc(u) - graph.firstArc(u), graph.outDegree(u));
+            Collections.sort(actual);
+            assertEquals("arcs of " + u, expected.get(u), actual);
+        }
+    }
+
+    @Test
+    public void reverseTransposesEveryArc() {
+        SampleNetwork network = SampleNetwork.random(2, 150, true);
+        CompactGraph<Integer, Arc> reverse = network.compact().reverse();
+
+        assertEquals(network.getArcs().size(), reverse.getArcCount());
+        List<List<String>> expected = arcsByTail(network, true);
+        for (int v = 0; v < reverse.getVertexCount(); v++) {
+            List<String> actual = new ArrayList<>();
+            for (int arc = reverse.firstArc(v); arc < reverse.endArc(v); arc++) {
+                Arc edge = reverse.edge(arc);
+                assertEquals(v, edge.getTo());
+                assertEquals(edge.getFrom(), reverse.target(arc));
+                assertEquals(edge.getWeight(), reverse.weight(arc), 0);
+                actual.add(edge.toString());
+            }
+            Collections.sort(actual);
+            assertEquals("arcs into " + v, expected.get(v), actual);
+        }
+    }
+
+    @Test
+    public void integralWeightsAreDetected() {
+        CompactGraph<Integer, Arc> integral = SampleNetwork.random(3, 50, true).compact();
+        assertTrue(integral.isIntegral());
+        for (int arc = 0; arc < integral.getArcCount(); arc++) {
+            assertEquals(integral.weight(arc), integral.longWeight(arc), 0);
+            assertTrue(integral.weight(arc) <= integral.getMaxWeight());
+        }
+        assertFalse(SampleNetwork.random(3, 50, false).compact().isIntegral());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void targetsOutsideOfTheIndexAreRejected() {
+        SampleNetwork network = SampleNetwork.empty(3);
+        network.add(0, 1, 1);
+        network.add(1, 2, 1);
+        CompactGraph.of(network.getGraph(), VertexIndex.of(Arrays.asList(0, 1)), Arc::getWeight);
+    }
+
+    /**
+     * @return the arcs of the network as strings, sorted, by tail vertex or, when {@code reversed}, by head vertex
+     */
+    private static List<List<String>> arcsByTail(SampleNetwork network, boolean reversed) {
+        List<List<String>> arcs = new ArrayList<>();
+        for (int v = 0; v < network.getVertexCount(); v++) {
+            arcs.add(new ArrayList<>());
+        }
+        for (Arc arc : network.getArcs()) {
+            arcs.get(reversed ? arc.getTo() : arc.getFrom()).add(arc.toString());
+        }
+        for (List<String> vertexArcs : arcs) {
+            Collections.sort(vertexArcs);
+        }
+        return arcs;
+    }
+}
@@ -0,0 +1,189 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm;
+
+import org.junit.Test;
+import ro.albertlr.graph.algorithm.SampleNetwork.Arc;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DynamicAllPairsShortestPathTest {
+
+    @Test
+    public void repairsMatchAFullRecompute() {
+        SampleNetwork network = SampleNetwork.random(121, 160, false);
+        CompactGraph<Integer, Arc> graph = network.compact();
+        double[] weights = initialWeights(graph);
+        Random random = new Random(122);
+        try (DynamicAllPairsShortestPath<Integer, Arc> dynamic = dynamic(network, graph)) {
+            for (int round = 0; round < 12; round++) {
+                int[] arcs = new int[1 + random.nextInt(6)];
+                double[] changed = new double[arcs.length];
+                for (int i = 0; i < arcs.length; i++) {
+                    arcs[i] = random.nextInt(graph.getArcCount());
+                    changed[i] = nextWeight(random, weights[arcs[i]], false);
+                    weights[arcs[i]] = changed[i];
+                }
+                dynamic.update(arcs, changed, DynamicAllPairsShortestPath.CellListener.NONE);
+                assertMatrix("round " + round, reference(graph, weights), dynamic);
+            }
+        }
+    }
+
+    @Test
+    public void changedCellsAreReported() {
+        SampleNetwork network = SampleNetwork.random(123, 120, true);
+        CompactGraph<Integer, Arc> graph = network.compact();
+        double[] weights = initialWeights(graph);
+        DistanceMatrix matrix = compute(graph);
+        Random random = new Random(124);
+        try (DynamicAllPairsShortestPath<Integer, Arc> dynamic = DynamicAllPairsShortestPath.<Integer, Arc>builder()
+                .graph(graph)
+                .matrix(matrix)
+                .parallelism(3)
+                .build()) {
+            for (int round = 0; round < 12; round++) {
+                // through the edges this time, closing, reopening and reweighting a few of them
+                Map<Arc, Double> changes = new HashMap<>();
+                for (int i = 1 + random.nextInt(5); i > 0; i--) {
+                    int arc = random.nextInt(graph.getArcCount());
+                    weights[arc] = nextWeight(random, weights[arc], true);
+                    changes.put(graph.edge(arc), weights[arc]);
+                }
+                double[][] before = new double[graph.getVertexCount()][];
+                for (int source = 0; source < before.length; source++) {
+                    before[source] = matrix.row(source).clone();
+                }
+                Map<Long, double[]> reported = new ConcurrentHashMap<>();
+                long changed = dynamic.update(changes, (source, target, previous, current) ->
+                        assertNull("reported twice", reported.put(
+                                (long) source * before.length + target, new double[]{previous, current})));
+
+                DistanceMatrix expected = reference(graph, weights);
+                long differing = 0;
+                for (int source = 0; source < before.length; source++) {
+                    for (int target = 0; target < before.length; target++) {
+                        String message = "round " + round + ", " + source + " -> " + target;
+                        double after = expected.get(source, target);
+                        assertEquals(message, after, matrix.get(source, target), 0);
+                        double[] cell = reported.get((long) source * before.length + target);
+                        if (before[source][target] != after) {
+                            differing++;
+                            assertTrue(message + " not reported", cell != null);
+                            assertEquals(message, before[source][target], cell[0], 0);
+                            assertEquals(message, after, cell[1], 0);
+                        } else {
+                            assertNull(message + " reported unchanged", cell);
+                        }
+                    }
+                }
+                assertEquals("round " + round, differing, changed);
+                assertEquals("round " + round, differing, reported.size());
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeWeightsAreRejected() {
+        SampleNetwork network = SampleNetwork.random(125, 20, true);
+        CompactGraph<Integer, Arc> graph = network.compact();
+        try (DynamicAllPairsShortestPath<Integer, Arc> dynamic = dynamic(network, graph)) {
+            dynamic.update(new int[]{0}, new double[]{-1}, DynamicAllPairsShortestPath.CellListener.NONE);
+        }
+    }
+
+    private static DynamicAllPairsShortestPath<Integer, Arc> dynamic(SampleNetwork network,
+                                                                     CompactGraph<Integer, Arc> graph) {
+        return DynamicAllPairsShortestPath.<Integer, Arc>builder()
+                .graph(graph)
+                .matrix(compute(network.compact()))
+                .parallelism(3)
+                .build();
+    }
+
+    private static double[] initialWeights(CompactGraph<Integer, Arc> graph) {
+        double[] weights = new double[graph.getArcCount()];
+        for (int arc = 0; arc < weights.length; arc++) {
+            weights[arc] = graph.weight(arc);
+        }
+        return weights;
+    }
+
+    /**
+     * Closes an arc now and then, reopens a closed one, and otherwise raises or lowers its weight, sometimes to zero.
+     */
+    private static double nextWeight(Random random, double weight, boolean integral) {
+        if (weight == Double.POSITIVE_INFINITY) {
+            return integral ? random.nextInt(20) : 20 * random.nextDouble();
+        }
+        switch (random.nextInt(5)) {
+            case 0:
+                return Double.POSITIVE_INFINITY;
+            case 1:
+                return 0;
+            case 2:
+                return integral ? Math.floor(weight / 2) : weight / 2;
+            default:
+                return integral ? weight + 1 + random.nextInt(10) : weight * (1 + 2 * random.nextDouble());
+        }
+    }
+
+    private static DistanceMatrix compute(CompactGraph<Integer, Arc> graph) {
+        return AllPairsShortestPath.builder()
+                .graph(graph)
+                .parallelism(2)
+                .build()
+                .compute();
+    }
+
+    /**
+     * Every row recomputed from scratch on the current weights.
+     */
+    private static DistanceMatrix reference(CompactGraph<Integer, Arc> graph, double[] weights) {
+        SampleNetwork current = SampleNetwork.empty(graph.getVertexCount());
+        for (int u = 0; u < graph.getVertexCount(); u++) {
+            for (int arc = graph.firstArc(u); arc < graph.endArc(u); arc++) {
+                if (weights[arc] != Double.POSITIVE_INFINITY) {
+                    current.add(u, graph.target(arc), weights[arc]);
+                }
+            }
+        }
+        DistanceMatrix matrix = new DistanceMatrix(graph.getVertexCount());
+        for (int source = 0; source < graph.getVertexCount(); source++) {
+            matrix.accept(source, current.distances(source), null);
+        }
+        return matrix;
+    }
+
+    private static void assertMatrix(String message, DistanceMatrix expected,
+                                     DynamicAllPairsShortestPath<Integer, Arc> dynamic) {
+        DistanceMatrix actual = dynamic.getMatrix();
+        for (int source = 0; source < expected.size(); source++) {
+            SampleNetwork.assertDistances(message + ", source " + source, expected.row(source), actual.row(source));
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm;
+
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultDirectedWeightedGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Random road-like network for the algorithm tests, with a plain Dijkstra over its arc list as the reference. The
+ * vertices are the integers {@code [0, vertexCount)}, added in order, so their compact ids are the vertices themselves.
+ */
+public class SampleNetwork {
+    private final int vertexCount;
+    private final List<Arc> arcs = new ArrayList<>();
+    private final Graph<Integer, Arc> graph = new DefaultDirectedWeightedGraph<>(null, null);
+    private final Set<Long> pairs = new HashSet<>();
+
+    private SampleNetwork(int vertexCount) {
+        this.vertexCount = vertexCount;
+        for (int v = 0; v < vertexCount; v++) {
+            graph.addVertex(v);
+        }
+    }
+
+    /**
+     * @return a network without arcs, see {@link #add(int, int, double)}
+     */
+    public static SampleNetwork empty(int vertexCount) {
+        return new SampleNetwork(vertexCount);
+    }
+
+    /**
+     * A grid of streets, most of them two-way, some one-way or missing, plus a few long arcs and loops between random
+     * vertices, so some vertices may be unreachable. Some weights are zero.
+     *
+     * @param integral whether the weights are integers in {@code [0, 20]} or doubles in {@code [0, 20)}
+     */
+    public static SampleNetwork random(long seed, int vertexCount, boolean integral) {
+        Random random = new Random(seed);
+        SampleNetwork network = new SampleNetwork(vertexCount);
+        int side = (int) Math.ceil(Math.sqrt(vertexCount));
+        for (int u = 0; u < vertexCount; u++) {
+            for (int v : new int[]{u + 1, u + side}) {
+                if (v < vertexCount && random.nextInt(10) < 9) {
+                    network.add(u, v, weight(random, integral));
+                    if (random.nextInt(10) < 8) {
+                        network.add(v, u, weight(random, integral));
+                    }
+                }
+            }
+            if (random.nextInt(20) == 0) {
+                network.add(u, random.nextInt(vertexCount), weight(random, integral) * 3);
+            }
+        }
+        return network;
+    }
+
+    private static double weight(Random random, boolean integral) {
+        if (random.nextInt(20) == 0) {
+            return 0;
+        }
+        return integral ? 1 + random.nextInt(20) : 20 * random.nextDouble();
+    }
+
+    /**
+     * Adds an arc, unless there is one between the same vertices already.
+     */
+    public void add(int from, int to, double weight) {
+        if (pairs.add((long) from * vertexCount + to)) {
+            Arc arc = new Arc(from, to, weight);
+            arcs.add(arc);
+            graph.addEdge(from, to, arc);
+        }
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public List<Arc> getArcs() {
+        return Collections.unmodifiableList(arcs);
+    }
+
+    public Graph<Integer, Arc> getGraph() {
+        return graph;
+    }
+
+    public CompactGraph<Integer, Arc> compact() {
+        return CompactGraph.of(graph, Arc::getWeight);
+    }
+
+    /**
+     * @return the distance from the source to every vertex, {@link Double#POSITIVE_INFINITY} if unreachable
+     */
+    public double[] distances(int source) {
+        List<List<Arc>> outgoing = new ArrayList<>();
+        for (int v = 0; v < vertexCount; v++) {
+            outgoing.add(new ArrayList<>());
+        }
+        for (Arc arc : arcs) {
+            outgoing.get(arc.from).add(arc);
+        }
+        double[] distances = new double[vertexCount];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        distances[source] = 0;
+        PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        queue.add(new double[]{0, source});
+        while (!queue.isEmpty()) {
+            double[] entry = queue.poll();
+            int u = (int) entry[1];
+            if (entry[0] > distances[u]) {
+                continue;
+            }
+            for (Arc arc : outgoing.get(u)) {
+                double distance = distances[u] + arc.weight;
+                if (distance < distances[arc.to]) {
+                    distances[arc.to] = distance;
+                    queue.add(new double[]{distance, arc.to});
+                }
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * Asserts two distances are equal up to the rounding of sums taken in another order.
+     */
+    public static void assertDistance(String message, double expected, double actual) {
+        if (expected == Double.POSITIVE_INFINITY || actual == Double.POSITIVE_INFINITY) {
+            assertEquals(message, expected, actual, 0);
+        } else {
+            assertEquals(message, expected, actual, 1e-9 * Math.max(1, expected));
+        }
+    }
+
+    public static void assertDistances(String message, double[] expected, double[] actual) {
+        assertEquals(message + ": size", expected.length, actual.length);
+        for (int v = 0; v < expected.length; v++) {
+            assertDistance(message + ": vertex " + v, expected[v], actual[v]);
+        }
+    }
+
+    /**
+     * Asserts the predecessors form a shortest path tree of the distances: every reached vertex but the source has a
+     * predecessor with an arc to it of the right length.
+     */
+    public void assertShortestPathTree(String message, int source, double[] distances, int[] predecessors) {
+        for (int v = 0; v < vertexCount; v++) {
+            if (v == source || distances[v] == Double.POSITIVE_INFINITY) {
+                continue;
+            }
+            int u = predecessors[v];
+            if (u < 0) {
+                fail(message + ": vertex " + v + " has no predecessor");
+            }
+            double best = Double.POSITIVE_INFINITY;
+            for (Arc arc : arcs) {
+                if (arc.from == u && arc.to == v) {
+                    best = Math.min(best, arc.weight);
+                }
+            }
+            assertDistance(message + ": arc " + u + " -> " + v, distances[v], distances[u] + best);
+        }
+    }
+
+    /**
+     * Asserts the arcs of a {@link CompactGraph} of this network lead from the source to the target over the given
+     * distance.
+     */
+    public static void assertPath(String message, CompactGraph<Integer, Arc> graph, IntArrayList arcs, int source,
+                                  int target, double distance) {
+        if (distance == Double.POSITIVE_INFINITY || source == target) {
+            assertEquals(message + ": arcs", 0, arcs.size());
+            return;
+        }
+        int at = source;
+        double length = 0;
+        for (int i = 0; i < arcs.size(); i++) {
+            Arc arc = graph.edge(arcs.get(i));
+            assertEquals(message + ": arc " + i + " leaves from", at, arc.from);
+            length += arc.weight;
+            at = arc.to;
+        }
+        assertEquals(message + ": end", target, at);
+        assertDistance(message + ": length", distance, length);
+    }
+
+    public static class Arc {
+        private final int from;
+        private final int to;
+        private final double weight;
+
+        Arc(int from, int to, double weight) {
+            this.from = from;
+            this.to = to;
+            this.weight = weight;
+        }
+
+        public int getFrom() {
+            return from;
+        }
+
+        public int getTo() {
+            return to;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+
+        @Override
+        public String toString() {
+            return from + " -> " + to + " (" + weight + ")";
+        }
+    }
+}
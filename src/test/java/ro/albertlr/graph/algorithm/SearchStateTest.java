@@ -0,0 +1,93 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm;
+
+import org.junit.Test;
+import ro.albertlr.graph.algorithm.Vertex.Color;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SearchStateTest {
+    private final VertexIndex<String> index = VertexIndex.of(Arrays.asList("a", "b", "c", "d"));
+
+    @Test
+    public void unwrittenEntriesReadAsTheDefaults() {
+        SearchState<String> state = new SearchState<>(index);
+        state.setColor("b", Color.GRAY);
+        assertEquals(Color.GRAY, state.getColor("b"));
+        // the other attributes of a touched entry are the defaults too
+        assertDefaults(state, "b", false);
+        for (String v : Arrays.asList("a", "c", "d")) {
+            assertDefaults(state, v, true);
+        }
+    }
+
+    @Test
+    public void resetForgetsThePreviousSearch() {
+        SearchState<String> state = new SearchState<>(index);
+        state.setColor("a", Color.BLACK);
+        state.setPredecessor("b", "a");
+        state.setDistance("b", 7);
+        state.setDiscoveryTime("c", state.tick());
+        state.setFinishingTime("c", state.tick());
+        assertEquals("a", state.getPredecessor("b"));
+        assertEquals(7, state.getDistance("b"));
+        assertEquals(1, state.getDiscoveryTime("c"));
+        assertEquals(2, state.getFinishingTime("c"));
+
+        state.reset();
+        for (String v : index.vertices()) {
+            assertDefaults(state, v, true);
+        }
+        assertEquals("the clock restarts", 1, state.tick());
+        state.setDistance("b", 3);
+        assertEquals(3, state.getDistance("b"));
+        assertNull("stale values do not resurface", state.getPredecessor("b"));
+    }
+
+    @Test
+    public void statesOfTheSameIndexAreIndependent() {
+        SearchState<String> first = new SearchState<>(index);
+        SearchState<String> second = new SearchState<>(index);
+        first.setDistance("d", 1);
+        second.setDistance("d", 2);
+        first.setPredecessor("d", "c");
+        assertEquals(1, first.getDistance("d"));
+        assertEquals(2, second.getDistance("d"));
+        assertNull(second.getPredecessor("d"));
+        second.reset();
+        assertEquals(1, first.getDistance("d"));
+        assertEquals("c", first.getPredecessor("d"));
+    }
+
+    private static void assertDefaults(SearchState<String> state, String v, boolean white) {
+        if (white) {
+            assertEquals(v, Color.WHITE, state.getColor(v));
+        }
+        assertNull(v, state.getPredecessor(v));
+        assertEquals(v, VertexIndex.NONE, state.getPredecessor(state.getIndex().id(v)));
+        assertEquals(v, Algorithm.INFINITE, state.getDistance(v));
+        assertEquals(v, 0, state.getDiscoveryTime(v));
+        assertEquals(v, 0, state.getFinishingTime(v));
+    }
+}
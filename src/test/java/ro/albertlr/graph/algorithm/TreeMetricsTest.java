@@ -0,0 +1,202 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm;
+
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DirectedWeightedMultigraph;
+import org.junit.Test;
+import ro.albertlr.graph.algorithm.ch.ContractionHierarchyPreprocessor;
+import ro.albertlr.graph.algorithm.ch.Phast;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TreeMetricsTest {
+    private static final List<ToDoubleFunction<Road>> METRICS = Arrays.asList(Road::getLength, road -> 1);
+
+    @Test
+    public void settleOrderMatchesTheReferenceTree() {
+        Roads roads = new Roads(61, 300);
+        CompactDijkstra search = new CompactDijkstra(roads.compact);
+        TreeMetrics.Accumulator accumulator = TreeMetrics.of(roads.compact, METRICS).newAccumulator();
+        for (int source = 0; source < roads.vertexCount; source += 7) {
+            search.search(source);
+            assertNotNull("the settle order is recorded", search.getSettleOrder());
+            roads.assertMetrics("source " + source, source, accumulator.accumulate(search));
+        }
+    }
+
+    @Test
+    public void walkUpTakesTheLightestParallelArc() {
+        Roads roads = new Roads(62, 300);
+        Phast<Integer, Road>.PhastSearch search = new Phast<>(ContractionHierarchyPreprocessor.<Integer, Road>builder()
+                .graph(roads.compact)
+                .build()
+                .preprocess()).newSearch();
+        TreeMetrics.Accumulator accumulator = TreeMetrics.of(roads.compact, METRICS).newAccumulator();
+        for (int source = 0; source < roads.vertexCount; source += 7) {
+            search.search(source);
+            assertNull("the predecessors are walked up", search.getSettleOrder());
+            roads.assertMetrics("source " + source, source, accumulator.accumulate(search));
+        }
+    }
+
+    @Test
+    public void metricsSkipFloydWarshall() {
+        Roads roads = new Roads(63, 100);
+        AtomicInteger searches = new AtomicInteger();
+        double[][][] metrics = new double[roads.vertexCount][][];
+        ResultSink sink = new ResultSink() {
+            @Override
+            public void accept(int source, double[] distances, int[] predecessors) {
+                throw new AssertionError("row " + source + " without metrics");
+            }
+
+            @Override
+            public void accept(int source, double[] distances, int[] predecessors, double[][] rowMetrics) {
+                metrics[source] = new double[][]{rowMetrics[0].clone(), rowMetrics[1].clone()};
+            }
+        };
+        AllPairsShortestPath.builder()
+                .graph(roads.compact)
+                .parallelism(3)
+                .floydWarshallThreshold(roads.vertexCount)
+                .search(() -> {
+                    searches.incrementAndGet();
+                    return new CompactDijkstra(roads.compact);
+                })
+                .metrics(TreeMetrics.of(roads.compact, METRICS))
+                .build()
+                .compute(sink);
+        assertTrue("the searches ran", searches.get() > 0);
+        for (int source = 0; source < roads.vertexCount; source++) {
+            roads.assertMetrics("source " + source, source, metrics[source]);
+        }
+    }
+
+    /**
+     * Grid of roads with positive travel times, so the shortest path tree is unique, and a second, slower road next to
+     * some of them.
+     */
+    private static class Roads {
+        private final int vertexCount;
+        private final List<Road> roads = new ArrayList<>();
+        private final CompactGraph<Integer, Road> compact;
+
+        Roads(long seed, int vertexCount) {
+            this.vertexCount = vertexCount;
+            Random random = new Random(seed);
+            Graph<Integer, Road> graph = new DirectedWeightedMultigraph<>(null, null);
+            for (int v = 0; v < vertexCount; v++) {
+                graph.addVertex(v);
+            }
+            int side = (int) Math.ceil(Math.sqrt(vertexCount));
+            for (int u = 0; u < vertexCount; u++) {
+                for (int v : new int[]{u + 1, u + side}) {
+                    if (v < vertexCount && random.nextInt(10) < 9) {
+                        add(graph, random, u, v);
+                        add(graph, random, v, u);
+                    }
+                }
+            }
+            this.compact = CompactGraph.of(graph, Road::getTime);
+        }
+
+        private void add(Graph<Integer, Road> graph, Random random, int from, int to) {
+            int parallel = random.nextInt(4) == 0 ? 2 : 1;
+            for (int i = 0; i < parallel; i++) {
+                Road road = new Road(from, to, 1 + 10 * random.nextDouble(), 1000 * random.nextDouble());
+                roads.add(road);
+                graph.addEdge(from, to, road);
+            }
+        }
+
+        /**
+         * Asserts the metrics are the sums along the tree of a plain Dijkstra over the road list.
+         */
+        void assertMetrics(String message, int source, double[][] metrics) {
+            double[] time = new double[vertexCount];
+            Road[] tree = new Road[vertexCount];
+            Arrays.fill(time, Double.POSITIVE_INFINITY);
+            time[source] = 0;
+            PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+            queue.add(new double[]{0, source});
+            while (!queue.isEmpty()) {
+                double[] entry = queue.poll();
+                int u = (int) entry[1];
+                if (entry[0] > time[u]) {
+                    continue;
+                }
+                for (Road road : roads) {
+                    if (road.from == u && time[u] + road.time < time[road.to]) {
+                        time[road.to] = time[u] + road.time;
+                        tree[road.to] = road;
+                        queue.add(new double[]{time[road.to], road.to});
+                    }
+                }
+            }
+            for (int v = 0; v < vertexCount; v++) {
+                double length = 0;
+                double hops = 0;
+                for (Road road = tree[v]; road != null; road = tree[road.from]) {
+                    length += road.length;
+                    hops++;
+                }
+                if (time[v] == Double.POSITIVE_INFINITY) {
+                    length = hops = Double.POSITIVE_INFINITY;
+                }
+                SampleNetwork.assertDistance(message + ": length to " + v, length, metrics[0][v]);
+                assertEquals(message + ": hops to " + v, hops, metrics[1][v], 0);
+            }
+        }
+    }
+
+    private static class Road {
+        private final int from;
+        private final int to;
+        private final double time;
+        private final double length;
+
+        Road(int from, int to, double time, double length) {
+            this.from = from;
+            this.to = to;
+            this.time = time;
+            this.length = length;
+        }
+
+        double getTime() {
+            return time;
+        }
+
+        double getLength() {
+            return length;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.ch;
+
+import org.junit.Test;
+import ro.albertlr.graph.algorithm.CompactGraph;
+import ro.albertlr.graph.algorithm.SampleNetwork;
+import ro.albertlr.graph.algorithm.SampleNetwork.Arc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ContractionHierarchyTest {
+
+    @Test
+    public void queriesMatchTheReference() {
+        check(SampleNetwork.random(31, 250, false), 0);
+    }
+
+    @Test
+    public void queriesMatchTheReferenceWithIntegralWeights() {
+        check(SampleNetwork.random(32, 250, true), 0);
+    }
+
+    @Test
+    public void queriesMatchTheReferenceWhenWitnessSearchesGiveUpEarly() {
+        check(SampleNetwork.random(33, 250, false), 3);
+    }
+
+    @Test
+    public void pathListsTheVerticesFromSourceToDestination() {
+        SampleNetwork network = SampleNetwork.random(34, 100, true);
+        ContractionHierarchyQuery<Integer, Arc> query = new ContractionHierarchyQuery<>(preprocess(network, 0));
+        for (int target = 0; target < network.getVertexCount(); target++) {
+            double distance = network.distances(0)[target];
+            Collection<Integer> path = query.path(0, target);
+            if (distance == Double.POSITIVE_INFINITY) {
+                assertTrue("no path to " + target, path.isEmpty());
+                continue;
+            }
+            List<Integer> vertices = new ArrayList<>(path);
+            assertEquals(Integer.valueOf(0), vertices.get(0));
+            assertEquals(Integer.valueOf(target), vertices.get(vertices.size() - 1));
+        }
+    }
+
+    private static void check(SampleNetwork network, int witnessSearchLimit) {
+        CompactGraph<Integer, Arc> graph = network.compact();
+        ContractionHierarchy<Integer, Arc> hierarchy = preprocess(network, witnessSearchLimit);
+        ContractionHierarchyQuery<Integer, Arc> query = new ContractionHierarchyQuery<>(hierarchy);
+        for (int source = 0; source < network.getVertexCount(); source += 9) {
+            double[] expected = network.distances(source);
+            for (int target = 0; target < network.getVertexCount(); target++) {
+                String pair = source + " -> " + target;
+                SampleNetwork.assertDistance(pair, expected[target], query.distance(source, target));
+                SampleNetwork.assertPath(pair, graph, query.arcs(source, target), source, target, expected[target]);
+            }
+        }
+    }
+
+    private static ContractionHierarchy<Integer, Arc> preprocess(SampleNetwork network, int witnessSearchLimit) {
+        return ContractionHierarchyPreprocessor.<Integer, Arc>builder()
+                .graph(network.compact())
+                .witnessSearchLimit(witnessSearchLimit)
+                .build()
+                .preprocess();
+    }
+}
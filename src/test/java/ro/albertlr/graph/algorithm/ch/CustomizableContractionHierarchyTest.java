@@ -0,0 +1,104 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.ch;
+
+import org.junit.Test;
+import ro.albertlr.graph.algorithm.CompactGraph;
+import ro.albertlr.graph.algorithm.SampleNetwork;
+import ro.albertlr.graph.algorithm.SampleNetwork.Arc;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class CustomizableContractionHierarchyTest {
+
+    @Test
+    public void nestedDissectionRanksArePermutations() {
+        CompactGraph<Integer, Arc> graph = SampleNetwork.random(111, 300, false).compact();
+        for (int leafSize : new int[]{1, 8, 64}) {
+            int[] ranks = NestedDissection.builder().graph(graph).leafSize(leafSize).build().ranks();
+            boolean[] seen = new boolean[ranks.length];
+            for (int rank : ranks) {
+                assertFalse("leaf size " + leafSize + ", rank " + rank, seen[rank]);
+                seen[rank] = true;
+            }
+            assertEquals(graph.getVertexCount(), ranks.length);
+        }
+    }
+
+    @Test
+    public void distancesAndArcsMatchTheReference() {
+        SampleNetwork network = SampleNetwork.random(112, 250, false);
+        CompactGraph<Integer, Arc> graph = network.compact();
+        CustomizableContractionHierarchyQuery<Integer, Arc> query =
+                new CustomizableContractionHierarchyQuery<>(hierarchy(graph).customize(Arc::getWeight, 3));
+        for (int source = 0; source < network.getVertexCount(); source += 7) {
+            double[] expected = network.distances(source);
+            for (int target = 0; target < network.getVertexCount(); target++) {
+                String pair = source + " -> " + target;
+                SampleNetwork.assertDistance(pair, expected[target], query.distance(source, target));
+                SampleNetwork.assertPath(pair, graph, query.arcs(source, target), source, target, expected[target]);
+            }
+        }
+    }
+
+    @Test
+    public void recustomizingMatchesTheReference() {
+        SampleNetwork network = SampleNetwork.random(113, 250, true);
+        CustomizableContractionHierarchy<Integer, Arc> hierarchy = hierarchy(network.compact());
+
+        // a second metric over the same topology: other weights, some arcs closed
+        Random random = new Random(114);
+        Map<Arc, Double> weights = new IdentityHashMap<>();
+        SampleNetwork reweighted = SampleNetwork.empty(network.getVertexCount());
+        for (Arc arc : network.getArcs()) {
+            double weight = random.nextInt(10) == 0 ? Double.POSITIVE_INFINITY : random.nextInt(30);
+            weights.put(arc, weight);
+            if (weight != Double.POSITIVE_INFINITY) {
+                reweighted.add(arc.getFrom(), arc.getTo(), weight);
+            }
+        }
+
+        for (int round = 0; round < 2; round++) {
+            SampleNetwork reference = round == 0 ? reweighted : network;
+            CustomizedMetric<Integer, Arc> metric = round == 0
+                    ? hierarchy.customize(weights::get, 2)
+                    : hierarchy.customize(Arc::getWeight, 0);
+            CustomizableContractionHierarchyQuery<Integer, Arc> query =
+                    new CustomizableContractionHierarchyQuery<>(metric);
+            for (int source = 0; source < network.getVertexCount(); source += 9) {
+                double[] expected = reference.distances(source);
+                for (int target = 0; target < network.getVertexCount(); target++) {
+                    SampleNetwork.assertDistance("round " + round + ", " + source + " -> " + target,
+                            expected[target], query.distance(source, target));
+                }
+            }
+        }
+    }
+
+    private static CustomizableContractionHierarchy<Integer, Arc> hierarchy(CompactGraph<Integer, Arc> graph) {
+        int[] ranks = NestedDissection.builder().graph(graph).leafSize(16).build().ranks();
+        return new CustomizableContractionHierarchy<>(graph, ranks);
+    }
+}
@@ -0,0 +1,70 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.ch;
+
+import org.junit.Test;
+import ro.albertlr.graph.algorithm.SampleNetwork;
+import ro.albertlr.graph.algorithm.SampleNetwork.Arc;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ManyToManySearchTest {
+
+    @Test
+    public void tableMatchesTheReference() {
+        SampleNetwork network = SampleNetwork.random(51, 250, false);
+        ContractionHierarchy<Integer, Arc> hierarchy = ContractionHierarchyPreprocessor.<Integer, Arc>builder()
+                .graph(network.compact())
+                .build()
+                .preprocess();
+        int[] sources = {0, 17, 42, 99, 100, 249};
+        int[] targets = {3, 17, 58, 120, 200, 201, 248};
+        double[][] table = new ManyToManySearch<>(hierarchy).distances(sources, targets);
+
+        assertEquals(sources.length, table.length);
+        for (int i = 0; i < sources.length; i++) {
+            double[] expected = network.distances(sources[i]);
+            assertEquals(targets.length, table[i].length);
+            for (int j = 0; j < targets.length; j++) {
+                SampleNetwork.assertDistance(sources[i] + " -> " + targets[j], expected[targets[j]], table[i][j]);
+            }
+        }
+    }
+
+    @Test
+    public void vertexListsAreMappedToIds() {
+        SampleNetwork network = SampleNetwork.random(52, 80, true);
+        ContractionHierarchy<Integer, Arc> hierarchy = ContractionHierarchyPreprocessor.<Integer, Arc>builder()
+                .graph(network.compact())
+                .build()
+                .preprocess();
+        List<Integer> zones = Arrays.asList(5, 6, 70, 79);
+        double[][] table = new ManyToManySearch<>(hierarchy).distances(zones, zones);
+        for (int i = 0; i < zones.size(); i++) {
+            double[] expected = network.distances(zones.get(i));
+            for (int j = 0; j < zones.size(); j++) {
+                SampleNetwork.assertDistance(zones.get(i) + " -> " + zones.get(j), expected[zones.get(j)], table[i][j]);
+            }
+        }
+    }
+}
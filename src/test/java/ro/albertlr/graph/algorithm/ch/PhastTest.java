@@ -0,0 +1,63 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.ch;
+
+import org.junit.Test;
+import ro.albertlr.graph.algorithm.AllPairsShortestPath;
+import ro.albertlr.graph.algorithm.DistanceMatrix;
+import ro.albertlr.graph.algorithm.SampleNetwork;
+import ro.albertlr.graph.algorithm.SampleNetwork.Arc;
+
+public class PhastTest {
+
+    @Test
+    public void sweepsMatchTheReference() {
+        SampleNetwork network = SampleNetwork.random(41, 300, false);
+        Phast<Integer, Arc>.PhastSearch search = new Phast<>(preprocess(network)).newSearch();
+        for (int source = 0; source < network.getVertexCount(); source += 7) {
+            search.search(source);
+            double[] expected = network.distances(source);
+            SampleNetwork.assertDistances("source " + source, expected, search.getDistances());
+            network.assertShortestPathTree("source " + source, source, expected, search.getPredecessors());
+        }
+    }
+
+    @Test
+    public void allPairsWithPhastMatchesTheReference() {
+        SampleNetwork network = SampleNetwork.random(42, 150, true);
+        Phast<Integer, Arc> phast = new Phast<>(preprocess(network));
+        DistanceMatrix matrix = AllPairsShortestPath.builder()
+                .graph(network.compact())
+                .parallelism(3)
+                .search(phast::newSearch)
+                .build()
+                .compute();
+        for (int source = 0; source < network.getVertexCount(); source++) {
+            SampleNetwork.assertDistances("source " + source, network.distances(source), matrix.row(source));
+        }
+    }
+
+    private static ContractionHierarchy<Integer, Arc> preprocess(SampleNetwork network) {
+        return ContractionHierarchyPreprocessor.<Integer, Arc>builder()
+                .graph(network.compact())
+                .build()
+                .preprocess();
+    }
+}
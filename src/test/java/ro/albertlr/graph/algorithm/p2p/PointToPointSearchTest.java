@@ -0,0 +1,146 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.p2p;
+
+import org.junit.Test;
+import ro.albertlr.graph.algorithm.CompactGraph;
+import ro.albertlr.graph.algorithm.SampleNetwork;
+import ro.albertlr.graph.algorithm.SampleNetwork.Arc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PointToPointSearchTest {
+
+    @Test
+    public void landmarkBoundsAreLowerBounds() {
+        SampleNetwork network = SampleNetwork.random(71, 200, false);
+        for (LandmarkSelection selection : LandmarkSelection.values()) {
+            Landmarks landmarks = landmarks(network, selection);
+            for (int source = 0; source < network.getVertexCount(); source += 3) {
+                double[] expected = network.distances(source);
+                for (int target = 0; target < network.getVertexCount(); target++) {
+                    double bound = landmarks.lowerBound(source, target);
+                    assertTrue(selection + ", " + source + " -> " + target + ": " + bound + " > " + expected[target],
+                            bound <= expected[target] * (1 + 1e-9) + 1e-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void altMatchesTheReference() {
+        SampleNetwork network = SampleNetwork.random(72, 250, false);
+        for (LandmarkSelection selection : LandmarkSelection.values()) {
+            AltSearch<Integer, Arc> search = new AltSearch<>(network.compact(), landmarks(network, selection));
+            assertDistances(selection.toString(), network, search::distance);
+        }
+    }
+
+    @Test
+    public void bidirectionalMatchesTheReference() {
+        SampleNetwork network = SampleNetwork.random(73, 250, true);
+        BidirectionalSearch<Integer, Arc> search = new BidirectionalSearch<>(network.compact());
+        assertDistances("bidirectional", network, search::distance);
+    }
+
+    @Test
+    public void bidirectionalAltMatchesTheReference() {
+        SampleNetwork network = SampleNetwork.random(74, 250, false);
+        for (LandmarkSelection selection : LandmarkSelection.values()) {
+            BidirectionalSearch<Integer, Arc> search =
+                    new BidirectionalSearch<>(network.compact(), landmarks(network, selection));
+            assertDistances(selection.toString(), network, search::distance);
+        }
+    }
+
+    @Test
+    public void pathsAreShortest() {
+        SampleNetwork network = SampleNetwork.random(75, 150, true);
+        CompactGraph<Integer, Arc> graph = network.compact();
+        Landmarks landmarks = landmarks(network, LandmarkSelection.AVOID);
+        AltSearch<Integer, Arc> alt = new AltSearch<>(graph, landmarks);
+        BidirectionalSearch<Integer, Arc> bidirectional = new BidirectionalSearch<>(graph);
+        BidirectionalSearch<Integer, Arc> bidirectionalAlt = new BidirectionalSearch<>(graph, landmarks);
+        for (int source = 0; source < network.getVertexCount(); source += 11) {
+            double[] expected = network.distances(source);
+            for (int target = 0; target < network.getVertexCount(); target += 3) {
+                String message = source + " -> " + target;
+                assertPath("alt " + message, graph, alt.path(source, target), source, target, expected[target]);
+                assertPath("bidirectional " + message, graph, bidirectional.path(source, target), source, target,
+                        expected[target]);
+                assertPath("bidirectional alt " + message, graph, bidirectionalAlt.path(source, target), source,
+                        target, expected[target]);
+            }
+        }
+    }
+
+    private static Landmarks landmarks(SampleNetwork network, LandmarkSelection selection) {
+        return Landmarks.builder()
+                .graph(network.compact())
+                .count(6)
+                .selection(selection)
+                .seed(7)
+                .build();
+    }
+
+    private interface Distance {
+        double distance(int source, int target);
+    }
+
+    private static void assertDistances(String message, SampleNetwork network, Distance search) {
+        for (int source = 0; source < network.getVertexCount(); source += 5) {
+            double[] expected = network.distances(source);
+            for (int target = 0; target < network.getVertexCount(); target++) {
+                SampleNetwork.assertDistance(message + ", " + source + " -> " + target, expected[target],
+                        search.distance(source, target));
+            }
+        }
+    }
+
+    private static void assertPath(String message, CompactGraph<Integer, Arc> graph, Collection<Integer> path,
+                                   int source, int target, double distance) {
+        if (distance == Double.POSITIVE_INFINITY) {
+            assertTrue(message + ": " + path, path.isEmpty());
+            return;
+        }
+        List<Integer> vertices = new ArrayList<>(path);
+        assertEquals(message, source, (int) vertices.get(0));
+        assertEquals(message, target, (int) vertices.get(vertices.size() - 1));
+        double length = 0;
+        for (int i = 1; i < vertices.size(); i++) {
+            length += weight(graph, graph.id(vertices.get(i - 1)), graph.id(vertices.get(i)));
+        }
+        SampleNetwork.assertDistance(message, distance, length);
+    }
+
+    private static double weight(CompactGraph<Integer, Arc> graph, int from, int to) {
+        for (int arc = graph.firstArc(from); arc < graph.endArc(from); arc++) {
+            if (graph.target(arc) == to) {
+                return graph.weight(arc);
+            }
+        }
+        throw new AssertionError("no arc " + from + " -> " + to);
+    }
+}
@@ -0,0 +1,142 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.queue;
+
+import org.junit.Test;
+import ro.albertlr.graph.algorithm.CompactDijkstra;
+import ro.albertlr.graph.algorithm.SampleNetwork;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs random operations on every queue type and on a reference that finds the minimum by scanning all its keys.
+ */
+public class IndexedPriorityQueueTest {
+    private static final int CAPACITY = 300;
+    private static final int OPERATIONS = 20000;
+    private static final int MAX_WEIGHT = 20;
+
+    @Test
+    public void binaryHeap() {
+        check(PriorityQueueType.BINARY_HEAP, false);
+    }
+
+    @Test
+    public void quaternaryHeap() {
+        check(PriorityQueueType.QUATERNARY_HEAP, false);
+    }
+
+    @Test
+    public void pairingHeap() {
+        check(PriorityQueueType.PAIRING_HEAP, false);
+    }
+
+    @Test
+    public void radixHeap() {
+        check(PriorityQueueType.RADIX_HEAP, true);
+    }
+
+    @Test
+    public void dialQueue() {
+        check(PriorityQueueType.DIAL, true);
+    }
+
+    @Test
+    public void dijkstraWithEveryQueueMatchesTheReference() {
+        SampleNetwork network = SampleNetwork.random(21, 200, true);
+        for (PriorityQueueType type : PriorityQueueType.values()) {
+            CompactDijkstra dijkstra = new CompactDijkstra(network.compact(), type);
+            for (int source = 0; source < network.getVertexCount(); source += 13) {
+                dijkstra.search(source);
+                SampleNetwork.assertDistances(type + " from " + source, network.distances(source),
+                        dijkstra.getDistances());
+            }
+        }
+    }
+
+    /**
+     * @param monotone whether keys are integers never below the last extracted one nor above it by more than
+     *                 {@link #MAX_WEIGHT}, as integer queues require
+     */
+    private static void check(PriorityQueueType type, boolean monotone) {
+        Random random = new Random(type.ordinal());
+        IndexedPriorityQueue queue = type.create(CAPACITY, MAX_WEIGHT);
+        double[] keys = new double[CAPACITY];
+        boolean[] present = new boolean[CAPACITY];
+        int size = 0;
+        double last = 0;
+        for (int operation = 0; operation < OPERATIONS; operation++) {
+            int id = random.nextInt(CAPACITY);
+            int choice = random.nextInt(10);
+            if (choice < 4) {
+                double key = monotone ? last + random.nextInt(MAX_WEIGHT + 1) : 1000 * random.nextDouble();
+                if (present[id]) {
+                    key = Math.min(key, keys[id]);
+                    queue.insertOrDecrease(id, key);
+                } else {
+                    queue.insert(id, key);
+                    present[id] = true;
+                    size++;
+                }
+                keys[id] = key;
+            } else if (choice < 7) {
+                if (present[id]) {
+                    double key = monotone
+                            ? last + random.nextInt((int) (keys[id] - last) + 1)
+                            : keys[id] * random.nextDouble();
+                    queue.decreaseKey(id, key);
+                    keys[id] = key;
+                }
+            } else if (size > 0) {
+                int min = queue.deleteMin();
+                assertTrue(type + ": " + min + " was not queued", present[min]);
+                for (int other = 0; other < CAPACITY; other++) {
+                    assertTrue(type + ": " + min + " extracted before " + other,
+                            !present[other] || keys[min] <= keys[other]);
+                }
+                present[min] = false;
+                size--;
+                last = keys[min];
+            }
+            if (operation % 5000 == 4999) {
+                queue.clear();
+                present = new boolean[CAPACITY];
+                size = 0;
+                last = 0;
+            }
+            assertEquals(type + " size", size, queue.size());
+            assertEquals(type + " empty", size == 0, queue.isEmpty());
+            assertEquals(type + " contains " + id, present[id], queue.contains(id));
+            if (present[id]) {
+                assertEquals(type + " key of " + id, keys[id], queue.key(id), 0);
+            }
+        }
+        while (!queue.isEmpty()) {
+            present[queue.deleteMin()] = false;
+        }
+        for (boolean queued : present) {
+            assertFalse(type + " lost an id", queued);
+        }
+    }
+}
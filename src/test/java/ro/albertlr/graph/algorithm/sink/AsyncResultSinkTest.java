@@ -0,0 +1,160 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.sink;
+
+import org.junit.Test;
+import ro.albertlr.graph.algorithm.AllPairsShortestPath;
+import ro.albertlr.graph.algorithm.ResultSink;
+import ro.albertlr.graph.algorithm.SampleNetwork;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncResultSinkTest {
+
+    @Test(timeout = 30000)
+    public void everyRowReachesTheDelegateOnce() throws IOException {
+        SampleNetwork network = SampleNetwork.random(161, 300, false);
+        int n = network.getVertexCount();
+        for (int capacity : new int[]{1, 2, 16}) {
+            double[][] distances = new double[n][];
+            int[][] predecessors = new int[n][];
+            Thread[] writers = new Thread[1];
+            ResultSink delegate = (source, row, tree) -> {
+                // only the writer thread calls the delegate, one row at a time
+                if (writers[0] == null) {
+                    writers[0] = Thread.currentThread();
+                }
+                assertSame(writers[0], Thread.currentThread());
+                assertNull("row " + source + " written twice", distances[source]);
+                distances[source] = row.clone();
+                predecessors[source] = tree.clone();
+            };
+            try (AsyncResultSink sink = new AsyncResultSink(delegate, n, capacity)) {
+                AllPairsShortestPath.builder()
+                        .graph(network.compact())
+                        .parallelism(4)
+                        .build()
+                        .compute(sink);
+            }
+            for (int source = 0; source < n; source++) {
+                String message = "capacity " + capacity + ", source " + source;
+                double[] expected = network.distances(source);
+                SampleNetwork.assertDistances(message, expected, distances[source]);
+                network.assertShortestPathTree(message, source, expected, predecessors[source]);
+            }
+        }
+    }
+
+    @Test
+    public void rowsAreCopied() throws IOException {
+        double[][] written = new double[2][];
+        int[][] trees = new int[2][];
+        double[][][] metrics = new double[2][][];
+        ResultSink delegate = new ResultSink() {
+            @Override
+            public void accept(int source, double[] distances, int[] predecessors) {
+                accept(source, distances, predecessors, null);
+            }
+
+            @Override
+            public void accept(int source, double[] distances, int[] predecessors, double[][] rowMetrics) {
+                written[source] = distances.clone();
+                trees[source] = predecessors == null ? null : predecessors.clone();
+                metrics[source] = rowMetrics == null ? null : new double[][]{rowMetrics[0].clone()};
+            }
+        };
+        try (AsyncResultSink sink = new AsyncResultSink(delegate, 3, 1)) {
+            double[] distances = {0, 1, 2};
+            int[] predecessors = {-1, 0, 1};
+            double[][] lengths = {{0, 10, 20}};
+            sink.accept(0, distances, predecessors, lengths);
+            // the caller reuses its arrays once the call returns
+            distances[1] = 5;
+            predecessors[1] = 2;
+            lengths[0][1] = 50;
+            sink.accept(1, distances, null);
+        }
+        assertArrayEquals(new double[]{0, 1, 2}, written[0], 0);
+        assertArrayEquals(new int[]{-1, 0, 1}, trees[0]);
+        assertArrayEquals(new double[]{0, 10, 20}, metrics[0][0], 0);
+        assertArrayEquals(new double[]{0, 5, 2}, written[1], 0);
+        assertNull(trees[1]);
+        assertNull(metrics[1]);
+    }
+
+    @Test(timeout = 30000)
+    public void delegateFailuresReachTheWorkers() {
+        SampleNetwork network = SampleNetwork.random(162, 400, false);
+        AtomicInteger rows = new AtomicInteger();
+        AtomicBoolean closed = new AtomicBoolean();
+        IllegalArgumentException failure = new IllegalArgumentException("disk full");
+        class FailingSink implements ResultSink, Closeable {
+            @Override
+            public void accept(int source, double[] distances, int[] predecessors) {
+                if (rows.incrementAndGet() == 3) {
+                    throw failure;
+                }
+            }
+
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        }
+
+        AsyncResultSink sink = new AsyncResultSink(new FailingSink(), network.getVertexCount(), 2);
+        try {
+            AllPairsShortestPath.builder()
+                    .graph(network.compact())
+                    .parallelism(4)
+                    .build()
+                    .compute(sink);
+            throw new AssertionError("the failure did not reach the workers");
+        } catch (IllegalStateException e) {
+            assertTrue(e.toString(), causedBy(e, failure));
+        }
+        try {
+            sink.close();
+            throw new AssertionError("the failure did not reach close");
+        } catch (IOException e) {
+            assertSame(failure, e.getCause());
+        }
+        assertTrue("the delegate was not closed", closed.get());
+        assertEquals("rows after the failure were written", 3, rows.get());
+    }
+
+    private static boolean causedBy(Throwable e, Throwable cause) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t == cause) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
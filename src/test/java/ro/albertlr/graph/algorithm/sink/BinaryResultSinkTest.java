@@ -0,0 +1,77 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.sink;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ro.albertlr.graph.algorithm.AllPairsShortestPath;
+import ro.albertlr.graph.algorithm.SampleNetwork;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class BinaryResultSinkTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void rowsRoundTrip() throws IOException {
+        SampleNetwork network = SampleNetwork.random(181, 150, false);
+        int n = network.getVertexCount();
+        Path file = folder.newFile("distances.bin").toPath();
+        try (BinaryResultSink sink = new BinaryResultSink(Files.newOutputStream(file), n)) {
+            AllPairsShortestPath.builder()
+                    .graph(network.compact())
+                    .parallelism(3)
+                    .build()
+                    .compute(sink);
+        }
+
+        boolean[] read = new boolean[n];
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            assertEquals(BinaryResultSink.MAGIC, input.readInt());
+            assertEquals(BinaryResultSink.VERSION, input.readInt());
+            assertEquals(n, input.readInt());
+            for (int row = 0; row < n; row++) {
+                int source = input.readInt();
+                assertFalse("row " + source + " written twice", read[source]);
+                read[source] = true;
+                double[] expected = network.distances(source);
+                for (int target = 0; target < n; target++) {
+                    assertEquals(source + " -> " + target, (float) expected[target], input.readFloat(), 0);
+                }
+            }
+            try {
+                input.readByte();
+                throw new AssertionError("bytes after the last row");
+            } catch (EOFException expected) {
+                // end of the rows
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.sink;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ro.albertlr.graph.algorithm.AllPairsShortestPath;
+import ro.albertlr.graph.algorithm.SampleNetwork;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CsvResultSinkTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void reachablePairsRoundTrip() throws IOException {
+        SampleNetwork network = SampleNetwork.random(171, 150, false);
+        int n = network.getVertexCount();
+        Path file = folder.newFile("distances.csv").toPath();
+        try (CsvResultSink sink = new CsvResultSink(file, v -> "taz-" + v)) {
+            AllPairsShortestPath.builder()
+                    .graph(network.compact())
+                    .parallelism(3)
+                    .build()
+                    .compute(sink);
+        }
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals("source,target,distance", lines.get(0));
+        double[][] distances = new double[n][n];
+        for (double[] row : distances) {
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+        }
+        for (String line : lines.subList(1, lines.size())) {
+            String[] fields = line.split(",");
+            assertEquals(line, 3, fields.length);
+            int source = Integer.parseInt(fields[0].substring("taz-".length()));
+            int target = Integer.parseInt(fields[1].substring("taz-".length()));
+            assertTrue(line + " written twice", distances[source][target] == Double.POSITIVE_INFINITY);
+            distances[source][target] = Double.parseDouble(fields[2]);
+        }
+        for (int source = 0; source < n; source++) {
+            double[] expected = network.distances(source);
+            for (int target = 0; target < n; target++) {
+                // every digit of the double is written
+                assertEquals(source + " -> " + target, expected[target], distances[source][target], 0);
+            }
+        }
+    }
+
+    @Test
+    public void metricsFollowTheDistance() throws IOException {
+        Path file = folder.newFile("distances.csv").toPath();
+        try (CsvResultSink sink = new CsvResultSink(file, Integer::toString, Arrays.asList("length", "CAP_F_M"))) {
+            sink.accept(1, new double[]{2.5, 0, Double.POSITIVE_INFINITY}, null,
+                    new double[][]{{120, 0, Double.POSITIVE_INFINITY}, {1.25, 0, 0}});
+        }
+        assertEquals(Arrays.asList("source,target,distance,length,CAP_F_M", "1,0,2.5,120.0,1.25", "1,1,0.0,0.0,0.0"),
+                Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+}
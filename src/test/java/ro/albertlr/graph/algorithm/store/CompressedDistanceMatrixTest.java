@@ -0,0 +1,155 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.store;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ro.albertlr.graph.algorithm.AllPairsShortestPath;
+import ro.albertlr.graph.algorithm.CompactGraph;
+import ro.albertlr.graph.algorithm.SampleNetwork;
+import ro.albertlr.graph.algorithm.SampleNetwork.Arc;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompressedDistanceMatrixTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void integralDistancesRoundTripExactly() throws IOException {
+        SampleNetwork network = SampleNetwork.random(91, 150, true);
+        Path file = write(network, 1);
+
+        try (CompressedDistanceMatrix matrix = CompressedDistanceMatrix.open(file)) {
+            assertEquals(network.getVertexCount(), matrix.size());
+            double[] row = null;
+            for (int source = 0; source < matrix.size(); source++) {
+                assertEquals("taz-" + source, matrix.label(source));
+                assertTrue(matrix.hasRow(source));
+                double[] expected = network.distances(source);
+                row = matrix.row(source, row);
+                for (int target = 0; target < matrix.size(); target++) {
+                    String message = source + " -> " + target;
+                    assertEquals(message, expected[target], row[target], 0);
+                    assertEquals(message, expected[target], matrix.get(source, target), 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void distancesRoundTripWithinTheResolution() throws IOException {
+        SampleNetwork network = SampleNetwork.random(92, 150, false);
+        double resolution = 0.01;
+        Path file = write(network, resolution);
+
+        try (CompressedDistanceMatrix matrix = CompressedDistanceMatrix.open(file)) {
+            for (int source = 0; source < matrix.size(); source++) {
+                double[] expected = network.distances(source);
+                double[] row = matrix.row(source, null);
+                for (int target = 0; target < matrix.size(); target++) {
+                    String message = source + " -> " + target;
+                    if (expected[target] == Double.POSITIVE_INFINITY) {
+                        assertEquals(message, Double.POSITIVE_INFINITY, row[target], 0);
+                    } else {
+                        assertEquals(message, expected[target], row[target], resolution / 2 + 1e-9);
+                    }
+                    assertEquals(message, row[target], matrix.get(source, target), 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void columnOrderIsAPermutation() {
+        CompactGraph<Integer, Arc> graph = SampleNetwork.random(93, 200, false).compact();
+        int[] order = CompressedDistanceMatrixWriter.breadthFirstOrder(graph);
+        int[] sorted = order.clone();
+        Arrays.sort(sorted);
+        for (int v = 0; v < sorted.length; v++) {
+            assertEquals(v, sorted[v]);
+        }
+    }
+
+    @Test
+    public void missingRowsAreReported() throws IOException {
+        Path file = folder.newFile("distances.apspz").toPath();
+        try (CompressedDistanceMatrixWriter writer = CompressedDistanceMatrixWriter.create(file, 3, 0.5, null, null)) {
+            writer.accept(2, new double[]{1.5, Double.POSITIVE_INFINITY, 0}, null);
+            writer.accept(0, new double[]{0, 2.25, 1}, null);
+        }
+        try (CompressedDistanceMatrix matrix = CompressedDistanceMatrix.open(file)) {
+            assertTrue(matrix.hasRow(0));
+            assertFalse(matrix.hasRow(1));
+            assertTrue(matrix.hasRow(2));
+            assertEquals(1.5, matrix.get(2, 0), 0);
+            assertEquals(Double.POSITIVE_INFINITY, matrix.get(2, 1), 0);
+            assertEquals(2.25, matrix.get(0, 1), 0.25);
+            try {
+                matrix.row(1, null);
+                throw new AssertionError("row 1 was decoded");
+            } catch (IllegalStateException expected) {
+                assertTrue(expected.getMessage(), expected.getMessage().contains("not written"));
+            }
+        }
+    }
+
+    @Test
+    public void otherVersionsAreRejected() throws IOException {
+        Path file = folder.newFile("distances.apspz").toPath();
+        try (CompressedDistanceMatrixWriter writer = CompressedDistanceMatrixWriter.create(file, 2, 1, null, null)) {
+            writer.accept(0, new double[]{0, 1}, null);
+            writer.accept(1, new double[]{1, 0}, null);
+        }
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            // the version follows the magic
+            raw.seek(Integer.BYTES);
+            raw.writeInt(1);
+        }
+        try {
+            CompressedDistanceMatrix.open(file).close();
+            throw new AssertionError("a version 1 file was opened");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("version 1"));
+        }
+    }
+
+    private Path write(SampleNetwork network, double resolution) throws IOException {
+        CompactGraph<Integer, Arc> graph = network.compact();
+        Path file = folder.newFile("distances.apspz").toPath();
+        try (CompressedDistanceMatrixWriter writer = CompressedDistanceMatrixWriter.create(file, graph, resolution,
+                v -> "taz-" + v)) {
+            AllPairsShortestPath.builder()
+                    .graph(graph)
+                    .parallelism(3)
+                    .build()
+                    .compute(writer);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,132 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.store;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ro.albertlr.graph.algorithm.AllPairsShortestPath;
+import ro.albertlr.graph.algorithm.SampleNetwork;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MappedDistanceMatrixTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void floatMatrixRoundTrip() throws IOException {
+        SampleNetwork network = SampleNetwork.random(81, 120, false);
+        Path file = folder.newFile("distances.apsp").toPath();
+        try (MappedDistanceMatrix matrix = MappedDistanceMatrix.create(file, network.getVertexCount(),
+                MappedDistanceMatrix.Cell.FLOAT, v -> "taz-" + v)) {
+            compute(network, matrix);
+        }
+
+        try (MappedDistanceMatrix matrix = MappedDistanceMatrix.open(file)) {
+            assertEquals(MappedDistanceMatrix.Cell.FLOAT, matrix.getCell());
+            assertEquals(network.getVertexCount(), matrix.size());
+            for (int source = 0; source < matrix.size(); source++) {
+                assertEquals("taz-" + source, matrix.label(source));
+                double[] expected = network.distances(source);
+                ByteBuffer row = matrix.row(source);
+                assertEquals(4 * matrix.size(), row.remaining());
+                for (int target = 0; target < matrix.size(); target++) {
+                    String message = source + " -> " + target;
+                    assertEquals(message, (float) expected[target], matrix.get(source, target), 0);
+                    assertEquals(message, (float) expected[target], row.getFloat(4 * target), 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void intMatrixRoundTrip() throws IOException {
+        SampleNetwork network = SampleNetwork.random(82, 100, true);
+        Path file = folder.newFile("distances.apsp").toPath();
+        try (MappedDistanceMatrix matrix = MappedDistanceMatrix.create(file, network.getVertexCount(),
+                MappedDistanceMatrix.Cell.INT, null)) {
+            compute(network, matrix);
+        }
+
+        try (MappedDistanceMatrix matrix = MappedDistanceMatrix.open(file)) {
+            assertEquals(MappedDistanceMatrix.Cell.INT, matrix.getCell());
+            for (int source = 0; source < matrix.size(); source++) {
+                assertEquals("", matrix.label(source));
+                double[] expected = network.distances(source);
+                ByteBuffer row = matrix.row(source);
+                for (int target = 0; target < matrix.size(); target++) {
+                    String message = source + " -> " + target;
+                    assertEquals(message, expected[target], matrix.get(source, target), 0);
+                    int cell = expected[target] == Double.POSITIVE_INFINITY
+                            ? Integer.MAX_VALUE
+                            : (int) expected[target];
+                    assertEquals(message, cell, row.getInt(4 * target));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void writableMatrixAcceptsRowsInPlace() throws IOException {
+        Path file = folder.newFile("distances.apsp").toPath();
+        try (MappedDistanceMatrix matrix = MappedDistanceMatrix.create(file, 3, MappedDistanceMatrix.Cell.INT,
+                Integer::toString)) {
+            matrix.accept(0, new double[]{0, 1, 2}, null);
+            matrix.accept(1, new double[]{1, 0, 1}, null);
+            matrix.accept(2, new double[]{2, 1, 0}, null);
+        }
+        try (MappedDistanceMatrix matrix = MappedDistanceMatrix.open(file, true)) {
+            matrix.accept(1, new double[]{1, 0, Double.POSITIVE_INFINITY}, null);
+        }
+        try (MappedDistanceMatrix matrix = MappedDistanceMatrix.open(file)) {
+            assertEquals(2, matrix.get(0, 2), 0);
+            assertEquals(1, matrix.get(1, 0), 0);
+            assertEquals(Double.POSITIVE_INFINITY, matrix.get(1, 2), 0);
+            assertEquals("2", matrix.label(2));
+        }
+    }
+
+    @Test
+    public void otherFilesAreRejected() throws IOException {
+        Path file = folder.newFile("distances.csv").toPath();
+        Files.write(file, "source,target,distance\n0,1,2.5\n".getBytes(StandardCharsets.US_ASCII));
+        try (MappedDistanceMatrix ignored = MappedDistanceMatrix.open(file)) {
+            throw new AssertionError("opened " + file);
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("not a distance matrix"));
+        }
+    }
+
+    private static void compute(SampleNetwork network, MappedDistanceMatrix matrix) {
+        AllPairsShortestPath.builder()
+                .graph(network.compact())
+                .parallelism(3)
+                .build()
+                .compute(matrix);
+    }
+}
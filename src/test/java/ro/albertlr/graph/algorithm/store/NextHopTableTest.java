@@ -0,0 +1,124 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.algorithm.store;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ro.albertlr.graph.algorithm.AllPairsShortestPath;
+import ro.albertlr.graph.algorithm.CompactGraph;
+import ro.albertlr.graph.algorithm.OneToAllSearch;
+import ro.albertlr.graph.algorithm.SampleNetwork;
+import ro.albertlr.graph.algorithm.SampleNetwork.Arc;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.PrimitiveIterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NextHopTableTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void pathsInMemoryAreShortest() {
+        SampleNetwork network = SampleNetwork.random(101, 120, false);
+        NextHopTable table = NextHopTable.inMemory(network.getVertexCount());
+        compute(network, table);
+        assertPaths(network, table);
+    }
+
+    @Test
+    public void tableFileRoundTrip() throws IOException {
+        SampleNetwork network = SampleNetwork.random(102, 120, true);
+        Path file = folder.newFile("next-hops.bin").toPath();
+        try (NextHopTable table = NextHopTable.create(file, network.getVertexCount())) {
+            compute(network, table);
+        }
+        try (NextHopTable table = NextHopTable.open(file)) {
+            assertEquals(network.getVertexCount(), table.size());
+            assertPaths(network, table);
+        }
+    }
+
+    @Test
+    public void rowsNotComputedHaveNoNextHops() {
+        NextHopTable table = NextHopTable.inMemory(3);
+        int none = OneToAllSearch.NO_PREDECESSOR;
+        table.accept(0, new double[]{0, 1, 2}, new int[]{none, 0, 1});
+        assertEquals(1, table.nextHop(0, 2));
+        assertEquals(0, table.nextHop(0, 0));
+        assertEquals(NextHopTable.NO_NEXT_HOP, table.nextHop(1, 2));
+        assertFalse(table.path(1, 2).hasNext());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cyclicPredecessorsAreRejected() {
+        NextHopTable table = NextHopTable.inMemory(3);
+        table.accept(0, new double[]{0, 1, 1}, new int[]{OneToAllSearch.NO_PREDECESSOR, 2, 1});
+    }
+
+    private static void compute(SampleNetwork network, NextHopTable table) {
+        AllPairsShortestPath.builder()
+                .graph(network.compact())
+                .parallelism(3)
+                .build()
+                .compute(table);
+    }
+
+    private static void assertPaths(SampleNetwork network, NextHopTable table) {
+        CompactGraph<Integer, Arc> graph = network.compact();
+        for (int source = 0; source < network.getVertexCount(); source++) {
+            double[] expected = network.distances(source);
+            for (int target = 0; target < network.getVertexCount(); target++) {
+                String message = source + " -> " + target;
+                PrimitiveIterator.OfInt path = table.path(source, target);
+                if (expected[target] == Double.POSITIVE_INFINITY) {
+                    assertEquals(message, NextHopTable.NO_NEXT_HOP, table.nextHop(source, target));
+                    assertFalse(message, path.hasNext());
+                    continue;
+                }
+                assertTrue(message, path.hasNext());
+                int u = path.nextInt();
+                assertEquals(message, source, u);
+                double length = 0;
+                while (path.hasNext()) {
+                    int v = path.nextInt();
+                    length += weight(graph, u, v);
+                    u = v;
+                }
+                assertEquals(message, target, u);
+                SampleNetwork.assertDistance(message, expected[target], length);
+            }
+        }
+    }
+
+    private static double weight(CompactGraph<Integer, Arc> graph, int from, int to) {
+        for (int arc = graph.firstArc(from); arc < graph.endArc(from); arc++) {
+            if (graph.target(arc) == to) {
+                return graph.weight(arc);
+            }
+        }
+        throw new AssertionError("no arc " + from + " -> " + to);
+    }
+}
@@ -0,0 +1,169 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.dbf;
+
+import org.geotools.data.shapefile.dbf.DbaseFileHeader;
+import org.geotools.data.shapefile.dbf.DbaseFileReader;
+import org.jgrapht.Graph;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ro.albertlr.graph.Node;
+import ro.albertlr.graph.NodeDictionary;
+import ro.albertlr.graph.Road;
+import ro.albertlr.graph.RoadAttributes;
+import ro.albertlr.graph.RoadColumn;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DbfFileTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void decoderMatchesGeoTools() throws IOException {
+        Path file = write();
+        try (DbfFile dbf = DbfFile.open(file);
+             FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            DbaseFileReader reader = new DbaseFileReader(channel, false, StandardCharsets.ISO_8859_1);
+            try {
+                DbaseFileHeader header = reader.getHeader();
+                assertEquals(header.getNumRecords(), dbf.getRecordCount());
+                assertEquals(header.getNumFields(), dbf.getFields().size());
+                for (int i = 0; i < header.getNumFields(); i++) {
+                    DbfField field = dbf.getFields().get(i);
+                    assertEquals(header.getFieldName(i), field.getName());
+                    assertEquals(header.getFieldType(i), field.getType());
+                    assertEquals(header.getFieldLength(i), field.getLength());
+                    assertEquals(header.getFieldDecimalCount(i), field.getDecimalCount());
+                }
+
+                for (int record = 0; record < dbf.getRecordCount(); record++) {
+                    assertTrue(reader.hasNext());
+                    DbaseFileReader.Row row = reader.readRow();
+                    assertEquals("record " + record, row.isDeleted(), dbf.isDeleted(record));
+                    for (int i = 0; i < header.getNumFields(); i++) {
+                        DbfField field = dbf.getFields().get(i);
+                        String message = "record " + record + ", " + field.getName();
+                        Object expected = row.read(i);
+                        if (!field.isNumeric()) {
+                            assertEquals(message, expected, dbf.getString(record, field));
+                        } else if (expected == null) {
+                            assertTrue(message, dbf.isNull(record, field));
+                        } else {
+                            assertFalse(message, dbf.isNull(record, field));
+                            double value = ((Number) expected).doubleValue();
+                            assertEquals(message, value, dbf.getDouble(record, field), 0);
+                            if (field.getDecimalCount() == 0) {
+                                assertEquals(message, ((Number) expected).longValue(), dbf.getLong(record, field));
+                            }
+                        }
+                    }
+                }
+                assertFalse(reader.hasNext());
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    @Test
+    public void columnsSkipDeletedAndBlankRecords() throws IOException {
+        try (DbfFile dbf = DbfFile.open(write())) {
+            assertNull(dbf.field("MISSING"));
+            long[] lengths = dbf.longColumn(dbf.field("LENGTH"), -1);
+            assertEquals(-42, lengths[0]);
+            assertEquals(-1, lengths[1]);
+            assertEquals(-1, lengths[2]);
+            assertEquals(7, lengths[3]);
+            assertEquals(-1, lengths[4]);
+            double[] speeds = dbf.doubleColumn(dbf.field("SP_B_M"), Double.NaN);
+            assertEquals(12.5, speeds[0], 0);
+            assertTrue(Double.isNaN(speeds[1]));
+            assertTrue(Double.isNaN(speeds[2]));
+            assertEquals(-0.0625, speeds[3], 0);
+        }
+    }
+
+    @Test
+    public void importSkipsDeletedRecords() throws IOException {
+        RoadAttributes attributes = new RoadAttributes(new NodeDictionary(),
+                EnumSet.of(RoadColumn.ID, RoadColumn.LENGTH, RoadColumn.SP_B_M, RoadColumn.CAP_F_M), false);
+        Graph<Node, Road> graph = ReadDbf.importFile(write().toString(), 2, attributes);
+        assertNotNull(graph);
+        assertEquals(3, graph.vertexSet().size());
+        assertEquals(SampleTable.RECORDS.length - 1, graph.edgeSet().size());
+
+        Map<Long, Road> roads = new HashMap<>();
+        for (Road road : graph.edgeSet()) {
+            roads.put(road.getId(), road);
+        }
+        assertFalse(roads.containsKey(2L));
+        Road main = roads.get(9007199254740993L);
+        assertEquals("1", main.getA().getTazId());
+        assertEquals("2", main.getB().getTazId());
+        assertEquals(-42, main.getLength());
+        assertEquals(12.5, main.get(RoadColumn.SP_B_M), 0);
+        assertEquals(1250, main.get(RoadColumn.CAP_F_M), 0);
+        // blank and overflowed fields keep the default
+        assertEquals(0, roads.get(3L).getLength());
+        assertEquals(0, roads.get(5L).getLength());
+        assertEquals(123456789.1234567, roads.get(-4L).get(RoadColumn.CAP_F_M), 0);
+        assertEquals(-2.5e-3, roads.get(5L).get(RoadColumn.CAP_F_M), 0);
+    }
+
+    @Test
+    public void importLoadsOnlyTheProjectedColumns() throws IOException {
+        RoadAttributes attributes =
+                new RoadAttributes(new NodeDictionary(), EnumSet.of(RoadColumn.ID, RoadColumn.CAP_F_M), false);
+        Graph<Node, Road> graph = ReadDbf.importFile(write().toString(), 2, attributes);
+        assertNotNull(graph);
+        assertEquals(EnumSet.of(RoadColumn.ID, RoadColumn.CAP_F_M), attributes.getColumns());
+        Map<Long, Road> roads = new HashMap<>();
+        for (Road road : graph.edgeSet()) {
+            roads.put(road.getId(), road);
+            assertEquals(0, road.getLength());
+            assertEquals(0, road.get(RoadColumn.SP_B_M), 0);
+        }
+        assertEquals(SampleTable.RECORDS.length - 1, roads.size());
+        Road main = roads.get(9007199254740993L);
+        // the end nodes are always read
+        assertEquals("1", main.getA().getTazId());
+        assertEquals("2", main.getB().getTazId());
+        assertEquals(1250, main.get(RoadColumn.CAP_F_M), 0);
+    }
+
+    private Path write() throws IOException {
+        return SampleTable.write(folder.newFile("links.dbf").toPath(), SampleTable.RECORDS);
+    }
+}
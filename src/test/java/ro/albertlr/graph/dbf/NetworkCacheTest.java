@@ -0,0 +1,166 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.dbf;
+
+import org.jgrapht.Graph;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ro.albertlr.graph.Node;
+import ro.albertlr.graph.NodeDictionary;
+import ro.albertlr.graph.Road;
+import ro.albertlr.graph.RoadAttributes;
+import ro.albertlr.graph.RoadColumn;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class NetworkCacheTest {
+    private static final Set<RoadColumn> COLUMNS =
+            EnumSet.of(RoadColumn.ID, RoadColumn.LENGTH, RoadColumn.SP_F, RoadColumn.SP_B_M, RoadColumn.CAP_F_M);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void snapshotRoundTrip() throws IOException {
+        for (boolean offHeap : new boolean[]{false, true}) {
+            Path source = SampleTable.write(folder.newFile("links-" + offHeap + ".dbf").toPath(),
+                    SampleTable.random(141, 3000, 400));
+            List<Path> sources = Collections.singletonList(source);
+            Path cache = NetworkCache.cacheFile(source);
+            RoadAttributes imported = new RoadAttributes(new NodeDictionary(), COLUMNS, offHeap);
+            Graph<Node, Road> expected = ReadDbf.importFile(source.toString(), 2, imported);
+            NetworkCache.write(cache, sources, expected, imported);
+            assertFalse(Files.exists(cache.resolveSibling(cache.getFileName() + ".tmp")));
+
+            RoadAttributes restored = new RoadAttributes(new NodeDictionary(), COLUMNS, offHeap);
+            Graph<Node, Road> actual = NetworkCache.load(cache, sources, restored);
+            assertNotNull(actual);
+            assertEquals(imported.getTypeName(), restored.getTypeName());
+
+            List<Node> expectedNodes = new ArrayList<>(expected.vertexSet());
+            List<Node> actualNodes = new ArrayList<>(actual.vertexSet());
+            assertEquals(expectedNodes.size(), actualNodes.size());
+            for (int v = 0; v < expectedNodes.size(); v++) {
+                assertEquals("vertex " + v, expectedNodes.get(v).getTazId(), actualNodes.get(v).getTazId());
+                assertEquals("vertex " + v, v, restored.getNodes().index(actualNodes.get(v).getTazId()));
+            }
+
+            List<Road> expectedRoads = new ArrayList<>(expected.edgeSet());
+            List<Road> actualRoads = new ArrayList<>(actual.edgeSet());
+            assertEquals(expectedRoads.size(), actualRoads.size());
+            for (int i = 0; i < expectedRoads.size(); i++) {
+                Road expectedRoad = expectedRoads.get(i);
+                Road actualRoad = actualRoads.get(i);
+                String message = "road " + i;
+                assertEquals(message, expectedRoad.getFeatureId(), actualRoad.getFeatureId());
+                assertEquals(message, expectedRoad.getA().getTazId(), actualRoad.getA().getTazId());
+                assertEquals(message, expectedRoad.getB().getTazId(), actualRoad.getB().getTazId());
+                assertTrue(message, expectedRoad.getId() >= 1L << 53);
+                for (RoadColumn column : COLUMNS) {
+                    assertEquals(message + ", " + column, imported.getLong(column, expectedRoad.getEdge()),
+                            restored.getLong(column, actualRoad.getEdge()));
+                    assertEquals(message + ", " + column, imported.getDouble(column, expectedRoad.getEdge()),
+                            restored.getDouble(column, actualRoad.getEdge()), 0);
+                }
+            }
+
+            for (int v = 0; v < expectedNodes.size(); v++) {
+                Node expectedNode = expectedNodes.get(v);
+                Node actualNode = actualNodes.get(v);
+                assertEquals("out of " + v, featureIds(expected.outgoingEdgesOf(expectedNode)),
+                        featureIds(actual.outgoingEdgesOf(actualNode)));
+                assertEquals("into " + v, featureIds(expected.incomingEdgesOf(expectedNode)),
+                        featureIds(actual.incomingEdgesOf(actualNode)));
+                for (Road road : actual.outgoingEdgesOf(actualNode)) {
+                    assertTrue(actual.containsEdge(road));
+                    assertTrue(actual.getAllEdges(actualNode, road.getB()).contains(road));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void touchedSourcesMakeTheSnapshotStale() throws IOException {
+        Path source = SampleTable.write(folder.newFile("links.dbf").toPath(), SampleTable.RECORDS);
+        List<Path> sources = Collections.singletonList(source);
+        Path cache = write(source);
+        assertNotNull(NetworkCache.load(cache, sources, new RoadAttributes(new NodeDictionary(), COLUMNS, false)));
+
+        // same size and modification time, other content
+        FileTime modified = Files.getLastModifiedTime(source);
+        byte[] bytes = Files.readAllBytes(source);
+        bytes[bytes.length - 2] = (byte) 'X';
+        Files.write(source, bytes);
+        Files.setLastModifiedTime(source, modified);
+        assertNull(NetworkCache.load(cache, sources, new RoadAttributes(new NodeDictionary(), COLUMNS, false)));
+
+        cache = write(source);
+        Files.setLastModifiedTime(source, FileTime.fromMillis(modified.toMillis() + 1000));
+        assertNull(NetworkCache.load(cache, sources, new RoadAttributes(new NodeDictionary(), COLUMNS, false)));
+    }
+
+    @Test
+    public void otherColumnsMakeTheSnapshotStale() throws IOException {
+        Path source = SampleTable.write(folder.newFile("links.dbf").toPath(), SampleTable.RECORDS);
+        Path cache = write(source);
+        RoadAttributes fewer = new RoadAttributes(new NodeDictionary(), EnumSet.of(RoadColumn.ID), false);
+        assertNull(NetworkCache.load(cache, Collections.singletonList(source), fewer));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void snapshotsLoadIntoEmptyStoresOnly() throws IOException {
+        Path source = SampleTable.write(folder.newFile("links.dbf").toPath(), SampleTable.RECORDS);
+        Path cache = write(source);
+        RoadAttributes attributes = new RoadAttributes(new NodeDictionary(), COLUMNS, false);
+        attributes.getNodes().getOrCreate("1");
+        NetworkCache.load(cache, Collections.singletonList(source), attributes);
+    }
+
+    private static Path write(Path source) throws IOException {
+        RoadAttributes attributes = new RoadAttributes(new NodeDictionary(), COLUMNS, false);
+        Graph<Node, Road> network = ReadDbf.importFile(source.toString(), 1, attributes);
+        Path cache = NetworkCache.cacheFile(source);
+        NetworkCache.write(cache, Collections.singletonList(source), network, attributes);
+        return cache;
+    }
+
+    private static List<String> featureIds(Set<Road> roads) {
+        List<String> featureIds = new ArrayList<>();
+        for (Road road : roads) {
+            featureIds.add(road.getFeatureId());
+        }
+        return featureIds;
+    }
+}
@@ -0,0 +1,90 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.dbf;
+
+import org.jgrapht.Graph;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ro.albertlr.graph.Node;
+import ro.albertlr.graph.NodeDictionary;
+import ro.albertlr.graph.Road;
+import ro.albertlr.graph.RoadAttributes;
+import ro.albertlr.graph.RoadColumn;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ReadDbfTest {
+    private static final EnumSet<RoadColumn> COLUMNS =
+            EnumSet.of(RoadColumn.ID, RoadColumn.LENGTH, RoadColumn.SP_B_M, RoadColumn.CAP_F_M);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void parallelDecodingMatchesTheRecords() throws IOException {
+        // enough records for four threads to split them into ranges
+        String[][] records = SampleTable.random(131, 40000, 3000);
+        Path file = SampleTable.write(folder.newFile("links.dbf").toPath(), records);
+
+        RoadAttributes sequential = new RoadAttributes(new NodeDictionary(), COLUMNS, false);
+        Graph<Node, Road> expected = ReadDbf.importFile(file.toString(), 1, sequential);
+        RoadAttributes parallel = new RoadAttributes(new NodeDictionary(), COLUMNS, true);
+        Graph<Node, Road> actual = ReadDbf.importFile(file.toString(), 4, parallel);
+
+        List<Node> expectedNodes = new ArrayList<>(expected.vertexSet());
+        List<Node> actualNodes = new ArrayList<>(actual.vertexSet());
+        assertEquals(expectedNodes.size(), actualNodes.size());
+        for (int v = 0; v < expectedNodes.size(); v++) {
+            String tazId = expectedNodes.get(v).getTazId();
+            assertEquals("vertex " + v, tazId, actualNodes.get(v).getTazId());
+            assertEquals("vertex " + v, sequential.getNodes().index(tazId), parallel.getNodes().index(tazId));
+        }
+
+        List<Road> expectedRoads = new ArrayList<>(expected.edgeSet());
+        List<Road> actualRoads = new ArrayList<>(actual.edgeSet());
+        assertEquals(expectedRoads.size(), actualRoads.size());
+        int edge = 0;
+        for (int record = 0; record < records.length; record++) {
+            if ("*".equals(records[record][0])) {
+                continue;
+            }
+            String[] fields = records[record];
+            for (Road road : new Road[]{expectedRoads.get(edge), actualRoads.get(edge)}) {
+                String message = "record " + record;
+                assertEquals(message, "links." + (record + 1), road.getFeatureId());
+                assertEquals(message, Long.parseLong(fields[1]), road.getId());
+                assertEquals(message, fields[2], road.getA().getTazId());
+                assertEquals(message, fields[3], road.getB().getTazId());
+                assertEquals(message, fields[4].isEmpty() ? 0 : Long.parseLong(fields[4]), road.getLength());
+                assertEquals(message, Double.parseDouble(fields[5]), road.get(RoadColumn.SP_B_M), 0);
+                assertEquals(message, Double.parseDouble(fields[6]), road.get(RoadColumn.CAP_F_M), 0);
+            }
+            edge++;
+        }
+        assertEquals(expectedRoads.size(), edge);
+    }
+}
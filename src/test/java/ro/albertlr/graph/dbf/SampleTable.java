@@ -0,0 +1,123 @@
+/*-
+ * #%L
+ * All-Pairs Shortest Path
+ *  
+ * Copyright (C) 2019 László-Róbert, Albert (robert@albertlr.ro)
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ro.albertlr.graph.dbf;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * dBase III links tables written by hand: the node and attribute columns of a links table plus a character column.
+ * A record is its deletion flag followed by the text of every field.
+ */
+public class SampleTable {
+    static final String[] NAMES = {"ID", "NODEA", "NODEB", "LENGTH", "SP_B_M", "CAP_F_M", "STREET"};
+    static final char[] TYPES = {'N', 'N', 'N', 'N', 'N', 'F', 'C'};
+    static final int[] LENGTHS = {18, 10, 10, 9, 12, 20, 12};
+    static final int[] DECIMALS = {0, 0, 0, 0, 4, 6, 0};
+    /**
+     * Deleted records, blank and overflowed numbers, signs, decimals, exponents, more digits than a double holds and an
+     * id above 2^53.
+     */
+    static final String[][] RECORDS = {
+            {" ", "9007199254740993", "1", "2", "-42", "12.5", "1.25E+03", "Main St"},
+            {"*", "2", "2", "3", "10", "1.0000", "3.000000", "Gone"},
+            {" ", "3", "2", "1", "", "", "0.000001", ""},
+            {" ", "-4", "3", "1", "+7", "-0.0625", "123456789.1234567", "Side"},
+            {" ", "5", "1", "3", "*********", "0.1", "-2.5e-3", "Ring"},
+            {" ", "6", "3", "2", "0", "99999.9999", "1e22", "Long"}
+    };
+
+    private SampleTable() {
+    }
+
+    /**
+     * Random records between distinct pairs of nodes, ids above 2^53, a few of them deleted and some lengths blank.
+     */
+    static String[][] random(long seed, int recordCount, int nodeCount) {
+        Random random = new Random(seed);
+        Set<Long> pairs = new HashSet<>();
+        String[][] records = new String[recordCount][];
+        for (int record = 0; record < recordCount; record++) {
+            int nodeA;
+            int nodeB;
+            do {
+                nodeA = 1 + random.nextInt(nodeCount);
+                nodeB = 1 + random.nextInt(nodeCount);
+            } while (!pairs.add((long) nodeA * nodeCount + nodeB));
+            records[record] = new String[]{
+                    random.nextInt(50) == 0 ? "*" : " ",
+                    String.valueOf((1L << 53) + record),
+                    String.valueOf(nodeA),
+                    String.valueOf(nodeB),
+                    random.nextInt(20) == 0 ? "" : String.valueOf(random.nextInt(5000) - 100),
+                    String.format(Locale.ROOT, "%.4f", 120 * random.nextDouble()),
+                    String.format(Locale.ROOT, "%.6f", 5000 * random.nextDouble()),
+                    "S" + random.nextInt(1000)
+            };
+        }
+        return records;
+    }
+
+    /**
+     * Writes the records as a dBase III table, the numbers right aligned and the characters left aligned.
+     */
+    static Path write(Path file, String[][] records) throws IOException {
+        int headerLength = 32 + 32 * NAMES.length + 1;
+        int recordLength = 1;
+        for (int length : LENGTHS) {
+            recordLength += length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(headerLength + records.length * recordLength + 1)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put((byte) 0x03).put((byte) 119).put((byte) 10).put((byte) 17);
+        buffer.putInt(records.length);
+        buffer.putShort((short) headerLength);
+        buffer.putShort((short) recordLength);
+        buffer.position(32);
+        for (int i = 0; i < NAMES.length; i++) {
+            byte[] descriptor = new byte[32];
+            byte[] name = NAMES[i].getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(name, 0, descriptor, 0, name.length);
+            descriptor[11] = (byte) TYPES[i];
+            descriptor[16] = (byte) LENGTHS[i];
+            descriptor[17] = (byte) DECIMALS[i];
+            buffer.put(descriptor);
+        }
+        buffer.put((byte) 0x0D);
+        for (String[] record : records) {
+            buffer.put(record[0].getBytes(StandardCharsets.US_ASCII));
+            for (int i = 0; i < NAMES.length; i++) {
+                String format = "%" + (TYPES[i] == 'C' ? "-" : "") + LENGTHS[i] + "s";
+                buffer.put(String.format(format, record[i + 1]).getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+        buffer.put((byte) 0x1A);
+        Files.write(file, buffer.array());
+        return file;
+    }
+}